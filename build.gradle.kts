@@ -9,12 +9,79 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+
 dependencies {
     implementation("org.apache.logging.log4j:log4j-core:2.23.1")
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+val jmhResults = layout.buildDirectory.file("reports/jmh/results.json")
+
+// ./gradlew jmh -Pjmh.include=HashTableBenchmark.getValue -Pjmh.args="-p size=1000000"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks and writes JSON results to build/reports/jmh."
+    dependsOn("jmhClasses")
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    val include = findProperty("jmh.include") as String?
+    val extra = (findProperty("jmh.args") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+    val results = jmhResults.get().asFile
+    doFirst { results.parentFile.mkdirs() }
+    args(listOfNotNull(include) + listOf("-prof", "gc", "-rf", "json", "-rff", results.absolutePath) + extra)
+}
+
+// ./gradlew jmhGate -Pjmh.baseline=path/to/baseline.json [-Pjmh.tolerance=0.10]
+tasks.register("jmhGate") {
+    group = "benchmark"
+    description = "Fails if any benchmark in the last JMH run regressed against a baseline results file."
+    val baselinePath = findProperty("jmh.baseline") as String?
+    val tolerance = (findProperty("jmh.tolerance") as String?)?.toDouble() ?: 0.10
+    val results = jmhResults.get().asFile
+    doLast {
+        if (baselinePath == null) {
+            throw GradleException("Missing -Pjmh.baseline=<results.json>")
+        }
+
+        @Suppress("UNCHECKED_CAST")
+        fun scores(file: File): Map<String, Pair<String, Double>> =
+            (groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>).associate { run ->
+                val params = (run["params"] as Map<String, Any?>?)?.toSortedMap()?.toString() ?: ""
+                val metric = run["primaryMetric"] as Map<String, Any?>
+                "${run["benchmark"]} ${run["mode"]} $params" to
+                        Pair(run["mode"] as String, (metric["score"] as Number).toDouble())
+            }
+
+        val baseline = scores(file(baselinePath))
+        val current = scores(results)
+        val regressions = current.mapNotNull { (name, score) ->
+            val before = baseline[name] ?: return@mapNotNull null
+            val change = if (score.first == "thrpt") {
+                (before.second - score.second) / before.second
+            } else {
+                (score.second - before.second) / before.second
+            }
+            if (change > tolerance) "$name: ${before.second} -> ${score.second}" else null
+        }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("Benchmarks regressed by more than ${tolerance * 100}%:\n" +
+                    regressions.joinToString("\n"))
+        }
+        logger.lifecycle("No regressions across ${current.size} benchmark results.")
+    }
+}
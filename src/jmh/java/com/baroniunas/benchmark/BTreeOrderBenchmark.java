@@ -0,0 +1,78 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.collections.btree.BTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BTree lookup latency across minimum degrees. The bulk build allocates exactly the finished
+ * tree, so its {@code gc.alloc.rate.norm} divided by {@code size} is the structure's bytes per
+ * entry, excluding the keys and values themselves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BTreeOrderBenchmark {
+    private static final int ACCESSES = 1 << 16;
+
+    @Param({"2", "8", "32", "64"})
+    int minDegree;
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    private Integer[] keys;
+    private Object[] values;
+    private Integer[] lookups;
+    private BTree<Integer, Object> tree;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new Integer[size];
+        values = new Object[size];
+        for (int id = 0; id < size; id++) {
+            keys[id] = id;
+            values[id] = HashTableBenchmark.VALUE;
+        }
+        tree = new BTree<>(minDegree);
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        for (int id : random.ints(0, size).distinct().limit(size).toArray()) {
+            tree.put(keys[id], values[id]);
+        }
+        lookups = new Integer[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            lookups[i] = keys[random.nextInt(size)];
+        }
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return tree.getValue(lookups[cursor++ & (ACCESSES - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public BTree<Integer, Object> bulkBuild() {
+        return new BTree<>(minDegree, keys, values, size);
+    }
+}
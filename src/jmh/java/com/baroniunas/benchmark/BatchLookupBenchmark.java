@@ -0,0 +1,91 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HashTable#getAll} and {@link HashTable#putAll(Comparable[], Object[])} against the same
+ * keys in a single-key loop. Scores are per batch, so divide by {@code batch} for per-key cost.
+ * At 10M entries the table is far larger than the last-level cache and nearly every bucket access
+ * misses, which is where grouping the accesses should pay off.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BatchLookupBenchmark {
+    private static final int BATCHES = 256;
+
+    @Param({"8", "32", "128", "1024"})
+    int batch;
+
+    @Param({"10000000"})
+    int size;
+
+    private HashTable<Integer, Integer> table;
+    private Integer[][] keys;
+    private Integer[] out;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = HashTable.withExpectedSize(size);
+        for (int id = 0; id < size; id++) {
+            table.put(KeyType.scramble(id), id);
+        }
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        keys = new Integer[BATCHES][batch];
+        for (Integer[] group : keys) {
+            for (int i = 0; i < batch; i++) {
+                group[i] = KeyType.scramble(random.nextInt(size));
+            }
+        }
+        out = new Integer[batch];
+    }
+
+    private Integer[] nextBatch() {
+        return keys[cursor++ & (BATCHES - 1)];
+    }
+
+    @Benchmark
+    public void getValueLoop(Blackhole blackhole) {
+        for (Integer key : nextBatch()) {
+            blackhole.consume(table.getValue(key));
+        }
+    }
+
+    @Benchmark
+    public int getAll() {
+        return table.getAll(nextBatch(), out);
+    }
+
+    @Benchmark
+    public void putLoop() {
+        for (Integer key : nextBatch()) {
+            table.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public void putAll() {
+        Integer[] group = nextBatch();
+        table.putAll(group, group);
+    }
+}
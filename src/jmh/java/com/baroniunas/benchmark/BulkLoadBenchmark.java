@@ -0,0 +1,87 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a snapshot: single puts against {@code putAll}, and a BTree built by repeated inserts
+ * against one built bottom-up from sorted keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    private Integer[] keys;
+    private Object[] values;
+    private Map<Integer, Object> snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new Integer[size];
+        values = new Object[size];
+        snapshot = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            keys[id] = id;
+            values[id] = HashTableBenchmark.VALUE;
+            snapshot.put(KeyType.scramble(id), HashTableBenchmark.VALUE);
+        }
+    }
+
+    @Benchmark
+    public HashTable<Integer, Object> singlePuts() {
+        HashTable<Integer, Object> table = new HashTable<>();
+        for (Map.Entry<Integer, Object> entry : snapshot.entrySet()) {
+            table.put(entry.getKey(), entry.getValue());
+        }
+        return table;
+    }
+
+    @Benchmark
+    public HashTable<Integer, Object> putAll() {
+        HashTable<Integer, Object> table = new HashTable<>();
+        table.putAll(snapshot);
+        return table;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Object> hashMapPutAll() {
+        return new HashMap<>(snapshot);
+    }
+
+    @Benchmark
+    public BTree<Integer, Object> treeInserts() {
+        BTree<Integer, Object> tree = new BTree<>();
+        for (int i = 0; i < size; i++) {
+            tree.put(keys[i], values[i]);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public BTree<Integer, Object> treeBulkBuild() {
+        return new BTree<>(keys, values, size);
+    }
+}
@@ -0,0 +1,118 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.cache.Cache;
+import com.baroniunas.cache.CacheStats;
+import com.baroniunas.cache.EvictionPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Replays access traces through a bounded {@link Cache}, loading on every miss. The score is
+ * read-through throughput; each fork also prints the hit ratio of one clean pass over the
+ * trace, which is the number to compare between eviction policies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+    private static final int TRACE_LENGTH = 1 << 20;
+    private static final Function<Integer, Object> LOADER = key -> HashTableBenchmark.VALUE;
+
+    public enum Trace {
+        // Skewed popularity over a key space a hundred times the cache size.
+        ZIPFIAN,
+        // The Zipfian trace interrupted by one-off sequential scans twice the cache size.
+        SCAN,
+        // A loop over one and a half times the cache size, the worst case for LRU.
+        LOOP;
+
+        Integer[] generate(int cacheSize, SplittableRandom random) {
+            Integer[] trace = new Integer[TRACE_LENGTH];
+            ZipfianGenerator zipfian = new ZipfianGenerator(cacheSize * 100, random);
+            int scanKey = cacheSize * 100;
+            int i = 0;
+            while (i < TRACE_LENGTH) {
+                switch (this) {
+                    case ZIPFIAN:
+                        trace[i++] = KeyType.scramble(zipfian.next());
+                        break;
+                    case SCAN:
+                        for (int j = 0; j < cacheSize * 4 && i < TRACE_LENGTH; j++) {
+                            trace[i++] = KeyType.scramble(zipfian.next());
+                        }
+                        for (int j = 0; j < cacheSize * 2 && i < TRACE_LENGTH; j++) {
+                            trace[i++] = KeyType.scramble(scanKey++);
+                        }
+                        break;
+                    default:
+                        trace[i] = i % (cacheSize + cacheSize / 2);
+                        i++;
+                }
+            }
+            return trace;
+        }
+    }
+
+    @Param({"LRU", "W_TINY_LFU"})
+    EvictionPolicy evictionPolicy;
+
+    @Param({"ZIPFIAN", "SCAN", "LOOP"})
+    Trace trace;
+
+    @Param({"1000", "100000"})
+    int cacheSize;
+
+    private Integer[] keys;
+    private Cache<Integer, Object> cache;
+    private double hitRatio;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = trace.generate(cacheSize, new SplittableRandom(HashTableBenchmark.SEED));
+        Cache<Integer, Object> replay = newCache();
+        for (Integer key : keys) {
+            replay.get(key, LOADER);
+        }
+        hitRatio = replay.getStats().getHitRate();
+        cache = newCache();
+    }
+
+    private Cache<Integer, Object> newCache() {
+        return Cache.<Integer, Object>builder()
+                .maximumSize(cacheSize)
+                .evictionPolicy(evictionPolicy)
+                .build();
+    }
+
+    // Printed once per fork, so the hit ratio appears in the benchmark log next to the scores.
+    @TearDown(Level.Trial)
+    public void printHitRatio() {
+        CacheStats stats = cache.getStats();
+        System.out.printf("policy=%s trace=%s cacheSize=%d hitRatio=%.4f benchmarkHitRatio=%.4f evictions=%d%n",
+                evictionPolicy, trace, cacheSize, hitRatio, stats.getHitRate(), stats.getEvictionCount());
+    }
+
+    @Benchmark
+    public Object get() {
+        return cache.get(keys[cursor++ & (TRACE_LENGTH - 1)], LOADER);
+    }
+}
@@ -0,0 +1,116 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.collections.Collections;
+import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.hashtable.CapacityMode;
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.Hasher;
+import com.baroniunas.hashtable.ResizeMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modulo versus power-of-two bucket indexing on keys with structured hash codes. Besides lookup
+ * throughput, each fork prints the bucket-length histogram of its filled table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapacityModeBenchmark {
+    private static final int ACCESSES = 1 << 16;
+
+    public enum KeyPattern {
+        SEQUENTIAL,
+        STRIDED,
+        SCRAMBLED;
+
+        int key(int id) {
+            switch (this) {
+                case SEQUENTIAL:
+                    return id;
+                case STRIDED:
+                    return id << 10;
+                default:
+                    return KeyType.scramble(id);
+            }
+        }
+    }
+
+    @Param({"MODULO", "POWER_OF_TWO"})
+    CapacityMode capacityMode;
+
+    @Param({"SEQUENTIAL", "STRIDED", "SCRAMBLED"})
+    KeyPattern keyPattern;
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    HashTable<Integer, Object> table;
+    private Integer[] keys;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = new HashTable<>(ResizeMode.STOP_THE_WORLD, capacityMode, Hasher.standard());
+        for (int id = 0; id < size; id++) {
+            table.put(keyPattern.key(id), HashTableBenchmark.VALUE);
+        }
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        keys = new Integer[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            keys[i] = keyPattern.key(random.nextInt(size));
+        }
+    }
+
+    // Printed once per fork, so the distribution appears in the benchmark log next to the scores.
+    @TearDown(Level.Trial)
+    public void printBucketHistogram() {
+        TreeMap<Integer, Integer> histogram = new TreeMap<>();
+        int treeBins = 0;
+        for (Collections<Integer, Object> bucket : table.getDataStructure()) {
+            int length = bucket == null ? 0 : bucket.getSize();
+            histogram.merge(length, 1, Integer::sum);
+            if (bucket instanceof BTree) {
+                treeBins++;
+            }
+        }
+        System.out.println("capacity=" + table.getCurrentCapacity() + " treeBins=" + treeBins
+                + " bucketLengthHistogram=" + histogram);
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return table.getValue(keys[cursor++ & (ACCESSES - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public HashTable<Integer, Object> fill() {
+        HashTable<Integer, Object> filled = new HashTable<>(ResizeMode.STOP_THE_WORLD, capacityMode, Hasher.standard());
+        for (int id = 0; id < size; id++) {
+            filled.put(keyPattern.key(id), HashTableBenchmark.VALUE);
+        }
+        return filled;
+    }
+}
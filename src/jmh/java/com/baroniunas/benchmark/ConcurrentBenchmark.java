@@ -0,0 +1,122 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.ConcurrentHashTable;
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed read/write load on one shared table. Run it once per thread count to get a scaling curve,
+ * e.g. {@code -Pjmh.args="-t 1"}, then {@code -t 2}, ... up to {@code -t 32}; by default it uses
+ * every available core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ConcurrentBenchmark {
+    private static final int ACCESSES = 1 << 16;
+
+    public enum Contender {
+        CONCURRENT_HASH_TABLE,
+        LOCKED_HASH_TABLE,
+        CONCURRENT_HASH_MAP;
+
+        TableAdapter<Integer, Object> create(int expectedSize) {
+            switch (this) {
+                case CONCURRENT_HASH_TABLE: {
+                    ConcurrentHashTable<Integer, Object> table = new ConcurrentHashTable<>(expectedSize);
+                    return new TableAdapter<>() {
+                        public void put(Integer key, Object value) { table.put(key, value); }
+                        public Object get(Integer key) { return table.getValue(key); }
+                        public Object remove(Integer key) { return table.removePair(key); }
+                    };
+                }
+                case LOCKED_HASH_TABLE: {
+                    HashTable<Integer, Object> table = new HashTable<>();
+                    return new TableAdapter<>() {
+                        public synchronized void put(Integer key, Object value) { table.put(key, value); }
+                        public synchronized Object get(Integer key) { return table.getValue(key); }
+                        public synchronized Object remove(Integer key) { return table.removePair(key); }
+                    };
+                }
+                default: {
+                    ConcurrentHashMap<Integer, Object> map = new ConcurrentHashMap<>(expectedSize);
+                    return new TableAdapter<>() {
+                        public void put(Integer key, Object value) { map.put(key, value); }
+                        public Object get(Integer key) { return map.get(key); }
+                        public Object remove(Integer key) { return map.remove(key); }
+                    };
+                }
+            }
+        }
+    }
+
+    @Param({"CONCURRENT_HASH_TABLE", "LOCKED_HASH_TABLE", "CONCURRENT_HASH_MAP"})
+    Contender contender;
+
+    @Param({"90", "50"})
+    int readPercent;
+
+    @Param({"1000000"})
+    int size;
+
+    TableAdapter<Integer, Object> table;
+    Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = contender.create(size);
+        keys = new Integer[size];
+        for (int id = 0; id < size; id++) {
+            keys[id] = KeyType.scramble(id);
+            table.put(keys[id], HashTableBenchmark.VALUE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        Integer[] keys;
+        boolean[] reads;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            keys = new Integer[ACCESSES];
+            reads = new boolean[ACCESSES];
+            for (int i = 0; i < ACCESSES; i++) {
+                keys[i] = benchmark.keys[random.nextInt(benchmark.size)];
+                reads[i] = random.nextInt(100) < benchmark.readPercent;
+            }
+        }
+    }
+
+    @Benchmark
+    public Object mixed(Worker worker) {
+        int i = worker.cursor++ & (ACCESSES - 1);
+        if (worker.reads[i]) {
+            return table.get(worker.keys[i]);
+        }
+        table.put(worker.keys[i], HashTableBenchmark.VALUE);
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.baroniunas.benchmark;
+
+import java.util.SplittableRandom;
+
+public enum Distribution {
+    UNIFORM,
+    ZIPFIAN,
+    COLLIDING;
+
+    Comparable<?> key(KeyType type, int id, int size) {
+        return this == COLLIDING ? type.colliding(id, size) : type.distinct(id);
+    }
+
+    int[] accessPattern(int size, int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] ids = new int[length];
+        if (this == ZIPFIAN) {
+            ZipfianGenerator zipf = new ZipfianGenerator(size, random);
+            for (int i = 0; i < length; i++) {
+                ids[i] = zipf.next();
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                ids[i] = random.nextInt(size);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,60 @@
+package com.baroniunas.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills an empty table from scratch, so every resize on the way to {@code size} entries is paid
+ * inside the measurement. {@code PRESIZED_HASH_TABLE} shows what is left once the table is sized up front.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FillBenchmark {
+
+    @Param({"HASH_TABLE", "PRESIZED_HASH_TABLE", "OPEN_ADDRESSING", "HASH_MAP", "TREE_MAP"})
+    Implementation implementation;
+
+    @Param({"INTEGER", "SHORT_STRING", "LONG_STRING"})
+    KeyType keyType;
+
+    @Param({"UNIFORM", "COLLIDING"})
+    Distribution distribution;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int size;
+
+    private Object[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new Object[size];
+        for (int id = 0; id < size; id++) {
+            keys[id] = distribution.key(keyType, id, size);
+        }
+    }
+
+    @Benchmark
+    public TableAdapter<Object, Object> fill() {
+        TableAdapter<Object, Object> table = implementation.createRaw(size);
+        for (Object key : keys) {
+            table.put(key, HashTableBenchmark.VALUE);
+        }
+        return table;
+    }
+}
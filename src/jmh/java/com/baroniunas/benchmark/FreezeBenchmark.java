@@ -0,0 +1,115 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.FrozenHashTable;
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link FrozenHashTable} against the mutable table it was frozen from: how long freezing takes,
+ * lookup latency on hits and misses, and the heap each structure retains. Keys and values are
+ * shared between the two, so the bytes per entry printed by each fork are the structures alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FreezeBenchmark {
+    private static final int MASK = (1 << 16) - 1;
+    // Below this the heap noise of a collection outweighs the structures themselves.
+    private static final int MEASURABLE_SIZE = 100_000;
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    private HashTable<Integer, Object> table;
+    private FrozenHashTable<Integer, Object> frozen;
+    private Integer[] hits;
+    private Integer[] misses;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Integer[] keys = new Integer[size];
+        for (int id = 0; id < size; id++) {
+            keys[id] = KeyType.scramble(id);
+        }
+        long tableBytes = retained(() -> {
+            table = new HashTable<>();
+            for (Integer key : keys) {
+                table.put(key, HashTableBenchmark.VALUE);
+            }
+            return table;
+        });
+        long frozenBytes = retained(() -> frozen = table.freeze());
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        hits = new Integer[MASK + 1];
+        misses = new Integer[MASK + 1];
+        for (int i = 0; i <= MASK; i++) {
+            hits[i] = keys[random.nextInt(size)];
+            misses[i] = KeyType.scramble(size + random.nextInt(size));
+        }
+        if (size >= MEASURABLE_SIZE) {
+            System.out.printf("size=%d tableBytesPerEntry=%.1f frozenBytesPerEntry=%.1f%n",
+                    size, tableBytes / (double) size, frozenBytes / (double) size);
+        }
+    }
+
+    // Heap still in use after building, measured across full collections.
+    private static long retained(Supplier<Object> build) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        Object built = build.get();
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        return built == null ? 0 : after - before;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public FrozenHashTable<Integer, Object> freeze() {
+        return table.freeze();
+    }
+
+    @Benchmark
+    public Object tableHit() {
+        return table.getValue(hits[cursor++ & MASK]);
+    }
+
+    @Benchmark
+    public Object frozenHit() {
+        return frozen.getValue(hits[cursor++ & MASK]);
+    }
+
+    @Benchmark
+    public Object tableMiss() {
+        return table.getValue(misses[cursor++ & MASK]);
+    }
+
+    @Benchmark
+    public Object frozenMiss() {
+        return frozen.getValue(misses[cursor++ & MASK]);
+    }
+}
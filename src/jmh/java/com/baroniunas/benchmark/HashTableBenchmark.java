@@ -0,0 +1,97 @@
+package com.baroniunas.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-key operations on a warm table. Hits and misses are replayed from a precomputed access
+ * pattern so key generation never shows up in the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashTableBenchmark {
+    static final Object VALUE = new Object();
+    static final long SEED = 42;
+    private static final int ACCESSES = 1 << 20;
+
+    @Param({"HASH_TABLE", "OPEN_ADDRESSING", "HASH_MAP", "TREE_MAP"})
+    Implementation implementation;
+
+    @Param({"INTEGER", "SHORT_STRING", "LONG_STRING"})
+    KeyType keyType;
+
+    @Param({"UNIFORM", "ZIPFIAN", "COLLIDING"})
+    Distribution distribution;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int size;
+
+    private TableAdapter<Object, Object> table;
+    private Object[] hits;
+    private Object[] misses;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Misses come from the second half of the id space, so they share the shape of the hits.
+        int keySpace = size * 2;
+        table = implementation.createRaw(size);
+        Object[] keys = new Object[size];
+        for (int id = 0; id < size; id++) {
+            keys[id] = distribution.key(keyType, id, keySpace);
+            table.put(keys[id], VALUE);
+        }
+
+        int[] pattern = distribution.accessPattern(size, ACCESSES, SEED);
+        hits = new Object[ACCESSES];
+        misses = new Object[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            hits[i] = keys[pattern[i]];
+            misses[i] = distribution.key(keyType, size + pattern[i], keySpace);
+        }
+    }
+
+    private Object next(Object[] keys) {
+        return keys[cursor++ & (ACCESSES - 1)];
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return table.get(next(hits));
+    }
+
+    @Benchmark
+    public Object getValueMiss() {
+        return table.get(next(misses));
+    }
+
+    @Benchmark
+    public void put() {
+        table.put(next(hits), VALUE);
+    }
+
+    // Puts the key back so the table stays at its parameterized size.
+    @Benchmark
+    public Object removePair() {
+        Object key = next(hits);
+        Object value = table.remove(key);
+        table.put(key, VALUE);
+        return value;
+    }
+}
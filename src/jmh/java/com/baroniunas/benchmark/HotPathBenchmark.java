@@ -0,0 +1,63 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls {@link HashTable} directly on a warm table with pre-boxed keys and values, so the
+ * {@code gc.alloc.rate.norm} reported by {@code -prof gc} is the table's own allocation per
+ * operation. It is expected to be 0 B/op for getValue and for put on an existing key.
+ * Runs with the shipped log4j2.xml, not the quiet benchmark config.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2.xml")
+public class HotPathBenchmark {
+    private static final int MASK = (1 << 16) - 1;
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    private HashTable<Integer, Integer> table;
+    private Integer[] keys;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = new HashTable<>();
+        keys = new Integer[MASK + 1];
+        for (int id = 0; id < size; id++) {
+            table.put(KeyType.scramble(id), id);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = KeyType.scramble(i % size);
+        }
+    }
+
+    @Benchmark
+    public Integer getValue() {
+        return table.getValue(keys[cursor++ & MASK]);
+    }
+
+    @Benchmark
+    public void putExisting() {
+        Integer key = keys[cursor++ & MASK];
+        table.put(key, key);
+    }
+}
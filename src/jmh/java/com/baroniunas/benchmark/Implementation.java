@@ -0,0 +1,65 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.OpenAddressingHashTable;
+import com.baroniunas.hashtable.Table;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public enum Implementation {
+    HASH_TABLE {
+        @Override
+        <K extends Comparable<K>, V> TableAdapter<K, V> create(int expectedSize) {
+            return forTable(new HashTable<K, V>());
+        }
+    },
+    PRESIZED_HASH_TABLE {
+        @Override
+        <K extends Comparable<K>, V> TableAdapter<K, V> create(int expectedSize) {
+            return forTable(HashTable.<K, V>withExpectedSize(expectedSize));
+        }
+    },
+    OPEN_ADDRESSING {
+        @Override
+        <K extends Comparable<K>, V> TableAdapter<K, V> create(int expectedSize) {
+            return forTable(new OpenAddressingHashTable<K, V>(expectedSize));
+        }
+    },
+    HASH_MAP {
+        @Override
+        <K extends Comparable<K>, V> TableAdapter<K, V> create(int expectedSize) {
+            return forMap(new HashMap<>());
+        }
+    },
+    TREE_MAP {
+        @Override
+        <K extends Comparable<K>, V> TableAdapter<K, V> create(int expectedSize) {
+            return forMap(new TreeMap<>());
+        }
+    };
+
+    abstract <K extends Comparable<K>, V> TableAdapter<K, V> create(int expectedSize);
+
+    private static <K extends Comparable<K>, V> TableAdapter<K, V> forTable(Table<K, V> table) {
+        return new TableAdapter<>() {
+            public void put(K key, V value) { table.put(key, value); }
+            public V get(K key) { return table.getValue(key); }
+            public V remove(K key) { return table.removePair(key); }
+        };
+    }
+
+    private static <K, V> TableAdapter<K, V> forMap(Map<K, V> map) {
+        return new TableAdapter<>() {
+            public void put(K key, V value) { map.put(key, value); }
+            public V get(K key) { return map.get(key); }
+            public V remove(K key) { return map.remove(key); }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    TableAdapter<Object, Object> createRaw(int expectedSize) {
+        return (TableAdapter<Object, Object>) (TableAdapter<?, ?>) create(expectedSize);
+    }
+}
@@ -0,0 +1,40 @@
+package com.baroniunas.benchmark;
+
+public enum KeyType {
+    INTEGER,
+    SHORT_STRING,
+    LONG_STRING;
+
+    private static final String LONG_PREFIX = "https://accounts.example.com/tenants/eu-west/users/profile/";
+
+    // Golden-ratio multiplication is a bijection on int, so distinct ids stay distinct but lose their order.
+    static int scramble(int id) {
+        return id * 0x9E3779B9;
+    }
+
+    Comparable<?> distinct(int id) {
+        int scrambled = scramble(id);
+        switch (this) {
+            case INTEGER:
+                return scrambled;
+            case SHORT_STRING:
+                return Integer.toString(scrambled, 36);
+            default:
+                return LONG_PREFIX + Integer.toString(scrambled, 36);
+        }
+    }
+
+    Comparable<?> colliding(int id, int size) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(size - 1, 1));
+        if (this == INTEGER) {
+            // Shifts ids as far left as they stay distinct, so they share all low bits.
+            return id << (31 - bits);
+        }
+        // "Aa" and "BB" have the same hashCode, so every string of such blocks collides.
+        StringBuilder sb = new StringBuilder(this == LONG_STRING ? LONG_PREFIX : "");
+        for (int bit = bits - 1; bit >= 0; bit--) {
+            sb.append(((id >>> bit) & 1) == 0 ? "Aa" : "BB");
+        }
+        return sb.toString();
+    }
+}
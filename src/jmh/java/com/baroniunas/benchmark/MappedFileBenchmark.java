@@ -0,0 +1,91 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.offheap.Codec;
+import com.baroniunas.offheap.OffHeapHashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reopening a memory-mapped {@link OffHeapHashTable} and reading it at random. The file for each
+ * {@code size} is built once in {@code java.io.tmpdir} and reused by later runs. Opening only maps
+ * the file, so {@code open} should not grow with {@code size}. With {@code -p size=200000000} the
+ * file is about 10 GiB; on a machine with less memory, {@code getValue} then measures page faults.
+ * Drop the page cache before a run for cold-start numbers.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedFileBenchmark {
+    private static final int ACCESSES = 1 << 16;
+
+    @Param({"1000000", "200000000"})
+    int size;
+
+    private Path file;
+    private OffHeapHashTable<Integer, Long> table;
+    private Integer[] keys;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Path.of(System.getProperty("java.io.tmpdir"), "hashtable-mapped-" + size + ".bin");
+        if (!Files.exists(file)) {
+            Path partial = Path.of(file + ".partial");
+            Files.deleteIfExists(partial);
+            try (OffHeapHashTable<Integer, Long> built = OffHeapHashTable.create(partial, Codec.INTEGER, Codec.LONG, size)) {
+                for (int key = 0; key < size; key++) {
+                    built.put(key, (long) key);
+                }
+            }
+            Files.move(partial, file);
+        }
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        keys = new Integer[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            keys[i] = random.nextInt(size);
+        }
+        table = OffHeapHashTable.open(file, Codec.INTEGER, Codec.LONG);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        table.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Long getValue() {
+        return table.getValue(keys[cursor++ & (ACCESSES - 1)]);
+    }
+
+    // Open, one lookup and close; close flushes, which costs nothing when no page was changed.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public Long open() throws IOException {
+        try (OffHeapHashTable<Integer, Long> reopened = OffHeapHashTable.open(file, Codec.INTEGER, Codec.LONG)) {
+            return reopened.getValue(keys[cursor++ & (ACCESSES - 1)]);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups where nine in ten keys are absent, with and without the membership filter. Misses are
+ * distinct keys of the same type, so without the filter each one walks a bucket. Each fork prints
+ * the filter's size, which divided by {@code size} is its memory cost per entry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+// Keys of either type go through one raw table, as in HashTableBenchmark's adapters.
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class MembershipFilterBenchmark {
+    private static final int MASK = (1 << 16) - 1;
+    private static final int MISS_PERCENT = 90;
+
+    @Param({"false", "true"})
+    boolean filter;
+
+    @Param({"INTEGER", "LONG_STRING"})
+    KeyType keyType;
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    private HashTable table;
+    private Object[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = HashTable.builder().membershipFilter(filter).build();
+        for (int id = 0; id < size; id++) {
+            table.put(keyType.distinct(id), HashTableBenchmark.VALUE);
+        }
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        lookups = new Object[MASK + 1];
+        for (int i = 0; i < lookups.length; i++) {
+            boolean miss = random.nextInt(100) < MISS_PERCENT;
+            lookups[i] = keyType.distinct(miss ? size + random.nextInt(size) : random.nextInt(size));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Printed once per fork, so the filter's footprint appears in the benchmark log next to the scores.
+        System.out.printf("filter=%s size=%d filterBytes=%d bytesPerEntry=%.2f%n", filter, size,
+                table.getMembershipFilterBytes(), table.getMembershipFilterBytes() / (double) size);
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return table.getValue((Comparable) lookups[cursor++ & MASK]);
+    }
+
+    @Benchmark
+    public boolean containsKey() {
+        return table.containsKey((Comparable) lookups[cursor++ & MASK]);
+    }
+}
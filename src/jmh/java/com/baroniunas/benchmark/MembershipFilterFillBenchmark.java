@@ -0,0 +1,46 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a table whose keys all have distinct hashes that fall into a handful of buckets, so nearly
+ * every write lands in a large tree bin. With the membership filter on, each write must decide
+ * whether its hash is still shared in that bin; this shows whether that costs more than the tree
+ * operation itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MembershipFilterFillBenchmark {
+    @Param({"false", "true"})
+    boolean filter;
+
+    @Param({"40000"})
+    int size;
+
+    @Benchmark
+    public HashTable<Integer, Integer> fillTreeBins() {
+        // Multiples of 1024 leave only three residues modulo a default capacity of 3 * 2^n.
+        HashTable<Integer, Integer> table = HashTable.<Integer, Integer>builder()
+                .hasher(key -> key * 1024).membershipFilter(filter).build();
+        for (int i = 0; i < size; i++) {
+            table.put(i, i);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,72 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of metrics sampling on the hot path, the same operations as {@link HotPathBenchmark}.
+ * {@code sampleInterval} 0 is the baseline with sampling off; the overhead of an interval is
+ * its score relative to that baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final int MASK = (1 << 16) - 1;
+
+    @Param({"0", "64", "1024"})
+    int sampleInterval;
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    private HashTable<Integer, Integer> table;
+    private Integer[] keys;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = HashTable.<Integer, Integer>builder().metricsSampleInterval(sampleInterval).build();
+        keys = new Integer[MASK + 1];
+        for (int id = 0; id < size; id++) {
+            table.put(KeyType.scramble(id), id);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = KeyType.scramble(i % size);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Printed once per fork, so the sampled figures appear in the benchmark log next to the scores.
+        System.out.println("sampleInterval=" + sampleInterval + " " + table.getMetrics());
+    }
+
+    @Benchmark
+    public Integer getValue() {
+        return table.getValue(keys[cursor++ & MASK]);
+    }
+
+    @Benchmark
+    public void putExisting() {
+        Integer key = keys[cursor++ & MASK];
+        table.put(key, key);
+    }
+}
@@ -0,0 +1,137 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.Table;
+import com.baroniunas.offheap.Codec;
+import com.baroniunas.offheap.OffHeapHashTable;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-heap {@link HashTable} versus {@link OffHeapHashTable} holding the same {@code size}
+ * entries. The scores are lookup and overwrite throughput; the figure that matters is printed
+ * per fork: the longest and total GC pause seen while the table was live, heap used after a full
+ * collection, and the process RSS. Run with {@code -p size=50000000} on a machine with at least
+ * 16 GiB of memory for the full comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class OffHeapBenchmark {
+    private static final int ACCESSES = 1 << 16;
+
+    public enum Storage {
+        ON_HEAP,
+        OFF_HEAP
+    }
+
+    @Param({"ON_HEAP", "OFF_HEAP"})
+    Storage storage;
+
+    @Param({"1000000", "50000000"})
+    int size;
+
+    private Table<Integer, Long> table;
+    private Integer[] keys;
+    private int cursor;
+    private long maxPauseMillis;
+    private long totalPauseMillis;
+    private int pauses;
+    private final NotificationListener pauseListener = (notification, handback) -> {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            long duration = GarbageCollectionNotificationInfo
+                    .from((CompositeData) notification.getUserData()).getGcInfo().getDuration();
+            synchronized (this) {
+                maxPauseMillis = Math.max(maxPauseMillis, duration);
+                totalPauseMillis += duration;
+                pauses++;
+            }
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = storage == Storage.ON_HEAP
+                ? HashTable.<Integer, Long>withExpectedSize(size)
+                : new OffHeapHashTable<>(Codec.INTEGER, Codec.LONG, size);
+        for (int key = 0; key < size; key++) {
+            table.put(key, (long) key);
+        }
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        keys = new Integer[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            keys[i] = random.nextInt(size);
+        }
+        System.gc();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener(pauseListener, null, null);
+        }
+    }
+
+    // Printed once per fork, so the footprint appears in the benchmark log next to the scores.
+    @TearDown(Level.Trial)
+    public void printFootprint() throws Exception {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).removeNotificationListener(pauseListener);
+        }
+        System.gc();
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long offHeap = table instanceof OffHeapHashTable ? ((OffHeapHashTable<?, ?>) table).getReservedBytes() : 0;
+        System.out.printf("storage=%s size=%d gcPauses=%d maxPauseMs=%d totalPauseMs=%d heapUsedMb=%d offHeapMb=%d rssMb=%d%n",
+                storage, size, pauses, maxPauseMillis, totalPauseMillis, heapUsed >> 20, offHeap >> 20, residentMegabytes());
+        if (table instanceof OffHeapHashTable) {
+            ((OffHeapHashTable<?, ?>) table).close();
+        }
+    }
+
+    private static long residentMegabytes() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", "")) >> 10;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public Long getValue() {
+        return table.getValue(keys[cursor++ & (ACCESSES - 1)]);
+    }
+
+    // Replaces values in place, so the on-heap table keeps promoting fresh boxes into the old generation.
+    @Benchmark
+    public void overwrite() {
+        Integer key = keys[cursor++ & (ACCESSES - 1)];
+        table.put(key, (long) cursor);
+    }
+}
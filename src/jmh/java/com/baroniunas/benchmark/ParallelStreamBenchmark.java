@@ -0,0 +1,79 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing every value of a table through its entry-set stream, sequentially and on the common
+ * ForkJoinPool, against the same over {@code HashMap}. {@code reduce} is the bulk path that skips
+ * entry objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelStreamBenchmark {
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    private HashTable<Integer, Long> table;
+    private HashMap<Integer, Long> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = HashTable.withExpectedSize(size);
+        map = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            table.put(KeyType.scramble(id), (long) id);
+            map.put(KeyType.scramble(id), (long) id);
+        }
+    }
+
+    @Benchmark
+    public long hashTableStream() {
+        return table.entrySet().stream().mapToLong(Map.Entry::getValue).sum();
+    }
+
+    @Benchmark
+    public long hashTableParallelStream() {
+        return table.entrySet().parallelStream().mapToLong(Map.Entry::getValue).sum();
+    }
+
+    @Benchmark
+    public long hashTableValuesParallelStream() {
+        return table.values().parallelStream().mapToLong(Long::longValue).sum();
+    }
+
+    @Benchmark
+    public Long hashTableReduce() {
+        return table.reduce(1, (key, value) -> value, Long::sum);
+    }
+
+    @Benchmark
+    public long hashMapStream() {
+        return map.entrySet().stream().mapToLong(Map.Entry::getValue).sum();
+    }
+
+    @Benchmark
+    public long hashMapParallelStream() {
+        return map.entrySet().parallelStream().mapToLong(Map.Entry::getValue).sum();
+    }
+}
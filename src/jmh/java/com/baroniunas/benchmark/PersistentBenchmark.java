@@ -0,0 +1,163 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.PersistentHashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PersistentHashTable} snapshots against copying a {@link HashTable}, bulk loading with and
+ * without a batch, and read throughput while one thread writes. In the {@code persistent} group the
+ * writer publishes a snapshot every {@value #PUBLISH_EVERY} writes and readers never block; the
+ * {@code locked} group shares one synchronized {@link HashTable} instead. Compare the reader rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentBenchmark {
+    private static final int MASK = (1 << 16) - 1;
+    static final int PUBLISH_EVERY = 64;
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    private Integer[] keys;
+    private PersistentHashTable<Integer, Object> writer;
+    private volatile PersistentHashTable<Integer, Object> published;
+    private HashTable<Integer, Object> locked;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new Integer[size];
+        for (int id = 0; id < size; id++) {
+            keys[id] = KeyType.scramble(id);
+        }
+        writer = new PersistentHashTable<>();
+        writer.batch(edits -> {
+            for (Integer key : keys) {
+                edits.put(key, HashTableBenchmark.VALUE);
+            }
+        });
+        published = writer.snapshot();
+        locked = new HashTable<>();
+        for (Integer key : keys) {
+            locked.put(key, HashTableBenchmark.VALUE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Accesses {
+        Integer[] keys;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(PersistentBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            keys = new Integer[MASK + 1];
+            for (int i = 0; i <= MASK; i++) {
+                keys[i] = benchmark.keys[random.nextInt(benchmark.size)];
+            }
+        }
+
+        Integer next() {
+            return keys[cursor++ & MASK];
+        }
+    }
+
+    @Benchmark
+    public PersistentHashTable<Integer, Object> snapshot() {
+        return writer.snapshot();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public HashTable<Integer, Object> copyHashTable() {
+        HashTable<Integer, Object> copy = new HashTable<>();
+        locked.forEach(copy::put);
+        return copy;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public PersistentHashTable<Integer, Object> loadPersistent() {
+        PersistentHashTable<Integer, Object> table = new PersistentHashTable<>();
+        for (Integer key : keys) {
+            table.put(key, HashTableBenchmark.VALUE);
+        }
+        return table;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public PersistentHashTable<Integer, Object> loadBatched() {
+        PersistentHashTable<Integer, Object> table = new PersistentHashTable<>();
+        table.batch(edits -> {
+            for (Integer key : keys) {
+                edits.put(key, HashTableBenchmark.VALUE);
+            }
+        });
+        return table;
+    }
+
+    @Benchmark
+    @Group("persistent")
+    @GroupThreads(3)
+    public Object persistentRead(Accesses accesses) {
+        return published.getValue(accesses.next());
+    }
+
+    @Benchmark
+    @Group("persistent")
+    @GroupThreads(1)
+    public void persistentWrite(Accesses accesses) {
+        writer.put(accesses.next(), HashTableBenchmark.VALUE);
+        if ((accesses.cursor & (PUBLISH_EVERY - 1)) == 0) {
+            published = writer.snapshot();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public Object lockedRead(Accesses accesses) {
+        synchronized (locked) {
+            return locked.getValue(accesses.next());
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWrite(Accesses accesses) {
+        synchronized (locked) {
+            locked.put(accesses.next(), HashTableBenchmark.VALUE);
+        }
+    }
+}
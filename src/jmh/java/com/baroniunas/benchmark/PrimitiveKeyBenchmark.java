@@ -0,0 +1,89 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.IntIntHashTable;
+import com.baroniunas.hashtable.IntObjHashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID to record lookups with {@code int} ids as callers hold them, so the boxed tables pay for
+ * {@code Integer.valueOf} at the call site just like production code does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveKeyBenchmark {
+    private static final int ACCESSES = 1 << 16;
+
+    @Param({"1000", "1000000", "10000000"})
+    int size;
+
+    private HashTable<Integer, Object> boxedTable;
+    private HashMap<Integer, Object> hashMap;
+    private IntObjHashTable<Object> intObjTable;
+    private IntIntHashTable intIntTable;
+    private int[] ids;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boxedTable = new HashTable<>();
+        hashMap = new HashMap<>();
+        intObjTable = new IntObjHashTable<>();
+        intIntTable = new IntIntHashTable();
+        for (int id = 0; id < size; id++) {
+            int key = KeyType.scramble(id);
+            boxedTable.put(key, HashTableBenchmark.VALUE);
+            hashMap.put(key, HashTableBenchmark.VALUE);
+            intObjTable.put(key, HashTableBenchmark.VALUE);
+            intIntTable.put(key, id);
+        }
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        ids = new int[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            ids[i] = KeyType.scramble(random.nextInt(size));
+        }
+    }
+
+    private int nextId() {
+        return ids[cursor++ & (ACCESSES - 1)];
+    }
+
+    @Benchmark
+    public Object boxedHashTable() {
+        return boxedTable.getValue(nextId());
+    }
+
+    @Benchmark
+    public Object boxedHashMap() {
+        return hashMap.get(nextId());
+    }
+
+    @Benchmark
+    public Object intObjHashTable() {
+        return intObjTable.getValue(nextId());
+    }
+
+    @Benchmark
+    public int intIntHashTable() {
+        return intIntTable.getValue(nextId());
+    }
+}
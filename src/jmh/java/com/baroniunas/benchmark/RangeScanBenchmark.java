@@ -0,0 +1,79 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.collections.btree.Cursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scanning a key range of {@code width} entries starting at a random key: the allocation-free
+ * BTree cursor against {@code TreeMap.subMap}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangeScanBenchmark {
+
+    @Param({"2", "32"})
+    int minDegree;
+
+    @Param({"1000000"})
+    int size;
+
+    @Param({"100", "10000"})
+    int width;
+
+    private BTree<Integer, Object> tree;
+    private TreeMap<Integer, Object> treeMap;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Integer[] keys = new Integer[size];
+        Object[] values = new Object[size];
+        treeMap = new TreeMap<>();
+        for (int id = 0; id < size; id++) {
+            keys[id] = id;
+            values[id] = HashTableBenchmark.VALUE;
+            treeMap.put(id, HashTableBenchmark.VALUE);
+        }
+        tree = new BTree<>(minDegree, keys, values, size);
+        random = new SplittableRandom(HashTableBenchmark.SEED);
+    }
+
+    @Benchmark
+    public void cursor(Blackhole blackhole) {
+        int from = random.nextInt(size - width);
+        Cursor<Integer, Object> cursor = tree.range(from, from + width).cursor();
+        while (cursor.next()) {
+            blackhole.consume(cursor.getValue());
+        }
+    }
+
+    @Benchmark
+    public void treeMapSubMap(Blackhole blackhole) {
+        int from = random.nextInt(size - width);
+        for (Map.Entry<Integer, Object> entry : treeMap.subMap(from, from + width).entrySet()) {
+            blackhole.consume(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.ResizeMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of individual puts of new keys while a table keeps growing. Compare the p99.99 and
+ * p100 (max) columns between resize modes: stop-the-world puts that cross the load factor show up
+ * as the max, incremental migration spreads that cost over the following puts. The table starts
+ * with {@code prefill} entries each iteration, so the first resizes are already large.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ResizeLatencyBenchmark {
+
+    @Param({"STOP_THE_WORLD", "INCREMENTAL"})
+    ResizeMode resizeMode;
+
+    @Param({"1000000", "20000000"})
+    int prefill;
+
+    private HashTable<Integer, Object> table;
+    private int nextId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        table = new HashTable<>(resizeMode);
+        for (nextId = 0; nextId < prefill; nextId++) {
+            table.put(KeyType.scramble(nextId), HashTableBenchmark.VALUE);
+        }
+    }
+
+    @Benchmark
+    public void putNewKey() {
+        table.put(KeyType.scramble(nextId++), HashTableBenchmark.VALUE);
+    }
+}
@@ -0,0 +1,148 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.ShardedHashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShardedHashTable} against one {@link HashTable} behind a global lock, at 90% reads. Each
+ * invocation issues {@value #WINDOW} operations: the sharded table keeps them all in flight before
+ * waiting, or sends them as one batch per shard, while the locked table runs them one at a time.
+ * As with {@link ConcurrentBenchmark}, run it once per thread count for a scaling curve, e.g.
+ * {@code -Pjmh.args="-t 1"}, then {@code -t 2}, ...; shards default to one per available core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ShardedBenchmark {
+    static final int WINDOW = 64;
+    private static final int ACCESSES = 1 << 16;
+
+    @Param({"1000000"})
+    int size;
+
+    // Zero means one shard per available core.
+    @Param({"0"})
+    int shards;
+
+    private Integer[] keys;
+    private ShardedHashTable<Integer, Object> sharded;
+    private HashTable<Integer, Object> locked;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new Integer[size];
+        Object[] values = new Object[size];
+        for (int id = 0; id < size; id++) {
+            keys[id] = KeyType.scramble(id);
+            values[id] = HashTableBenchmark.VALUE;
+        }
+        sharded = shards == 0 ? new ShardedHashTable<>() : new ShardedHashTable<>(shards);
+        sharded.putAllAsync(keys, values).join();
+        locked = new HashTable<>();
+        locked.putAll(keys, values);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sharded.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        Integer[] keys;
+        boolean[] reads;
+        int cursor;
+        final CompletableFuture<?>[] pending = new CompletableFuture[WINDOW];
+        final Integer[] readKeys = new Integer[WINDOW];
+        final Object[] readValues = new Object[WINDOW];
+        final Integer[] writeKeys = new Integer[WINDOW];
+        final Object[] writeValues = new Object[WINDOW];
+
+        @Setup(Level.Trial)
+        public void setUp(ShardedBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            keys = new Integer[ACCESSES];
+            reads = new boolean[ACCESSES];
+            for (int i = 0; i < ACCESSES; i++) {
+                keys[i] = benchmark.keys[random.nextInt(benchmark.size)];
+                reads[i] = random.nextInt(100) < 90;
+            }
+            Arrays.fill(writeValues, HashTableBenchmark.VALUE);
+        }
+
+        int next() {
+            return cursor++ & (ACCESSES - 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public void sharded(Worker worker) {
+        for (int w = 0; w < WINDOW; w++) {
+            int i = worker.next();
+            worker.pending[w] = worker.reads[i]
+                    ? sharded.getAsync(worker.keys[i])
+                    : sharded.putAsync(worker.keys[i], HashTableBenchmark.VALUE);
+        }
+        CompletableFuture.allOf(worker.pending).join();
+    }
+
+    // Reads and writes go out as one getAll and one putAll message per shard.
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public void shardedBatched(Worker worker) {
+        int reads = 0;
+        int writes = 0;
+        for (int w = 0; w < WINDOW; w++) {
+            int i = worker.next();
+            if (worker.reads[i]) {
+                worker.readKeys[reads++] = worker.keys[i];
+            } else {
+                worker.writeKeys[writes++] = worker.keys[i];
+            }
+        }
+        CompletableFuture.allOf(
+                sharded.getAllAsync(Arrays.copyOf(worker.readKeys, reads), worker.readValues),
+                sharded.putAllAsync(Arrays.copyOf(worker.writeKeys, writes), Arrays.copyOf(worker.writeValues, writes))
+        ).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public void locked(Worker worker) {
+        for (int w = 0; w < WINDOW; w++) {
+            int i = worker.next();
+            synchronized (locked) {
+                if (worker.reads[i]) {
+                    locked.getValue(worker.keys[i]);
+                } else {
+                    locked.put(worker.keys[i], HashTableBenchmark.VALUE);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.hashtable.Compression;
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.Snapshot;
+import com.baroniunas.offheap.Codec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading snapshots through a file. Every value is a 100-byte array, so the file is
+ * about {@code size} hundred bytes uncompressed; 10M entries give a 1 GiB snapshot. Each fork
+ * prints the file size, so MB/s is that size divided by the score.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class SnapshotBenchmark {
+    private static final byte[] VALUE = new byte[100];
+
+    public enum Structure {
+        HASH_TABLE,
+        B_TREE
+    }
+
+    @Param({"HASH_TABLE", "B_TREE"})
+    Structure structure;
+
+    @Param({"NONE", "DEFLATE"})
+    Compression compression;
+
+    @Param({"1000000", "10000000"})
+    int size;
+
+    private HashTable<Integer, byte[]> table;
+    private BTree<Integer, byte[]> tree;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (structure == Structure.HASH_TABLE) {
+            table = HashTable.withExpectedSize(size);
+            for (int id = 0; id < size; id++) {
+                table.put(KeyType.scramble(id), VALUE);
+            }
+        } else {
+            Integer[] keys = new Integer[size];
+            byte[][] values = new byte[size][];
+            for (int id = 0; id < size; id++) {
+                keys[id] = id;
+                values[id] = VALUE;
+            }
+            tree = new BTree<>(keys, values, size);
+        }
+        file = Files.createTempFile("snapshot", ".bin");
+        save();
+        System.out.println("structure=" + structure + " compression=" + compression + " size=" + size
+                + " snapshotMb=" + (Files.size(file) >> 20));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            if (table != null) {
+                Snapshot.writeTo(table, out, Codec.INTEGER, Codec.BYTES, compression);
+            } else {
+                Snapshot.writeTo(tree, out, Codec.INTEGER, Codec.BYTES, compression);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object load() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            return table != null
+                    ? Snapshot.readHashTable(in, Codec.INTEGER, Codec.BYTES)
+                    : Snapshot.readBTree(in, Codec.INTEGER, Codec.BYTES);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.baroniunas.benchmark;
+
+public interface TableAdapter<K, V> {
+
+    void put(K key, V value);
+    V get(K key);
+    V remove(K key);
+}
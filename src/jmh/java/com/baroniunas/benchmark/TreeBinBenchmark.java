@@ -0,0 +1,74 @@
+package com.baroniunas.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups on adversarial keys: the key set is cut into groups whose members share one hash code,
+ * so every group lands in a single bucket and turns into a tree bin long before the table stops
+ * growing. Lookups stay logarithmic in the group size only if tree bins survive each resize.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBinBenchmark {
+    private static final int ACCESSES = 1 << 16;
+
+    @Param({"HASH_TABLE", "HASH_MAP"})
+    Implementation implementation;
+
+    @Param({"1", "16", "256"})
+    int groupSize;
+
+    @Param({"100000"})
+    int size;
+
+    private TableAdapter<Object, Object> table;
+    private Object[] keys;
+    private int cursor;
+
+    // A distinct prefix picks the group; "Aa"/"BB" suffixes of equal length keep the whole group's hash equal.
+    private Object key(int id) {
+        return KeyType.SHORT_STRING.distinct(id / groupSize) + "#"
+                + KeyType.SHORT_STRING.colliding(id % groupSize, groupSize);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = implementation.createRaw(size);
+        for (int id = 0; id < size; id++) {
+            table.put(key(id), HashTableBenchmark.VALUE);
+        }
+        SplittableRandom random = new SplittableRandom(HashTableBenchmark.SEED);
+        keys = new Object[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            keys[i] = key(random.nextInt(size));
+        }
+        for (Object key : keys) {
+            if (table.get(key) == null) {
+                throw new IllegalStateException("Lost entry for " + key);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return table.get(keys[cursor++ & (ACCESSES - 1)]);
+    }
+}
@@ -0,0 +1,83 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.offheap.Codec;
+import com.baroniunas.wal.DurableHashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Put throughput of {@link DurableHashTable} across group-commit batch sizes, against a plain
+ * {@link HashTable} as the ceiling. With {@code syncEvery} 1 every put waits for an fsync, so the
+ * score is the device's sync rate; larger batches trade a wider loss window for throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalBenchmark {
+    private static final int KEYS = 1 << 20;
+
+    @Param({"1", "16", "256", "4096"})
+    int syncEvery;
+
+    private Path directory;
+    private DurableHashTable<Integer, byte[]> durable;
+    private HashTable<Integer, byte[]> table;
+    private byte[] value;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal");
+        durable = DurableHashTable.builder(directory, Codec.INTEGER, Codec.BYTES)
+                .syncEvery(syncEvery)
+                .syncInterval(Duration.ofSeconds(1))
+                .open();
+        table = HashTable.withExpectedSize(KEYS);
+        value = new byte[100];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        // Printed once per fork, so the checkpoint count appears in the benchmark log next to the scores.
+        System.out.println("syncEvery=" + syncEvery + " checkpoints=" + durable.getCheckpointCount());
+        durable.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void durablePut() {
+        durable.put(KeyType.scramble(cursor++ & (KEYS - 1)), value);
+    }
+
+    @Benchmark
+    public void inMemoryPut() {
+        table.put(KeyType.scramble(cursor++ & (KEYS - 1)), value);
+    }
+}
@@ -0,0 +1,81 @@
+package com.baroniunas.benchmark;
+
+import com.baroniunas.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts a Zipfian stream of words: {@code getValue} followed by {@code put} hashes and walks the
+ * bin twice, {@code merge} does it once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class WordCountBenchmark {
+
+    @Param({"10000", "1000000"})
+    int vocabulary;
+
+    @Param({"1000000"})
+    int words;
+
+    private String[] text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] dictionary = new String[vocabulary];
+        for (int id = 0; id < vocabulary; id++) {
+            dictionary[id] = (String) KeyType.SHORT_STRING.distinct(id);
+        }
+        ZipfianGenerator zipfian = new ZipfianGenerator(vocabulary, new SplittableRandom(HashTableBenchmark.SEED));
+        text = new String[words];
+        for (int i = 0; i < words; i++) {
+            text[i] = dictionary[zipfian.next()];
+        }
+    }
+
+    @Benchmark
+    public HashTable<String, Integer> getThenPut() {
+        HashTable<String, Integer> counts = new HashTable<>();
+        for (String word : text) {
+            Integer count = counts.getValue(word);
+            counts.put(word, count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public HashTable<String, Integer> merge() {
+        HashTable<String, Integer> counts = new HashTable<>();
+        for (String word : text) {
+            counts.merge(word, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public HashMap<String, Integer> hashMapMerge() {
+        HashMap<String, Integer> counts = new HashMap<>();
+        for (String word : text) {
+            counts.merge(word, 1, Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,49 @@
+package com.baroniunas.benchmark;
+
+import java.util.SplittableRandom;
+
+// Gray et al., "Quickly Generating Billion-Record Synthetic Databases", as used by YCSB.
+public class ZipfianGenerator {
+    public static final double DEFAULT_THETA = 0.99;
+
+    private final int items;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final SplittableRandom random;
+
+    public ZipfianGenerator(int items, SplittableRandom random) {
+        this(items, DEFAULT_THETA, random);
+    }
+
+    public ZipfianGenerator(int items, double theta, SplittableRandom random) {
+        this.items = items;
+        this.theta = theta;
+        this.random = random;
+        this.zetaN = zeta(items, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        double zeta2 = zeta(2, theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+
+    public int next() {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, theta)) {
+            return 1;
+        }
+        return Math.min(items - 1, (int) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+}
@@ -0,0 +1,284 @@
+package com.baroniunas.cache;
+
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.Table;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache on top of {@link HashTable}. The table maps each key to a node that also sits in
+ * the eviction policy's intrusive lists, so lookups, updates and evictions are all O(1). Expired
+ * entries are dropped lazily when read and from the head of the expiry queue on every write.
+ * Like the table itself, a cache is not thread-safe.
+ */
+public class Cache<K extends Comparable<K>, V> implements Table<K, V> {
+    // Upper bound on the initial table size when a maximum size is given.
+    private static final int MAXIMUM_PRESIZE = 1 << 16;
+    private final HashTable<K, CacheNode<K, V>> table;
+    private final Policy<K, V> policy;
+    private final Weigher<? super K, ? super V> weigher;
+    private final LongSupplier ticker;
+    private final long expiryNanos;
+    private final boolean expireAfterAccess;
+    private final ExpiryQueue<K, V> expiryQueue = new ExpiryQueue<>();
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long evictionWeight;
+    private long expiredCount;
+
+    private Cache(Builder<K, V> builder) {
+        long maximum;
+        if (builder.maximumWeight >= 0) {
+            maximum = builder.maximumWeight;
+            this.weigher = builder.weigher;
+        } else {
+            maximum = builder.maximumSize >= 0 ? builder.maximumSize : Long.MAX_VALUE;
+            this.weigher = (key, value) -> 1;
+        }
+        this.policy = builder.evictionPolicy == EvictionPolicy.LRU
+                ? new LruPolicy<>(maximum)
+                : new TinyLfuPolicy<>(maximum, builder.maximumSize < 0);
+        int expectedSize = builder.maximumSize >= 0 ? (int) Math.min(builder.maximumSize, MAXIMUM_PRESIZE) : 0;
+        this.table = HashTable.<K, CacheNode<K, V>>builder().expectedSize(expectedSize).build();
+        this.ticker = builder.ticker;
+        this.expiryNanos = builder.expiryNanos;
+        this.expireAfterAccess = builder.expireAfterAccess;
+    }
+
+    public static <K extends Comparable<K>, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public V getValue(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        CacheNode<K, V> node = table.getValue(key);
+        policy.recordAccess(node != null ? node.hash : spread(key.hashCode()));
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        if (expires()) {
+            long now = ticker.getAsLong();
+            if (node.expiresAt - now <= 0) {
+                expire(node);
+                missCount++;
+                return null;
+            }
+            if (expireAfterAccess) {
+                node.expiresAt = now + expiryNanos;
+                expiryQueue.moveToBack(node);
+            }
+        }
+        hitCount++;
+        policy.onAccess(node);
+        return node.value;
+    }
+
+    // Returns the cached value, or computes, caches and returns it on a miss. A null result is not cached.
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (loader == null) {
+            throw new IllegalArgumentException("Function cannot be null");
+        }
+        V value = getValue(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        if (expires()) {
+            long now = ticker.getAsLong();
+            expireEntries(now);
+            putNode(key, value, weight).expiresAt = now + expiryNanos;
+        } else {
+            putNode(key, value, weight);
+        }
+        policy.evict(this::evicted);
+    }
+
+    private CacheNode<K, V> putNode(K key, V value, int weight) {
+        CacheNode<K, V> node = table.getValue(key);
+        if (node != null) {
+            policy.recordAccess(node.hash);
+            node.value = value;
+            policy.onUpdate(node, weight);
+            if (expires()) {
+                expiryQueue.moveToBack(node);
+            }
+            return node;
+        }
+        node = new CacheNode<>(key, spread(key.hashCode()), value, weight);
+        policy.recordAccess(node.hash);
+        table.put(key, node);
+        policy.onInsert(node);
+        if (expires()) {
+            expiryQueue.addLast(node);
+        }
+        return node;
+    }
+
+    @Override
+    public V removePair(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        CacheNode<K, V> node = table.removePair(key);
+        if (node == null) {
+            return null;
+        }
+        policy.onRemove(node);
+        if (expires()) {
+            expiryQueue.remove(node);
+            if (node.expiresAt - ticker.getAsLong() <= 0) {
+                return null;
+            }
+        }
+        return node.value;
+    }
+
+    // Drops every expired entry now instead of waiting for the next write.
+    public void cleanUp() {
+        if (expires()) {
+            expireEntries(ticker.getAsLong());
+        }
+    }
+
+    private void expireEntries(long now) {
+        CacheNode<K, V> node;
+        while ((node = expiryQueue.peekFirst()) != null && node.expiresAt - now <= 0) {
+            expire(node);
+        }
+    }
+
+    private void expire(CacheNode<K, V> node) {
+        table.removePair(node.key);
+        policy.onRemove(node);
+        expiryQueue.remove(node);
+        expiredCount++;
+    }
+
+    // The policy has already unlinked the node.
+    private void evicted(CacheNode<K, V> node) {
+        table.removePair(node.key);
+        if (expires()) {
+            expiryQueue.remove(node);
+        }
+        evictionCount++;
+        evictionWeight += node.weight;
+    }
+
+    private boolean expires() {
+        return expiryNanos > 0;
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Includes expired entries that have not been dropped yet.
+    @Override
+    public int getSize() {
+        return table.getSize();
+    }
+
+    public long getWeightedSize() {
+        return policy.getWeight();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hitCount, missCount, evictionCount, evictionWeight, expiredCount);
+    }
+
+    public static class Builder<K extends Comparable<K>, V> {
+        private long maximumSize = -1;
+        private long maximumWeight = -1;
+        private Weigher<? super K, ? super V> weigher;
+        private EvictionPolicy evictionPolicy = EvictionPolicy.W_TINY_LFU;
+        private long expiryNanos;
+        private boolean expireAfterAccess;
+        private LongSupplier ticker = System::nanoTime;
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("Maximum size cannot be negative");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("Maximum weight cannot be negative");
+            }
+            if (weigher == null) {
+                throw new IllegalArgumentException("Weigher cannot be null");
+            }
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        public Builder<K, V> evictionPolicy(EvictionPolicy evictionPolicy) {
+            if (evictionPolicy == null) {
+                throw new IllegalArgumentException("Eviction policy cannot be null");
+            }
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+
+        // Entries expire this long after they were last written.
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            return expiry(duration, false);
+        }
+
+        // Entries expire this long after they were last read or written.
+        public Builder<K, V> expireAfterAccess(Duration duration) {
+            return expiry(duration, true);
+        }
+
+        // Only one expiry mode applies; the later call wins.
+        private Builder<K, V> expiry(Duration duration, boolean afterAccess) {
+            if (duration == null || duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Expiry duration must be positive");
+            }
+            this.expiryNanos = duration.toNanos();
+            this.expireAfterAccess = afterAccess;
+            return this;
+        }
+
+        // Source of nanosecond timestamps for expiry; tests pass a fake clock.
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            if (ticker == null) {
+                throw new IllegalArgumentException("Ticker cannot be null");
+            }
+            this.ticker = ticker;
+            return this;
+        }
+
+        public Cache<K, V> build() {
+            if (maximumSize >= 0 && maximumWeight >= 0) {
+                throw new IllegalArgumentException("Maximum size and maximum weight cannot both be set");
+            }
+            return new Cache<>(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.baroniunas.cache;
+
+// One cached entry, linked into its policy segment and, when expiry is on, into the expiry queue.
+class CacheNode<K, V> {
+    static final byte WINDOW = 0;
+    static final byte PROBATION = 1;
+    static final byte PROTECTED = 2;
+
+    final K key;
+    final int hash;
+    V value;
+    int weight;
+    long expiresAt;
+    byte segment;
+    CacheNode<K, V> policyPrevious;
+    CacheNode<K, V> policyNext;
+    CacheNode<K, V> expiryPrevious;
+    CacheNode<K, V> expiryNext;
+
+    CacheNode(K key, int hash, V value, int weight) {
+        this.key = key;
+        this.hash = hash;
+        this.value = value;
+        this.weight = weight;
+    }
+}
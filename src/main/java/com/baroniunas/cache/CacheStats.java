@@ -0,0 +1,55 @@
+package com.baroniunas.cache;
+
+// Snapshot of a cache's counters.
+public class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final long expiredCount;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, long evictionWeight, long expiredCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.expiredCount = expiredCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    // 1.0 when there were no requests yet.
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    // Entries dropped to stay within the size or weight limit.
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                + ", evictionWeight=" + evictionWeight + ", expired=" + expiredCount + "}";
+    }
+}
@@ -0,0 +1,8 @@
+package com.baroniunas.cache;
+
+public enum EvictionPolicy {
+    // Evicts the least recently used entry.
+    LRU,
+    // Admits an entry into the main space only if it has been seen more often than the entry it would replace.
+    W_TINY_LFU
+}
@@ -0,0 +1,44 @@
+package com.baroniunas.cache;
+
+// Entries in expiry order. Every entry lives for the same duration, so appending on each refresh keeps it sorted.
+class ExpiryQueue<K, V> {
+    private CacheNode<K, V> first;
+    private CacheNode<K, V> last;
+
+    CacheNode<K, V> peekFirst() {
+        return first;
+    }
+
+    void addLast(CacheNode<K, V> node) {
+        node.expiryPrevious = last;
+        node.expiryNext = null;
+        if (last == null) {
+            first = node;
+        } else {
+            last.expiryNext = node;
+        }
+        last = node;
+    }
+
+    void remove(CacheNode<K, V> node) {
+        if (node.expiryPrevious == null) {
+            first = node.expiryNext;
+        } else {
+            node.expiryPrevious.expiryNext = node.expiryNext;
+        }
+        if (node.expiryNext == null) {
+            last = node.expiryPrevious;
+        } else {
+            node.expiryNext.expiryPrevious = node.expiryPrevious;
+        }
+        node.expiryPrevious = null;
+        node.expiryNext = null;
+    }
+
+    void moveToBack(CacheNode<K, V> node) {
+        if (node != last) {
+            remove(node);
+            addLast(node);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.baroniunas.cache;
+
+import java.util.function.Consumer;
+
+class LruPolicy<K, V> implements Policy<K, V> {
+    private final long maximum;
+    private final NodeDeque<K, V> deque = new NodeDeque<>();
+
+    LruPolicy(long maximum) {
+        this.maximum = maximum;
+    }
+
+    @Override
+    public void recordAccess(int hash) {
+    }
+
+    @Override
+    public void onInsert(CacheNode<K, V> node) {
+        deque.addLast(node);
+    }
+
+    @Override
+    public void onAccess(CacheNode<K, V> node) {
+        deque.moveToBack(node);
+    }
+
+    @Override
+    public void onUpdate(CacheNode<K, V> node, int weight) {
+        deque.remove(node);
+        node.weight = weight;
+        deque.addLast(node);
+    }
+
+    @Override
+    public void onRemove(CacheNode<K, V> node) {
+        deque.remove(node);
+    }
+
+    @Override
+    public void evict(Consumer<CacheNode<K, V>> evictor) {
+        while (deque.getWeight() > maximum) {
+            CacheNode<K, V> victim = deque.peekFirst();
+            deque.remove(victim);
+            evictor.accept(victim);
+        }
+    }
+
+    @Override
+    public long getWeight() {
+        return deque.getWeight();
+    }
+}
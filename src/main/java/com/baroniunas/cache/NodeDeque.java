@@ -0,0 +1,58 @@
+package com.baroniunas.cache;
+
+// Intrusive doubly linked list over the policy links of CacheNode, oldest first; tracks the weight it holds.
+class NodeDeque<K, V> {
+    private CacheNode<K, V> first;
+    private CacheNode<K, V> last;
+    private long weight;
+    private int size;
+
+    CacheNode<K, V> peekFirst() {
+        return first;
+    }
+
+    void addLast(CacheNode<K, V> node) {
+        node.policyPrevious = last;
+        node.policyNext = null;
+        if (last == null) {
+            first = node;
+        } else {
+            last.policyNext = node;
+        }
+        last = node;
+        weight += node.weight;
+        size++;
+    }
+
+    void remove(CacheNode<K, V> node) {
+        if (node.policyPrevious == null) {
+            first = node.policyNext;
+        } else {
+            node.policyPrevious.policyNext = node.policyNext;
+        }
+        if (node.policyNext == null) {
+            last = node.policyPrevious;
+        } else {
+            node.policyNext.policyPrevious = node.policyPrevious;
+        }
+        node.policyPrevious = null;
+        node.policyNext = null;
+        weight -= node.weight;
+        size--;
+    }
+
+    void moveToBack(CacheNode<K, V> node) {
+        if (node != last) {
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    long getWeight() {
+        return weight;
+    }
+
+    int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,18 @@
+package com.baroniunas.cache;
+
+import java.util.function.Consumer;
+
+// Keeps the eviction order of the cached entries; the cache owns the table and the statistics.
+interface Policy<K, V> {
+
+    // Called for every lookup and write, hit or miss.
+    void recordAccess(int hash);
+    void onInsert(CacheNode<K, V> node);
+    void onAccess(CacheNode<K, V> node);
+    void onUpdate(CacheNode<K, V> node, int weight);
+    void onRemove(CacheNode<K, V> node);
+
+    // Unlinks entries and hands them to evictor until the total weight is within the maximum.
+    void evict(Consumer<CacheNode<K, V>> evictor);
+    long getWeight();
+}
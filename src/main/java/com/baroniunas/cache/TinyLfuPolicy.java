@@ -0,0 +1,124 @@
+package com.baroniunas.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Window TinyLFU. New entries enter a small LRU window (1% of the maximum). Entries leaving the
+ * window join the probation segment of a segmented LRU. There they compete with the probation
+ * segment's oldest entry, and the one the frequency sketch has seen less often is evicted. A hit
+ * in probation promotes the entry to the protected segment (80% of the main space), whose overflow
+ * is demoted back to probation.
+ */
+class TinyLfuPolicy<K, V> implements Policy<K, V> {
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final boolean sketchFollowsSize;
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final NodeDeque<K, V> window = new NodeDeque<>();
+    private final NodeDeque<K, V> probation = new NodeDeque<>();
+    private final NodeDeque<K, V> protectedSegment = new NodeDeque<>();
+
+    // Without a bound on the entry count its size is unknown up front, so the sketch grows with the cache instead.
+    TinyLfuPolicy(long maximum, boolean sketchFollowsSize) {
+        this.maximum = maximum;
+        this.windowMaximum = Math.max(1, maximum / 100);
+        this.protectedMaximum = (long) ((maximum - windowMaximum) * 0.8);
+        this.sketchFollowsSize = sketchFollowsSize;
+        sketch.ensureCapacity(sketchFollowsSize ? 0 : maximum);
+    }
+
+    @Override
+    public void recordAccess(int hash) {
+        sketch.increment(hash);
+    }
+
+    @Override
+    public void onInsert(CacheNode<K, V> node) {
+        node.segment = CacheNode.WINDOW;
+        window.addLast(node);
+        if (sketchFollowsSize) {
+            long entries = (long) window.getSize() + probation.getSize() + protectedSegment.getSize();
+            if (entries > sketch.getCapacity()) {
+                sketch.ensureCapacity(entries * 2);
+            }
+        }
+    }
+
+    @Override
+    public void onAccess(CacheNode<K, V> node) {
+        if (node.segment == CacheNode.WINDOW) {
+            window.moveToBack(node);
+        } else if (node.segment == CacheNode.PROTECTED) {
+            protectedSegment.moveToBack(node);
+        } else {
+            probation.remove(node);
+            node.segment = CacheNode.PROTECTED;
+            protectedSegment.addLast(node);
+            while (protectedSegment.getWeight() > protectedMaximum && protectedSegment.peekFirst() != node) {
+                CacheNode<K, V> demoted = protectedSegment.peekFirst();
+                protectedSegment.remove(demoted);
+                demoted.segment = CacheNode.PROBATION;
+                probation.addLast(demoted);
+            }
+        }
+    }
+
+    @Override
+    public void onUpdate(CacheNode<K, V> node, int weight) {
+        NodeDeque<K, V> segment = segmentOf(node);
+        segment.remove(node);
+        node.weight = weight;
+        segment.addLast(node);
+        onAccess(node);
+    }
+
+    @Override
+    public void onRemove(CacheNode<K, V> node) {
+        segmentOf(node).remove(node);
+    }
+
+    @Override
+    public void evict(Consumer<CacheNode<K, V>> evictor) {
+        // Entries moved out of the window this round, oldest first, are the admission candidates.
+        CacheNode<K, V> candidate = null;
+        while (window.getWeight() > windowMaximum) {
+            CacheNode<K, V> node = window.peekFirst();
+            window.remove(node);
+            node.segment = CacheNode.PROBATION;
+            probation.addLast(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (getWeight() > maximum) {
+            CacheNode<K, V> victim = probation.peekFirst();
+            CacheNode<K, V> loser;
+            if (victim == null) {
+                loser = protectedSegment.peekFirst() != null ? protectedSegment.peekFirst() : window.peekFirst();
+            } else if (candidate == null || candidate == victim) {
+                loser = victim;
+            } else {
+                loser = sketch.frequency(candidate.hash) > sketch.frequency(victim.hash) ? victim : candidate;
+            }
+            if (loser == candidate) {
+                candidate = candidate.policyNext;
+            }
+            segmentOf(loser).remove(loser);
+            evictor.accept(loser);
+        }
+    }
+
+    private NodeDeque<K, V> segmentOf(CacheNode<K, V> node) {
+        if (node.segment == CacheNode.WINDOW) {
+            return window;
+        }
+        return node.segment == CacheNode.PROBATION ? probation : protectedSegment;
+    }
+
+    @Override
+    public long getWeight() {
+        return window.getWeight() + probation.getWeight() + protectedSegment.getWeight();
+    }
+}
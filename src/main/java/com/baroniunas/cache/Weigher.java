@@ -0,0 +1,8 @@
+package com.baroniunas.cache;
+
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    // Relative cost of an entry against the cache's maximum weight; must not be negative.
+    int weigh(K key, V value);
+}
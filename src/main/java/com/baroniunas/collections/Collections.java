@@ -1,5 +1,8 @@
 package com.baroniunas.collections;
 
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
 public interface Collections<K,V> {
 
     void put(K key, V value);
@@ -7,4 +10,25 @@ public interface Collections<K,V> {
     V remove(K key);
     int getSize();
     boolean containsKey(K key);
+
+    // Returns the existing value, or null after inserting value.
+    V putIfAbsent(K key, V value);
+
+    // Returns the replaced value, or null if the key was absent and nothing changed.
+    V replace(K key, V value);
+
+    // Finds the key once and stores the function's result in place; a null result removes the key.
+    V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction);
+
+    default V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        return compute(key, (k, oldValue) -> oldValue != null ? oldValue : mappingFunction.apply(k));
+    }
+
+    default V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return compute(key, (k, oldValue) -> oldValue == null ? null : remappingFunction.apply(k, oldValue));
+    }
+
+    default V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        return compute(key, (k, oldValue) -> oldValue == null ? value : remappingFunction.apply(oldValue, value));
+    }
 }
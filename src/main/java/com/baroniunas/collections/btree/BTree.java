@@ -1,53 +1,206 @@
 package com.baroniunas.collections.btree;
 
 import com.baroniunas.collections.Collections;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
-public class BTree<K extends Comparable<K>, V> implements Collections<K,V> {
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+public class BTree<K extends Comparable<K>, V> implements Collections<K,V>, Iterable<Map.Entry<K, V>> {
+    public static final int DEFAULT_MIN_DEGREE = 2;
+    private final int minDegree;
     private Node<K, V> node;
     private int size = 0;
-
-    private static final Logger logger = LogManager.getLogger(BTree.class);
+    // Bumped on every insert and removal so open cursors can detect it.
+    int modCount;
 
     public BTree() {
-        node = new Node<>();
-        logger.info("BTree created.");
+        this(DEFAULT_MIN_DEGREE);
+    }
+
+    // Every node except the root holds between minDegree - 1 and 2 * minDegree - 1 keys.
+    public BTree(int minDegree) {
+        if (minDegree < 2) {
+            throw new IllegalArgumentException("Minimum degree must be at least 2");
+        }
+        this.minDegree = minDegree;
+        node = new Node<>(minDegree, true);
+    }
+
+    public BTree(K[] sortedKeys, V[] values, int count) {
+        this(DEFAULT_MIN_DEGREE, sortedKeys, values, count);
+    }
+
+    // Builds the tree bottom-up from strictly ascending keys, filling each node once instead of splitting.
+    public BTree(int minDegree, K[] sortedKeys, V[] values, int count) {
+        this(minDegree);
+        if (count < 0 || count > sortedKeys.length || count > values.length) {
+            throw new IllegalArgumentException("Count out of range");
+        }
+        for (int i = 1; i < count; i++) {
+            if (sortedKeys[i - 1].compareTo(sortedKeys[i]) >= 0) {
+                throw new IllegalArgumentException("Keys must be sorted and distinct");
+            }
+        }
+        int height = 0;
+        while (capacity(height) < count) {
+            height++;
+        }
+        node = build(sortedKeys, values, 0, count, height);
+        size = count;
+    }
+
+    // Most keys a subtree of the given height can hold.
+    private long capacity(int height) {
+        long capacity = 2L * minDegree - 1;
+        for (int level = 0; level < height && capacity < Integer.MAX_VALUE; level++) {
+            capacity = capacity * 2 * minDegree + 2L * minDegree - 1;
+        }
+        return capacity;
+    }
+
+    // Uses as few children as fit and spreads keys evenly, which keeps every non-root node at least half full.
+    private Node<K, V> build(K[] keys, V[] values, int from, int count, int height) {
+        Node<K, V> built = new Node<>(minDegree, height == 0);
+        if (height == 0) {
+            System.arraycopy(keys, from, built.keys, 0, count);
+            System.arraycopy(values, from, built.values, 0, count);
+            built.numberOfKeys = count;
+            return built;
+        }
+        long childCapacity = capacity(height - 1);
+        int children = (int) ((count + 1 + childCapacity) / (childCapacity + 1));
+        int perChild = (count - children + 1) / children;
+        int extra = (count - children + 1) % children;
+        int position = from;
+        for (int child = 0; child < children; child++) {
+            int childCount = perChild + (child < extra ? 1 : 0);
+            built.children[child] = build(keys, values, position, childCount, height - 1);
+            position += childCount;
+            if (child < children - 1) {
+                built.keys[child] = keys[position];
+                built.values[child] = values[position];
+                position++;
+            }
+        }
+        built.numberOfKeys = children - 1;
+        return built;
     }
 
     @Override
     public void put(K key, V value) {
-        logger.debug("Inserting key {} with value {} into BTree", key, value);
+        Node<K, V> holder = find(key);
+        if (holder != null) {
+            holder.values[holder.findKeyIndex(key)] = value;
+            return;
+        }
+        insert(key, value);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Node<K, V> holder = find(key);
+        if (holder != null) {
+            return holder.valueAt(holder.findKeyIndex(key));
+        }
+        insert(key, value);
+        return null;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Node<K, V> holder = find(key);
+        if (holder == null) {
+            return null;
+        }
+        int index = holder.findKeyIndex(key);
+        V oldValue = holder.valueAt(index);
+        holder.values[index] = value;
+        return oldValue;
+    }
+
+    // Updates happen in the node the lookup stopped at; only inserts and removals take a second, rebalancing pass.
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Node<K, V> holder = find(key);
+        if (holder == null) {
+            V value = remappingFunction.apply(key, null);
+            if (value != null) {
+                insert(key, value);
+            }
+            return value;
+        }
+        int index = holder.findKeyIndex(key);
+        V value = remappingFunction.apply(key, holder.valueAt(index));
+        if (value != null) {
+            holder.values[index] = value;
+        } else {
+            remove(key);
+        }
+        return value;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Node<K, V> holder = find(key);
+        if (holder == null) {
+            insert(key, value);
+            return value;
+        }
+        int index = holder.findKeyIndex(key);
+        V merged = remappingFunction.apply(holder.valueAt(index), value);
+        if (merged != null) {
+            holder.values[index] = merged;
+        } else {
+            remove(key);
+        }
+        return merged;
+    }
+
+    // Top-down insert of a key known to be absent, splitting full nodes on the way down.
+    private void insert(K key, V value) {
         Node<K, V> rootNode = node;
-        if (rootNode.numberOfKeys == Node.MIN_DEGREE * 2 - 1) {
-            logger.warn("Node {} is full creating new node and splitting..", rootNode.toString());
-            Node<K, V> newRoot = new Node<>();
-            node = newRoot;
-            newRoot.leaf = false;
-            newRoot.numberOfKeys = 0;
+        if (rootNode.numberOfKeys == 2 * minDegree - 1) {
+            Node<K, V> newRoot = new Node<>(minDegree, false);
             newRoot.children[0] = rootNode;
             newRoot.splitChild(0, rootNode);
-            newRoot.insertNonFull(new Entry<>(key, value));
-            size++;
-        } else {
-            rootNode.insertNonFull(new Entry<>(key, value));
-            size++;
+            node = newRoot;
         }
+        node.insertNonFull(key, value);
+        size++;
+        modCount++;
     }
 
     @Override
     public V remove(K key) {
-        if (node == null) {
-            logger.warn("Tree is empty, nothing to remove.");
+        Node<K, V> holder = find(key);
+        if (holder == null) {
             return null;
         }
-        logger.info("Removing key {} from BTree", key);
+        V value = holder.valueAt(holder.findKeyIndex(key));
         node.delete(key);
         size--;
+        modCount++;
         if (node.numberOfKeys == 0 && !node.leaf) {
             node = node.children[0];
         }
-        return null;
+        return value;
+    }
+
+    // The node whose own keys include key, or null.
+    private Node<K, V> find(K key) {
+        Node<K, V> current = node;
+        while (true) {
+            int index = current.findKeyIndex(key);
+            if (index < current.numberOfKeys && current.keyAt(index).compareTo(key) == 0) {
+                return current;
+            }
+            if (current.leaf) {
+                return null;
+            }
+            current = current.children[index];
+        }
     }
 
     @Override
@@ -57,25 +210,134 @@ public class BTree<K extends Comparable<K>, V> implements Collections<K,V> {
 
     @Override
     public boolean containsKey(K key) {
-        return false;
+        return find(key) != null;
     }
 
     @Override
     public V getValue(K key) {
-        logger.info("Searching key <{}> in BTree..", key);
-        Entry<K, V> entry = node.search(key);
-        if (entry != null) {
-            logger.info("Found key <{}> with value -{} in BTree.", key, entry.value);
-            return entry.value;
+        Node<K, V> current = node;
+        while (true) {
+            int index = current.findKeyIndex(key);
+            if (index < current.numberOfKeys && current.keyAt(index).compareTo(key) == 0) {
+                return current.valueAt(index);
+            }
+            if (current.leaf) {
+                return null;
+            }
+            current = current.children[index];
         }
-        logger.warn("Provided key <{}> not found in BTree.", key);
-        return null;
     }
 
-    public void traverse() {
-        if (node != null) {
-            node.traverse();
+    // Keys a getValue for key compares against; used to sample lookup cost.
+    public int lookupComparisons(K key) {
+        int comparisons = 0;
+        Node<K, V> current = node;
+        while (true) {
+            int index = current.findKeyIndex(key);
+            comparisons += current.comparisonsFor(index);
+            if ((index < current.numberOfKeys && current.keyAt(index).compareTo(key) == 0) || current.leaf) {
+                return comparisons;
+            }
+            current = current.children[index];
+        }
+    }
+
+    // Greatest key less than or equal to key, or null.
+    public K floorKey(K key) {
+        K candidate = null;
+        Node<K, V> current = node;
+        while (true) {
+            int index = current.findKeyIndex(key);
+            if (index < current.numberOfKeys && current.keyAt(index).compareTo(key) == 0) {
+                return key;
+            }
+            if (index > 0) {
+                candidate = current.keyAt(index - 1);
+            }
+            if (current.leaf) {
+                return candidate;
+            }
+            current = current.children[index];
+        }
+    }
+
+    // Least key greater than or equal to key, or null.
+    public K ceilingKey(K key) {
+        K candidate = null;
+        Node<K, V> current = node;
+        while (true) {
+            int index = current.findKeyIndex(key);
+            if (index < current.numberOfKeys) {
+                if (current.keyAt(index).compareTo(key) == 0) {
+                    return key;
+                }
+                candidate = current.keyAt(index);
+            }
+            if (current.leaf) {
+                return candidate;
+            }
+            current = current.children[index];
+        }
+    }
+
+    public Cursor<K, V> cursor() {
+        return new Cursor<>(this, node, null, false, null, false);
+    }
+
+    Cursor<K, V> cursor(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return new Cursor<>(this, node, from, fromInclusive, to, toInclusive);
+    }
+
+    // Keys from from (inclusive) to to (exclusive), like SortedMap.subMap.
+    public RangeView<K, V> range(K from, K to) {
+        return range(from, true, to, false);
+    }
+
+    public RangeView<K, V> range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        return new RangeView<>(this, from, fromInclusive, to, toInclusive);
+    }
+
+    public RangeView<K, V> headMap(K to) {
+        return headMap(to, false);
+    }
+
+    public RangeView<K, V> headMap(K to, boolean inclusive) {
+        if (to == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        return new RangeView<>(this, null, false, to, inclusive);
+    }
+
+    public RangeView<K, V> tailMap(K from) {
+        return tailMap(from, true);
+    }
+
+    public RangeView<K, V> tailMap(K from, boolean inclusive) {
+        if (from == null) {
+            throw new IllegalArgumentException("Key cannot be null");
         }
+        return new RangeView<>(this, from, inclusive, null, false);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new RangeView<>(this, null, false, null, false).iterator();
+    }
+
+    public int getMinDegree() {
+        return minDegree;
+    }
+
+    // Visits entries in key order.
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        node.forEach(action);
+    }
+
+    public void traverse() {
+        node.traverse();
     }
 
     @Override
@@ -0,0 +1,114 @@
+package com.baroniunas.collections.btree;
+
+import java.util.ConcurrentModificationException;
+
+/**
+ * Walks a {@link BTree} in key order between optional bounds without copying it. The path from
+ * the root is kept in two fixed arrays, so advancing allocates nothing. Modifying the tree while a
+ * cursor is open makes the next call to {@link #next()} throw.
+ */
+public class Cursor<K extends Comparable<K>, V> {
+    private final BTree<K, V> tree;
+    private final K to;
+    private final boolean toInclusive;
+    private final int expectedModCount;
+    private final Node<K, V>[] path;
+    // For each node on the path, the index of the next key to emit once its child subtree is done.
+    private final int[] positions;
+    private int depth;
+    private K key;
+    private V value;
+
+    @SuppressWarnings("unchecked")
+    Cursor(BTree<K, V> tree, Node<K, V> root, K from, boolean fromInclusive, K to, boolean toInclusive) {
+        this.tree = tree;
+        this.to = to;
+        this.toInclusive = toInclusive;
+        this.expectedModCount = tree.modCount;
+        int height = 1;
+        for (Node<K, V> node = root; !node.leaf; node = node.children[0]) {
+            height++;
+        }
+        path = new Node[height];
+        positions = new int[height];
+        if (from == null) {
+            descendLeftmost(root);
+        } else {
+            seek(root, from, fromInclusive);
+        }
+    }
+
+    private void seek(Node<K, V> node, K from, boolean inclusive) {
+        while (true) {
+            int index = node.findKeyIndex(from);
+            if (index < node.numberOfKeys && node.keyAt(index).compareTo(from) == 0) {
+                if (inclusive) {
+                    push(node, index);
+                } else {
+                    push(node, index + 1);
+                    if (!node.leaf) {
+                        descendLeftmost(node.children[index + 1]);
+                    }
+                }
+                return;
+            }
+            push(node, index);
+            if (node.leaf) {
+                return;
+            }
+            node = node.children[index];
+        }
+    }
+
+    private void descendLeftmost(Node<K, V> node) {
+        push(node, 0);
+        while (!node.leaf) {
+            node = node.children[0];
+            push(node, 0);
+        }
+    }
+
+    private void push(Node<K, V> node, int position) {
+        path[depth] = node;
+        positions[depth] = position;
+        depth++;
+    }
+
+    // Moves to the next entry; returns false once the range is exhausted.
+    public boolean next() {
+        if (tree.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        while (depth > 0 && positions[depth - 1] >= path[depth - 1].numberOfKeys) {
+            depth--;
+        }
+        if (depth == 0) {
+            return false;
+        }
+        Node<K, V> node = path[depth - 1];
+        int index = positions[depth - 1];
+        K candidate = node.keyAt(index);
+        if (to != null) {
+            int comparison = candidate.compareTo(to);
+            if (comparison > 0 || (comparison == 0 && !toInclusive)) {
+                depth = 0;
+                return false;
+            }
+        }
+        key = candidate;
+        value = node.valueAt(index);
+        positions[depth - 1] = index + 1;
+        if (!node.leaf) {
+            descendLeftmost(node.children[index + 1]);
+        }
+        return true;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public V getValue() {
+        return value;
+    }
+}
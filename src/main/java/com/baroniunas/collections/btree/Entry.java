@@ -1,11 +0,0 @@
-package com.baroniunas.collections.btree;
-
-public class Entry <K, V>{
-    K key;
-    V value;
-
-    public Entry(K key, V value) {
-        this.key = key;
-        this.value = value;
-    }
-}
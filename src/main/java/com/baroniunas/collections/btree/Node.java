@@ -1,82 +1,98 @@
 package com.baroniunas.collections.btree;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import java.util.function.BiConsumer;
 
-//todo
+// Keys and values live in parallel arrays, so scanning a node walks one contiguous block. Leaves have no child array.
 public class Node<K extends Comparable<K>, V> {
-    public static final int MIN_DEGREE = 2;
+    // Nodes holding more keys than this are searched by bisection instead of a linear scan.
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+    final int minDegree;
     int numberOfKeys;
-    public Entry<K, V>[] entries;
+    final Object[] keys;
+    final Object[] values;
     Node<K, V>[] children;
     boolean leaf;
 
-    private static final Logger logger = LogManager.getLogger(Node.class);
+    @SuppressWarnings("unchecked")
+    Node(int minDegree, boolean leaf) {
+        this.minDegree = minDegree;
+        this.leaf = leaf;
+        keys = new Object[2 * minDegree - 1];
+        values = new Object[2 * minDegree - 1];
+        if (!leaf) {
+            children = new Node[2 * minDegree];
+        }
+    }
 
     @SuppressWarnings("unchecked")
-    public Node() {
-        entries = new Entry[2 * MIN_DEGREE - 1];
-        children = new Node[2 * MIN_DEGREE];
-        leaf = true;
-        numberOfKeys = 0;
+    K keyAt(int index) {
+        return (K) keys[index];
     }
 
-    public void insertNonFull(Entry<K, V> newEntry) {
-        int index = numberOfKeys - 1;
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    public void insertNonFull(K key, V value) {
+        int index = findKeyIndex(key);
 
         if (leaf) {
-            while (index >= 0 && entries[index].key.compareTo(newEntry.key) > 0) {
-                entries[index + 1] = entries[index];
-                index--;
-            }
-            entries[index + 1] = newEntry;
+            System.arraycopy(keys, index, keys, index + 1, numberOfKeys - index);
+            System.arraycopy(values, index, values, index + 1, numberOfKeys - index);
+            keys[index] = key;
+            values[index] = value;
             numberOfKeys++;
         } else {
-            while (index >= 0 && entries[index].key.compareTo(newEntry.key) > 0) {
-                index--;
-            }
-            index++;
-            if (children[index].numberOfKeys == 2 * MIN_DEGREE - 1) {
+            if (children[index].numberOfKeys == 2 * minDegree - 1) {
                 splitChild(index, children[index]);
-                if (entries[index].key.compareTo(newEntry.key) < 0) {
+                if (keyAt(index).compareTo(key) < 0) {
                     index++;
                 }
             }
-            children[index].insertNonFull(newEntry);
+            children[index].insertNonFull(key, value);
         }
     }
 
     public void splitChild(int childIndex, Node<K, V> fullChild) {
-        Node<K, V> newChild = new Node<>();
-        newChild.leaf = fullChild.leaf;
-        newChild.numberOfKeys = MIN_DEGREE - 1;
+        Node<K, V> newChild = new Node<>(minDegree, fullChild.leaf);
+        newChild.numberOfKeys = minDegree - 1;
 
-        for (int j = 0; j < MIN_DEGREE - 1; j++) {
-            newChild.entries[j] = fullChild.entries[j + MIN_DEGREE];
-        }
+        System.arraycopy(fullChild.keys, minDegree, newChild.keys, 0, minDegree - 1);
+        System.arraycopy(fullChild.values, minDegree, newChild.values, 0, minDegree - 1);
         if (!fullChild.leaf) {
-            for (int j = 0; j < MIN_DEGREE; j++) {
-                newChild.children[j] = fullChild.children[j + MIN_DEGREE];
-            }
+            System.arraycopy(fullChild.children, minDegree, newChild.children, 0, minDegree);
         }
-        fullChild.numberOfKeys = MIN_DEGREE - 1;
 
-        for (int j = numberOfKeys; j >= childIndex + 1; j--) {
-            children[j + 1] = children[j];
-        }
+        System.arraycopy(children, childIndex + 1, children, childIndex + 2, numberOfKeys - childIndex);
         children[childIndex + 1] = newChild;
 
-        for (int j = numberOfKeys - 1; j >= childIndex; j--) {
-            entries[j + 1] = entries[j];
-        }
-        entries[childIndex] = fullChild.entries[MIN_DEGREE - 1];
+        System.arraycopy(keys, childIndex, keys, childIndex + 1, numberOfKeys - childIndex);
+        System.arraycopy(values, childIndex, values, childIndex + 1, numberOfKeys - childIndex);
+        keys[childIndex] = fullChild.keys[minDegree - 1];
+        values[childIndex] = fullChild.values[minDegree - 1];
         numberOfKeys++;
+
+        fullChild.numberOfKeys = minDegree - 1;
+        fullChild.clearFrom(minDegree - 1);
+    }
+
+    // Drops references past the last key so removed entries can be collected.
+    private void clearFrom(int index) {
+        for (int i = index; i < keys.length; i++) {
+            keys[i] = null;
+            values[i] = null;
+        }
+        if (!leaf) {
+            for (int i = index + 1; i < children.length; i++) {
+                children[i] = null;
+            }
+        }
     }
 
     public void delete(K key) {
         int index = findKeyIndex(key);
-        logger.info("Deleting <{}> key from {} index", key, index);
-        if (index < numberOfKeys && entries[index].key.compareTo(key) == 0) {
+        if (index < numberOfKeys && keyAt(index).compareTo(key) == 0) {
             if (leaf) {
                 // Case 1a: The node is a leaf node
                 removeFromLeaf(index);
@@ -87,15 +103,14 @@ public class Node<K extends Comparable<K>, V> {
         } else {
             // Case 2: Key is not found in this node
             if (leaf) {
-                logger.info("Key {} is not present in the tree", key);
                 return;
             }
 
             // Determine if the key is in the subtree rooted with the last child
             boolean flag = (index == numberOfKeys);
 
-            // Ensure the child where the key may exist has at least MIN_DEGREE entries
-            if (children[index].numberOfKeys < MIN_DEGREE) {
+            // Ensure the child where the key may exist has at least minDegree entries
+            if (children[index].numberOfKeys < minDegree) {
                 fill(index);
             }
 
@@ -109,56 +124,52 @@ public class Node<K extends Comparable<K>, V> {
     }
 
     private void removeFromLeaf(int index) {
-        for (int i = index + 1; i < numberOfKeys; ++i) {
-            entries[i - 1] = entries[i];
-        }
+        System.arraycopy(keys, index + 1, keys, index, numberOfKeys - index - 1);
+        System.arraycopy(values, index + 1, values, index, numberOfKeys - index - 1);
         numberOfKeys--;
+        keys[numberOfKeys] = null;
+        values[numberOfKeys] = null;
     }
 
     private void removeFromNonLeaf(int index) {
-        K key = entries[index].key;
+        K key = keyAt(index);
 
-        // Case 2a: The child before key (C[idx]) has at least MIN_DEGREE entries
-        if (children[index].numberOfKeys >= MIN_DEGREE) {
-            Entry<K, V> predecessor = getPredecessor(index);
-            entries[index] = predecessor;
-            children[index].delete(predecessor.key);
+        // Case 2a: The child before key (C[idx]) has at least minDegree entries
+        if (children[index].numberOfKeys >= minDegree) {
+            Node<K, V> predecessor = children[index];
+            while (!predecessor.leaf) {
+                predecessor = predecessor.children[predecessor.numberOfKeys];
+            }
+            int last = predecessor.numberOfKeys - 1;
+            K predecessorKey = predecessor.keyAt(last);
+            keys[index] = predecessorKey;
+            values[index] = predecessor.values[last];
+            children[index].delete(predecessorKey);
         }
 
-        // Case 2b: The child after key (C[idx+1]) has at least MIN_DEGREE entries
-        else if (children[index + 1].numberOfKeys >= MIN_DEGREE) {
-            Entry<K, V> successor = getSuccessor(index);
-            entries[index] = successor;
-            children[index + 1].delete(successor.key);
+        // Case 2b: The child after key (C[idx+1]) has at least minDegree entries
+        else if (children[index + 1].numberOfKeys >= minDegree) {
+            Node<K, V> successor = children[index + 1];
+            while (!successor.leaf) {
+                successor = successor.children[0];
+            }
+            K successorKey = successor.keyAt(0);
+            keys[index] = successorKey;
+            values[index] = successor.values[0];
+            children[index + 1].delete(successorKey);
         }
 
-        // Case 2c: Both C[idx] and C[idx+1] have less than MIN_DEGREE entries
+        // Case 2c: Both C[idx] and C[idx+1] have less than minDegree entries
         else {
             merge(index);
             children[index].delete(key);
         }
     }
 
-    private Entry<K, V> getPredecessor(int index) {
-        Node<K, V> current = children[index];
-        while (!current.leaf) {
-            current = current.children[current.numberOfKeys];
-        }
-        return current.entries[current.numberOfKeys - 1];
-    }
-
-    private Entry<K, V> getSuccessor(int index) {
-        Node<K, V> current = children[index + 1];
-        while (!current.leaf) {
-            current = current.children[0];
-        }
-        return current.entries[0];
-    }
-
     private void fill(int index) {
-        if (index != 0 && children[index - 1].numberOfKeys >= MIN_DEGREE) {
+        if (index != 0 && children[index - 1].numberOfKeys >= minDegree) {
             borrowFromPrevious(index);
-        } else if (index != numberOfKeys && children[index + 1].numberOfKeys >= MIN_DEGREE) {
+        } else if (index != numberOfKeys && children[index + 1].numberOfKeys >= minDegree) {
             borrowFromNext(index);
         } else {
             if (index != numberOfKeys) {
@@ -173,104 +184,112 @@ public class Node<K extends Comparable<K>, V> {
         Node<K, V> child = children[index];
         Node<K, V> sibling = children[index - 1];
 
-        for (int i = child.numberOfKeys -1; i >= 0; i--) {
-            child.entries[i + 1] = child.entries[i];
-        }
-
-        if(!child.leaf) {
-            for (int i = child.numberOfKeys - 1; i >= 0; i--) {
-                child.children[i + 1] = child.children[i];
-            }
+        System.arraycopy(child.keys, 0, child.keys, 1, child.numberOfKeys);
+        System.arraycopy(child.values, 0, child.values, 1, child.numberOfKeys);
+        if (!child.leaf) {
+            System.arraycopy(child.children, 0, child.children, 1, child.numberOfKeys + 1);
         }
 
-        child.entries[0] = entries[index - 1];
+        child.keys[0] = keys[index - 1];
+        child.values[0] = values[index - 1];
 
-        if (!leaf) {
+        if (!child.leaf) {
             child.children[0] = sibling.children[sibling.numberOfKeys];
         }
-        entries[index - 1] = sibling.entries[sibling.numberOfKeys - 1];
+        keys[index - 1] = sibling.keys[sibling.numberOfKeys - 1];
+        values[index - 1] = sibling.values[sibling.numberOfKeys - 1];
         child.numberOfKeys += 1;
         sibling.numberOfKeys -= 1;
+        sibling.clearFrom(sibling.numberOfKeys);
     }
 
     public void borrowFromNext(int index) {
-        logger.debug("Borrowing from next sibling for node at index {}", index);
         Node<K, V> child = children[index];
         Node<K, V> sibling = children[index + 1];
 
-        child.entries[child.numberOfKeys] = entries[index];
+        child.keys[child.numberOfKeys] = keys[index];
+        child.values[child.numberOfKeys] = values[index];
 
         if (!child.leaf) {
             child.children[child.numberOfKeys + 1] = sibling.children[0];
         }
 
-        entries[index] = sibling.entries[0];
-
-        for (int i = 1; i < sibling.numberOfKeys; i++) {
-            sibling.entries[i - 1] = sibling.entries[i];
-        }
+        keys[index] = sibling.keys[0];
+        values[index] = sibling.values[0];
 
+        System.arraycopy(sibling.keys, 1, sibling.keys, 0, sibling.numberOfKeys - 1);
+        System.arraycopy(sibling.values, 1, sibling.values, 0, sibling.numberOfKeys - 1);
         if (!sibling.leaf) {
-            for (int i = 1; i <= sibling.numberOfKeys; i++) {
-                sibling.children[i - 1] = sibling.children[i];
-            }
+            System.arraycopy(sibling.children, 1, sibling.children, 0, sibling.numberOfKeys);
         }
 
         child.numberOfKeys += 1;
         sibling.numberOfKeys -= 1;
-
+        sibling.clearFrom(sibling.numberOfKeys);
     }
 
     public void merge(int index) {
-        logger.debug("Merging node at index {}", index);
         Node<K, V> child = children[index];
         Node<K, V> sibling = children[index + 1];
+        int offset = child.numberOfKeys;
 
-        child.entries[MIN_DEGREE - 1] = entries[index];
-
-        for (int i = 0; i < sibling.numberOfKeys; i++) {
-            child.entries[i + MIN_DEGREE] = sibling.entries[i];
-        }
+        child.keys[offset] = keys[index];
+        child.values[offset] = values[index];
 
+        System.arraycopy(sibling.keys, 0, child.keys, offset + 1, sibling.numberOfKeys);
+        System.arraycopy(sibling.values, 0, child.values, offset + 1, sibling.numberOfKeys);
         if (!child.leaf) {
-            for (int i = 0; i <= sibling.numberOfKeys; i++) {
-                child.children[i + MIN_DEGREE] = sibling.children[i];
-            }
-        }
-
-        for (int i = index + 1; i < numberOfKeys; i++) {
-            entries[i - 1] = entries[i];
+            System.arraycopy(sibling.children, 0, child.children, offset + 1, sibling.numberOfKeys + 1);
         }
 
-        for (int i = index + 2; i <= numberOfKeys; i++) {
-            children[i - 1] = children[i];
-        }
+        System.arraycopy(keys, index + 1, keys, index, numberOfKeys - index - 1);
+        System.arraycopy(values, index + 1, values, index, numberOfKeys - index - 1);
+        System.arraycopy(children, index + 2, children, index + 1, numberOfKeys - index - 1);
 
         child.numberOfKeys += sibling.numberOfKeys + 1;
         numberOfKeys--;
-        logger.info("After merge, node: {}", this);
+        clearFrom(numberOfKeys);
     }
 
+    // Index of the first key that is not less than key, or numberOfKeys if there is none.
     public int findKeyIndex(K key) {
+        if (numberOfKeys > LINEAR_SEARCH_LIMIT) {
+            int low = 0;
+            int high = numberOfKeys;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keyAt(middle).compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
         int index = 0;
-        while (index < numberOfKeys && entries[index].key.compareTo(key) < 0) {
+        while (index < numberOfKeys && keyAt(index).compareTo(key) < 0) {
             index++;
         }
         return index;
     }
 
-    public Entry<K, V> search(K key) {
-        int index = 0;
-        while (index < numberOfKeys && key.compareTo(entries[index].key) > 0) {
-            index++;
-        }
-        if (index < numberOfKeys && key.compareTo(entries[index].key) == 0) {
-            return entries[index];
+    // Keys findKeyIndex compared to arrive at index, plus the equality check against the key found there.
+    int comparisonsFor(int index) {
+        int search = numberOfKeys > LINEAR_SEARCH_LIMIT
+                ? 32 - Integer.numberOfLeadingZeros(numberOfKeys)
+                : Math.min(index + 1, numberOfKeys);
+        return index < numberOfKeys ? search + 1 : search;
+    }
+
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int index = 0; index < numberOfKeys; index++) {
+            if (!leaf) {
+                children[index].forEach(action);
+            }
+            action.accept(keyAt(index), valueAt(index));
         }
-        if (leaf) {
-            return null;
-        } else {
-            return children[index].search(key);
+        if (!leaf) {
+            children[numberOfKeys].forEach(action);
         }
     }
 
@@ -280,7 +299,7 @@ public class Node<K extends Comparable<K>, V> {
             if (!leaf) {
                 children[index].traverse();
             }
-            System.out.println(entries[index].key + ": " + entries[index].value);
+            System.out.println(keys[index] + ": " + values[index]);
         }
         if (!leaf) {
             children[index].traverse();
@@ -292,7 +311,7 @@ public class Node<K extends Comparable<K>, V> {
         StringBuilder sb = new StringBuilder();
         sb.append('[');
         for (int i = 0; i < numberOfKeys; i++) {
-            sb.append(entries[i].key);
+            sb.append(keys[i]);
             if (i < numberOfKeys - 1) {
                 sb.append(", ");
             }
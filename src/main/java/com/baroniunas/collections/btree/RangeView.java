@@ -0,0 +1,83 @@
+package com.baroniunas.collections.btree;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * A live, read-only key range of a {@link BTree}. Nothing is copied: every traversal opens a new
+ * {@link Cursor} on the backing tree. A {@code null} bound means the range is open on that side.
+ */
+public class RangeView<K extends Comparable<K>, V> implements Iterable<Map.Entry<K, V>> {
+    private final BTree<K, V> tree;
+    private final K from;
+    private final boolean fromInclusive;
+    private final K to;
+    private final boolean toInclusive;
+
+    RangeView(BTree<K, V> tree, K from, boolean fromInclusive, K to, boolean toInclusive) {
+        this.tree = tree;
+        this.from = from;
+        this.fromInclusive = fromInclusive;
+        this.to = to;
+        this.toInclusive = toInclusive;
+    }
+
+    public Cursor<K, V> cursor() {
+        return tree.cursor(from, fromInclusive, to, toInclusive);
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Cursor<K, V> cursor = cursor();
+        while (cursor.next()) {
+            action.accept(cursor.getKey(), cursor.getValue());
+        }
+    }
+
+    public V getValue(K key) {
+        return inRange(key) ? tree.getValue(key) : null;
+    }
+
+    private boolean inRange(K key) {
+        if (from != null) {
+            int comparison = key.compareTo(from);
+            if (comparison < 0 || (comparison == 0 && !fromInclusive)) {
+                return false;
+            }
+        }
+        if (to != null) {
+            int comparison = key.compareTo(to);
+            return comparison < 0 || (comparison == 0 && toInclusive);
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        Cursor<K, V> cursor = cursor();
+        return new Iterator<>() {
+            private boolean advanced;
+            private boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    hasNext = cursor.next();
+                    advanced = true;
+                }
+                return hasNext;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                return new AbstractMap.SimpleImmutableEntry<>(cursor.getKey(), cursor.getValue());
+            }
+        };
+    }
+}
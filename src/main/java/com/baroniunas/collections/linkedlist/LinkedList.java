@@ -1,8 +1,10 @@
 package com.baroniunas.collections.linkedlist;
 
 import com.baroniunas.collections.Collections;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 
 public class LinkedList<K extends Comparable<K>, V> implements Collections <K,V> {
@@ -10,8 +12,6 @@ public class LinkedList<K extends Comparable<K>, V> implements Collections <K,V>
     private Node<K,V> head;
     private int size = 0;
 
-    private static final Logger logger = LogManager.getLogger(LinkedList.class);
-
     @Override
     public void put(K key, V value) {
         if (key == null || value == null) {
@@ -27,12 +27,10 @@ public class LinkedList<K extends Comparable<K>, V> implements Collections <K,V>
         Node<K,V> currentNode = head;
         while (currentNode != null) {
             if(currentNode.key.equals(key)) {
-                logger.debug("Updating existing key <{}>, value to <{}>.", key, value);
                 currentNode.value = value;
                 return;
             }
             if (currentNode.next == null) {
-                logger.debug("Adding new pair key <{}>, value <{}> to LinkedList", key, value);
                 currentNode.next = new Node<>(key, value, null);
                 size++;
                 return;
@@ -46,7 +44,6 @@ public class LinkedList<K extends Comparable<K>, V> implements Collections <K,V>
         if (key == null) {
             throw new IllegalArgumentException("Key cannot be null");
         }
-        logger.debug("Getting value from <{}> key.", key);
         Node<K,V> currentNode = head;
         while (currentNode != null) {
             if(currentNode.key.equals(key)) {
@@ -98,6 +95,149 @@ public class LinkedList<K extends Comparable<K>, V> implements Collections <K,V>
         return null;
     }
 
+    @Override
+    public V putIfAbsent(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        Node<K,V> last = null;
+        for (Node<K,V> currentNode = head; currentNode != null; currentNode = currentNode.next) {
+            if (currentNode.key.equals(key)) {
+                return currentNode.value;
+            }
+            last = currentNode;
+        }
+        append(last, key, value);
+        return null;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        for (Node<K,V> currentNode = head; currentNode != null; currentNode = currentNode.next) {
+            if (currentNode.key.equals(key)) {
+                V oldValue = currentNode.value;
+                currentNode.value = value;
+                return oldValue;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        Node<K,V> previousNode = null;
+        for (Node<K,V> currentNode = head; currentNode != null; currentNode = currentNode.next) {
+            if (currentNode.key.equals(key)) {
+                V value = remappingFunction.apply(key, currentNode.value);
+                if (value != null) {
+                    currentNode.value = value;
+                } else {
+                    if (previousNode == null) {
+                        head = currentNode.next;
+                    } else {
+                        previousNode.next = currentNode.next;
+                    }
+                    size--;
+                }
+                return value;
+            }
+            previousNode = currentNode;
+        }
+        V value = remappingFunction.apply(key, null);
+        if (value != null) {
+            append(previousNode, key, value);
+        }
+        return value;
+    }
+
+    // Same single walk as compute, without wrapping the function; the counting path calls this per word.
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        Node<K,V> previousNode = null;
+        for (Node<K,V> currentNode = head; currentNode != null; currentNode = currentNode.next) {
+            if (currentNode.key.equals(key)) {
+                V merged = remappingFunction.apply(currentNode.value, value);
+                if (merged != null) {
+                    currentNode.value = merged;
+                } else {
+                    if (previousNode == null) {
+                        head = currentNode.next;
+                    } else {
+                        previousNode.next = currentNode.next;
+                    }
+                    size--;
+                }
+                return merged;
+            }
+            previousNode = currentNode;
+        }
+        append(previousNode, key, value);
+        return value;
+    }
+
+    private void append(Node<K,V> last, K key, V value) {
+        Node<K,V> node = new Node<>(key, value, null);
+        if (last == null) {
+            head = node;
+        } else {
+            last.next = node;
+        }
+        size++;
+    }
+
+    // Skips the duplicate scan of put; the caller guarantees the key is not in the list yet.
+    public void addFirst(K key, V value) {
+        head = new Node<>(key, value, head);
+        size++;
+    }
+
+    // Relinks matching nodes, in order, into a new list instead of copying them.
+    public LinkedList<K,V> splitOff(Predicate<? super K> predicate) {
+        LinkedList<K,V> moved = new LinkedList<>();
+        Node<K,V> keptTail = null;
+        Node<K,V> movedTail = null;
+        Node<K,V> currentNode = head;
+        head = null;
+        while (currentNode != null) {
+            Node<K,V> next = currentNode.next;
+            currentNode.next = null;
+            if (predicate.test(currentNode.key)) {
+                if (movedTail == null) {
+                    moved.head = currentNode;
+                } else {
+                    movedTail.next = currentNode;
+                }
+                movedTail = currentNode;
+                moved.size++;
+                size--;
+            } else {
+                if (keptTail == null) {
+                    head = currentNode;
+                } else {
+                    keptTail.next = currentNode;
+                }
+                keptTail = currentNode;
+            }
+            currentNode = next;
+        }
+        return moved;
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Node<K,V> currentNode = head; currentNode != null; currentNode = currentNode.next) {
+            action.accept(currentNode.key, currentNode.value);
+        }
+    }
+
     public Node<K,V> getHead() {
         return head;
     }
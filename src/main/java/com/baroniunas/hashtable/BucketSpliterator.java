@@ -0,0 +1,123 @@
+package com.baroniunas.hashtable;
+
+import com.baroniunas.collections.Collections;
+import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.collections.btree.Cursor;
+import com.baroniunas.collections.linkedlist.LinkedList;
+import com.baroniunas.collections.linkedlist.Node;
+
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Splits a {@link HashTable} by bucket index. While an incremental resize is running the index
+ * space covers the old array followed by the new one, so every entry is seen exactly once.
+ * Each entry is passed through a mapper, so key and value traversals allocate nothing per entry.
+ */
+class BucketSpliterator<K extends Comparable<K>, V, T> implements Spliterator<T> {
+    private final HashTable<K, V> table;
+    private final BiFunction<? super K, ? super V, ? extends T> mapper;
+    private final int expectedModCount;
+    private int index;
+    private final int fence;
+    private long estimate;
+    private boolean split;
+    // Position inside the bucket currently being consumed by tryAdvance.
+    private Node<K, V> node;
+    private Cursor<K, V> cursor;
+
+    BucketSpliterator(HashTable<K, V> table, BiFunction<? super K, ? super V, ? extends T> mapper) {
+        this(table, mapper, table.modCount, 0, table.getBucketCount(), table.getSize());
+    }
+
+    private BucketSpliterator(HashTable<K, V> table, BiFunction<? super K, ? super V, ? extends T> mapper,
+                              int expectedModCount, int index, int fence, long estimate) {
+        this.table = table;
+        this.mapper = mapper;
+        this.expectedModCount = expectedModCount;
+        this.index = index;
+        this.fence = fence;
+        this.estimate = estimate;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        checkForComodification();
+        while (true) {
+            if (node != null) {
+                T element = mapper.apply(node.getKey(), node.getValue());
+                node = node.getNext();
+                action.accept(element);
+                return true;
+            }
+            if (cursor != null) {
+                if (cursor.next()) {
+                    action.accept(mapper.apply(cursor.getKey(), cursor.getValue()));
+                    return true;
+                }
+                cursor = null;
+            }
+            if (index >= fence) {
+                return false;
+            }
+            Collections<K, V> bucket = table.getBucket(index++);
+            if (bucket instanceof LinkedList) {
+                node = ((LinkedList<K, V>) bucket).getHead();
+            } else if (bucket != null) {
+                cursor = ((BTree<K, V>) bucket).cursor();
+            }
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (node != null || cursor != null) {
+            tryAdvance(action);
+        }
+        for (; index < fence; index++) {
+            Collections<K, V> bucket = table.getBucket(index);
+            if (bucket instanceof LinkedList) {
+                for (Node<K, V> current = ((LinkedList<K, V>) bucket).getHead(); current != null; current = current.getNext()) {
+                    action.accept(mapper.apply(current.getKey(), current.getValue()));
+                }
+            } else if (bucket != null) {
+                ((BTree<K, V>) bucket).forEach((key, value) -> action.accept(mapper.apply(key, value)));
+            }
+        }
+        checkForComodification();
+    }
+
+    // Hands the lower half of the remaining buckets to a new spliterator; a partly read bucket stays here.
+    @Override
+    public Spliterator<T> trySplit() {
+        int middle = (index + fence) >>> 1;
+        if (middle <= index) {
+            return null;
+        }
+        BucketSpliterator<K, V, T> prefix =
+                new BucketSpliterator<>(table, mapper, expectedModCount, index, middle, estimate >>> 1);
+        prefix.split = true;
+        index = middle;
+        estimate -= prefix.estimate;
+        split = true;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return (split ? 0 : SIZED) | DISTINCT | NONNULL;
+    }
+
+    private void checkForComodification() {
+        if (table.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+}
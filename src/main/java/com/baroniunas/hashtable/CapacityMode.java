@@ -0,0 +1,12 @@
+package com.baroniunas.hashtable;
+
+/**
+ * How a {@link HashTable} maps hash codes to buckets. {@code MODULO} keeps the original
+ * {@code |hash % capacity|} over capacities 3, 6, 12, ... {@code POWER_OF_TWO} spreads the hash
+ * and masks it against a power-of-two capacity. That avoids the division and lets a resize split
+ * each bucket into the same index and {@code index + oldCapacity} without rehashing it.
+ */
+public enum CapacityMode {
+    MODULO,
+    POWER_OF_TWO
+}
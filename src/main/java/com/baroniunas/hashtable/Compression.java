@@ -0,0 +1,7 @@
+package com.baroniunas.hashtable;
+
+public enum Compression {
+    NONE,
+    // java.util.zip Deflate at its fastest level.
+    DEFLATE
+}
@@ -0,0 +1,443 @@
+package com.baroniunas.hashtable;
+
+import com.baroniunas.collections.btree.BTree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe hash table. {@link #getValue} never locks: it reads bins through volatile array
+ * accesses and volatile node links. {@link #put} and {@link #removePair} lock only the bin they
+ * touch, using the bin head as monitor, and an empty bin is filled with a CAS.
+ * Like {@link HashTable}, a bin that reaches {@link #TREE_THRESHOLD} entries is turned into a
+ * {@link BTree} bin.
+ * <p>
+ * Growth doubles the power-of-two bin array. One thread moves bins into the new array and leaves
+ * a forwarding marker in each old slot. Readers and writers that hit a marker retry against the
+ * new array, so operations on bins that were already moved never wait for the resize.
+ */
+public class ConcurrentHashTable<K extends Comparable<K>, V> implements Table<K, V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.75f;
+    static final int TREE_THRESHOLD = 6;
+    static final int UNTREEIFY_THRESHOLD = 3;
+
+    private static final VarHandle BINS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private volatile Object[] bins;
+    private volatile int threshold;
+    private final LongAdder count = new LongAdder();
+    private final AtomicBoolean resizing = new AtomicBoolean();
+
+    public ConcurrentHashTable() {
+        this(0);
+    }
+
+    public ConcurrentHashTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < MAXIMUM_CAPACITY && capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        bins = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int spread(int h) {
+        return (h ^ (h >>> 16)) & 0x7fffffff;
+    }
+
+    private static Object binAt(Object[] tab, int i) {
+        return BINS.getVolatile(tab, i);
+    }
+
+    private static boolean casBin(Object[] tab, int i, Object expected, Object bin) {
+        return BINS.compareAndSet(tab, i, expected, bin);
+    }
+
+    private static void setBin(Object[] tab, int i, Object bin) {
+        BINS.setVolatile(tab, i, bin);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        int hash = spread(key.hashCode());
+        Object[] tab = bins;
+        while (true) {
+            Object bin = binAt(tab, hash & (tab.length - 1));
+            if (bin == null) {
+                return null;
+            }
+            if (bin instanceof Node) {
+                for (Node<K, V> e = (Node<K, V>) bin; e != null; e = e.next) {
+                    if (e.hash == hash && key.equals(e.key)) {
+                        return e.value;
+                    }
+                }
+                return null;
+            }
+            if (bin instanceof TreeBin) {
+                Node<K, V> e = ((TreeBin<K, V>) bin).find(hash, key);
+                return e == null ? null : e.value;
+            }
+            tab = ((Forwarding) bin).nextBins;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        int hash = spread(key.hashCode());
+        Object[] tab = bins;
+        while (true) {
+            int i = hash & (tab.length - 1);
+            Object bin = binAt(tab, i);
+            if (bin == null) {
+                if (casBin(tab, i, null, new Node<>(hash, key, value, null))) {
+                    added();
+                    return;
+                }
+                continue;
+            }
+            if (bin instanceof Forwarding) {
+                tab = ((Forwarding) bin).nextBins;
+                continue;
+            }
+
+            int binCount = 0;
+            boolean inserted = false;
+            synchronized (bin) {
+                if (binAt(tab, i) != bin) {
+                    continue;
+                }
+                if (bin instanceof Node) {
+                    Node<K, V> e = (Node<K, V>) bin;
+                    while (true) {
+                        binCount++;
+                        if (e.hash == hash && key.equals(e.key)) {
+                            e.value = value;
+                            return;
+                        }
+                        if (e.next == null) {
+                            e.next = new Node<>(hash, key, value, null);
+                            inserted = true;
+                            binCount++;
+                            break;
+                        }
+                        e = e.next;
+                    }
+                } else {
+                    inserted = ((TreeBin<K, V>) bin).put(hash, key, value);
+                }
+            }
+            if (inserted) {
+                if (binCount >= TREE_THRESHOLD) {
+                    treeify(tab, i);
+                }
+                added();
+            }
+            return;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V removePair(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        int hash = spread(key.hashCode());
+        Object[] tab = bins;
+        while (true) {
+            int i = hash & (tab.length - 1);
+            Object bin = binAt(tab, i);
+            if (bin == null) {
+                return null;
+            }
+            if (bin instanceof Forwarding) {
+                tab = ((Forwarding) bin).nextBins;
+                continue;
+            }
+
+            V removed = null;
+            synchronized (bin) {
+                if (binAt(tab, i) != bin) {
+                    continue;
+                }
+                if (bin instanceof Node) {
+                    Node<K, V> previous = null;
+                    for (Node<K, V> e = (Node<K, V>) bin; e != null; previous = e, e = e.next) {
+                        if (e.hash == hash && key.equals(e.key)) {
+                            removed = e.value;
+                            if (previous == null) {
+                                setBin(tab, i, e.next);
+                            } else {
+                                previous.next = e.next;
+                            }
+                            break;
+                        }
+                    }
+                } else {
+                    TreeBin<K, V> treeBin = (TreeBin<K, V>) bin;
+                    removed = treeBin.remove(hash, key);
+                    if (treeBin.size == 0) {
+                        setBin(tab, i, null);
+                    }
+                }
+            }
+            if (removed != null) {
+                count.decrement();
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return (int) count.sum();
+    }
+
+    public int getCurrentCapacity() {
+        return bins.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void treeify(Object[] tab, int i) {
+        Object bin = binAt(tab, i);
+        if (!(bin instanceof Node)) {
+            return;
+        }
+        synchronized (bin) {
+            if (binAt(tab, i) == bin) {
+                setBin(tab, i, new TreeBin<>((Node<K, V>) bin));
+            }
+        }
+    }
+
+    private void added() {
+        count.increment();
+        if (count.sum() >= threshold) {
+            tryResize();
+        }
+    }
+
+    private void tryResize() {
+        if (!resizing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Object[] tab = bins;
+            if (count.sum() >= threshold && tab.length < MAXIMUM_CAPACITY) {
+                transfer(tab);
+            }
+        } finally {
+            resizing.set(false);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transfer(Object[] tab) {
+        int n = tab.length;
+        Object[] nextTab = new Object[n << 1];
+        Forwarding forwarding = new Forwarding(nextTab);
+        for (int i = 0; i < n; i++) {
+            while (true) {
+                Object bin = binAt(tab, i);
+                if (bin == null) {
+                    if (casBin(tab, i, null, forwarding)) {
+                        break;
+                    }
+                    continue;
+                }
+                synchronized (bin) {
+                    if (binAt(tab, i) != bin) {
+                        continue;
+                    }
+                    Node<K, V> first = bin instanceof Node ? (Node<K, V>) bin : ((TreeBin<K, V>) bin).first;
+                    // Nodes are copied rather than relinked: readers may still be walking the old chain.
+                    Node<K, V> lo = null;
+                    Node<K, V> hi = null;
+                    int loCount = 0;
+                    int hiCount = 0;
+                    for (Node<K, V> e = first; e != null; e = e.next) {
+                        if ((e.hash & n) == 0) {
+                            lo = new Node<>(e.hash, e.key, e.value, lo);
+                            loCount++;
+                        } else {
+                            hi = new Node<>(e.hash, e.key, e.value, hi);
+                            hiCount++;
+                        }
+                    }
+                    boolean tree = bin instanceof TreeBin;
+                    setBin(nextTab, i, toBin(lo, loCount, tree));
+                    setBin(nextTab, i + n, toBin(hi, hiCount, tree));
+                    setBin(tab, i, forwarding);
+                }
+                break;
+            }
+        }
+        bins = nextTab;
+        threshold = (int) (nextTab.length * LOAD_FACTOR);
+    }
+
+    private Object toBin(Node<K, V> first, int size, boolean wasTree) {
+        if (first == null) {
+            return null;
+        }
+        int treeAt = wasTree ? UNTREEIFY_THRESHOLD + 1 : TREE_THRESHOLD;
+        return size >= treeAt ? new TreeBin<>(first) : first;
+    }
+
+    static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+        // Only touched under the bin lock, so tree bins can unlink in O(1).
+        Node<K, V> previous;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    static final class Forwarding {
+        final Object[] nextBins;
+
+        Forwarding(Object[] nextBins) {
+            this.nextBins = nextBins;
+        }
+    }
+
+    /**
+     * A bin indexed by a {@link BTree} of its nodes. The nodes also stay linked as a list. Writers
+     * hold the bin monitor and take the tree in {@link #WRITER} mode; readers never wait. A reader
+     * that finds a writer active or waiting walks the list instead, and returns to the tree once
+     * the writer is gone.
+     */
+    static final class TreeBin<K extends Comparable<K>, V> {
+        private static final int WRITER = 1;
+        private static final int WAITER = 2;
+        private static final int READER = 4;
+        private static final VarHandle LOCK_STATE;
+
+        static {
+            try {
+                LOCK_STATE = MethodHandles.lookup().findVarHandle(TreeBin.class, "lockState", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final BTree<K, Node<K, V>> tree = new BTree<>();
+        volatile Node<K, V> first;
+        private volatile int lockState;
+        int size;
+
+        TreeBin(Node<K, V> first) {
+            Node<K, V> previous = null;
+            for (Node<K, V> e = first; e != null; e = e.next) {
+                e.previous = previous;
+                tree.put(e.key, e);
+                previous = e;
+                size++;
+            }
+            this.first = first;
+        }
+
+        Node<K, V> find(int hash, K key) {
+            for (Node<K, V> e = first; e != null; ) {
+                int state = lockState;
+                if ((state & (WRITER | WAITER)) != 0) {
+                    if (e.hash == hash && key.equals(e.key)) {
+                        return e;
+                    }
+                    e = e.next;
+                } else if (LOCK_STATE.compareAndSet(this, state, state + READER)) {
+                    try {
+                        return tree.getValue(key);
+                    } finally {
+                        LOCK_STATE.getAndAdd(this, -READER);
+                    }
+                }
+            }
+            return null;
+        }
+
+        // Caller holds the bin monitor, so writers never contend with each other.
+        private void lockTree() {
+            if (LOCK_STATE.compareAndSet(this, 0, WRITER)) {
+                return;
+            }
+            LOCK_STATE.getAndBitwiseOr(this, WAITER);
+            while (!LOCK_STATE.compareAndSet(this, WAITER, WRITER)) {
+                Thread.onSpinWait();
+            }
+        }
+
+        private void unlockTree() {
+            lockState = 0;
+        }
+
+        boolean put(int hash, K key, V value) {
+            Node<K, V> existing = tree.getValue(key);
+            if (existing != null) {
+                existing.value = value;
+                return false;
+            }
+            Node<K, V> node = new Node<>(hash, key, value, first);
+            if (first != null) {
+                first.previous = node;
+            }
+            lockTree();
+            try {
+                tree.put(key, node);
+            } finally {
+                unlockTree();
+            }
+            first = node;
+            size++;
+            return true;
+        }
+
+        V remove(int hash, K key) {
+            Node<K, V> node = tree.getValue(key);
+            if (node == null) {
+                return null;
+            }
+            lockTree();
+            try {
+                tree.remove(key);
+            } finally {
+                unlockTree();
+            }
+            Node<K, V> next = node.next;
+            Node<K, V> previous = node.previous;
+            if (previous == null) {
+                first = next;
+            } else {
+                previous.next = next;
+            }
+            if (next != null) {
+                next.previous = previous;
+            }
+            size--;
+            return node.value;
+        }
+    }
+}
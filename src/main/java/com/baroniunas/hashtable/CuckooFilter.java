@@ -0,0 +1,140 @@
+package com.baroniunas.hashtable;
+
+/**
+ * Approximate set of key hashes that supports deletion. Each bucket is one {@code long} holding
+ * four 16-bit fingerprints, zero meaning empty, and every hash has two candidate buckets, the
+ * second derived from the first and the fingerprint alone so entries can be relocated without
+ * their key. A lookup reads at most two longs, gives no false negatives for hashes that were
+ * added and not removed, and false positives at a rate of about 8 in 65536.
+ */
+class CuckooFilter {
+    private static final int SLOTS = 4;
+    private static final int FINGERPRINT_BITS = 16;
+    private static final long FINGERPRINT_MASK = (1L << FINGERPRINT_BITS) - 1;
+    private static final int MAX_KICKS = 500;
+    // Above this fill ratio inserts start needing long relocation chains.
+    private static final double MAX_LOAD = 0.9;
+    private static final int MINIMUM_BUCKETS = 4;
+
+    private final long[] buckets;
+    private final int mask;
+    private int count;
+    private int kickCursor;
+
+    CuckooFilter(int expectedEntries) {
+        long needed = (long) Math.ceil(Math.max(expectedEntries, 1) / (SLOTS * MAX_LOAD));
+        int bucketCount = MINIMUM_BUCKETS;
+        while (bucketCount < needed && bucketCount < (1 << 30)) {
+            bucketCount <<= 1;
+        }
+        buckets = new long[bucketCount];
+        mask = bucketCount - 1;
+    }
+
+    // Spreads the table's 32-bit hash over 64 bits: the low half picks the bucket, the top 16 bits are the fingerprint.
+    private static long mix(int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+
+    private static long fingerprint(long mixed) {
+        long fingerprint = mixed >>> (Long.SIZE - FINGERPRINT_BITS);
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    private int alternate(int index, long fingerprint) {
+        return (index ^ (int) (fingerprint * 0x5BD1E995)) & mask;
+    }
+
+    boolean mightContain(int hash) {
+        long mixed = mix(hash);
+        long fingerprint = fingerprint(mixed);
+        int first = (int) mixed & mask;
+        return contains(buckets[first], fingerprint) || contains(buckets[alternate(first, fingerprint)], fingerprint);
+    }
+
+    private static boolean contains(long bucket, long fingerprint) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if ((bucket >>> (slot * FINGERPRINT_BITS) & FINGERPRINT_MASK) == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a hash, relocating existing fingerprints if both buckets are full. Returns false if the
+     * filter is too full, in which case its contents are no longer reliable and it must be rebuilt.
+     */
+    boolean add(int hash) {
+        if (count >= buckets.length * SLOTS * MAX_LOAD) {
+            return false;
+        }
+        long mixed = mix(hash);
+        long fingerprint = fingerprint(mixed);
+        int index = (int) mixed & mask;
+        if (tryStore(index, fingerprint) || tryStore(alternate(index, fingerprint), fingerprint)) {
+            count++;
+            return true;
+        }
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            // Evict a fingerprint from a rotating slot and move it to its other bucket.
+            int slot = kickCursor++ & (SLOTS - 1);
+            int shift = slot * FINGERPRINT_BITS;
+            long evicted = buckets[index] >>> shift & FINGERPRINT_MASK;
+            buckets[index] = buckets[index] & ~(FINGERPRINT_MASK << shift) | fingerprint << shift;
+            fingerprint = evicted;
+            index = alternate(index, fingerprint);
+            if (tryStore(index, fingerprint)) {
+                count++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryStore(int index, long fingerprint) {
+        long bucket = buckets[index];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            int shift = slot * FINGERPRINT_BITS;
+            if ((bucket >>> shift & FINGERPRINT_MASK) == 0) {
+                buckets[index] = bucket | fingerprint << shift;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Must only be called for a hash that was added; removing anything else could drop another key's fingerprint.
+    void remove(int hash) {
+        long mixed = mix(hash);
+        long fingerprint = fingerprint(mixed);
+        int first = (int) mixed & mask;
+        if (!tryRemove(first, fingerprint)) {
+            tryRemove(alternate(first, fingerprint), fingerprint);
+        }
+    }
+
+    private boolean tryRemove(int index, long fingerprint) {
+        long bucket = buckets[index];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            int shift = slot * FINGERPRINT_BITS;
+            if ((bucket >>> shift & FINGERPRINT_MASK) == fingerprint) {
+                buckets[index] = bucket & ~(FINGERPRINT_MASK << shift);
+                count--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getBytes() {
+        return (long) buckets.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,270 @@
+package com.baroniunas.hashtable;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable table built by {@link HashTable#freeze()}. Keys, values and hash codes sit in flat
+ * arrays exactly as long as the entry count, placed by a minimal perfect hash in the style of
+ * CHD/PTHash: hash codes are split into buckets of about three, and each bucket stores a pilot
+ * chosen at build time so that its keys land on free slots. A lookup hashes once, reads the
+ * bucket's pilot, and probes one slot, whose stored hash code rejects most misses before the
+ * key is compared.
+ *
+ * <p>A perfect hash can only tell apart keys whose hash codes differ. Keys that share a hash
+ * code with another key keep one of them in the perfect-hash slot; the rest follow it in an
+ * overflow region sorted by hash code and key, which the lookup searches only when the slot's
+ * hash code matches but its key does not. All fields are final and never written after
+ * construction, so a frozen table can be shared between threads without locking.
+ */
+public final class FrozenHashTable<K extends Comparable<K>, V> implements Table<K, V> {
+    // Larger buckets need fewer pilots but make the last ones, placed into a nearly full table, slow to find.
+    private static final int AVERAGE_BUCKET_SIZE = 3;
+    private static final int MAX_PILOT = 1 << 30;
+
+    private final Hasher<? super K> hasher;
+    private final int[] pilots;
+    private final int[] hashes;
+    private final Object[] keys;
+    private final Object[] values;
+    // Slots below this are placed by the perfect hash; the rest are the overflow region.
+    private final int primaryCount;
+
+    @SuppressWarnings("unchecked")
+    FrozenHashTable(Hasher<? super K> hasher, Object[] entryKeys, Object[] entryValues, int size) {
+        this.hasher = hasher;
+        int[] entryHashes = new int[size];
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            entryHashes[i] = hasher.hash((K) entryKeys[i]);
+            order[i] = (long) entryHashes[i] << 32 | i;
+        }
+        Arrays.sort(order);
+
+        // One representative entry per distinct hash code; the others go to the overflow region.
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || (int) (order[i] >> 32) != (int) (order[i - 1] >> 32)) {
+                distinct++;
+            }
+        }
+        int[] primary = new int[distinct];
+        int[] overflow = new int[size - distinct];
+        int overflowCount = 0;
+        distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || (int) (order[i] >> 32) != (int) (order[i - 1] >> 32)) {
+                primary[distinct++] = (int) order[i];
+            } else {
+                overflow[overflowCount++] = (int) order[i];
+            }
+        }
+        primaryCount = distinct;
+        pilots = findPilots(entryHashes, primary);
+
+        hashes = new int[size];
+        keys = new Object[size];
+        values = new Object[size];
+        for (int entry : primary) {
+            int slot = slotFor(entryHashes[entry]);
+            hashes[slot] = entryHashes[entry];
+            keys[slot] = entryKeys[entry];
+            values[slot] = entryValues[entry];
+        }
+        sortOverflow(overflow, entryHashes, entryKeys);
+        for (int i = 0; i < overflow.length; i++) {
+            int slot = primaryCount + i;
+            hashes[slot] = entryHashes[overflow[i]];
+            keys[slot] = entryKeys[overflow[i]];
+            values[slot] = entryValues[overflow[i]];
+        }
+    }
+
+    // Orders overflow entries by hash code, then key, so lookups can bisect the region.
+    @SuppressWarnings("unchecked")
+    private static <K extends Comparable<K>> void sortOverflow(int[] overflow, int[] entryHashes, Object[] entryKeys) {
+        if (overflow.length < 2) {
+            return;
+        }
+        Integer[] sorted = new Integer[overflow.length];
+        for (int i = 0; i < overflow.length; i++) {
+            sorted[i] = overflow[i];
+        }
+        Arrays.sort(sorted, (a, b) -> entryHashes[a] != entryHashes[b]
+                ? Integer.compare(entryHashes[a], entryHashes[b])
+                : ((K) entryKeys[a]).compareTo((K) entryKeys[b]));
+        for (int i = 0; i < overflow.length; i++) {
+            overflow[i] = sorted[i];
+        }
+    }
+
+    // Largest buckets are placed first, while most slots are still free.
+    private int[] findPilots(int[] entryHashes, int[] primary) {
+        int count = primary.length;
+        int bucketCount = Math.max(1, (count + AVERAGE_BUCKET_SIZE - 1) / AVERAGE_BUCKET_SIZE);
+        int[] bucketStart = new int[bucketCount + 1];
+        for (int entry : primary) {
+            bucketStart[bucketFor(mix(entryHashes[entry]), bucketCount) + 1]++;
+        }
+        int largest = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            largest = Math.max(largest, bucketStart[bucket + 1]);
+            bucketStart[bucket + 1] += bucketStart[bucket];
+        }
+        long[] members = new long[count];
+        int[] fill = Arrays.copyOf(bucketStart, bucketCount);
+        for (int entry : primary) {
+            long mixed = mix(entryHashes[entry]);
+            members[fill[bucketFor(mixed, bucketCount)]++] = mixed;
+        }
+
+        int[] bySize = new int[bucketCount];
+        int[] sizeStart = new int[largest + 2];
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            sizeStart[largest - (bucketStart[bucket + 1] - bucketStart[bucket]) + 1]++;
+        }
+        for (int size = 0; size <= largest; size++) {
+            sizeStart[size + 1] += sizeStart[size];
+        }
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            bySize[sizeStart[largest - (bucketStart[bucket + 1] - bucketStart[bucket])]++] = bucket;
+        }
+
+        int[] pilots = new int[bucketCount];
+        long[] taken = new long[(count + 63) >>> 6];
+        int[] positions = new int[largest];
+        for (int bucket : bySize) {
+            int from = bucketStart[bucket];
+            int length = bucketStart[bucket + 1] - from;
+            if (length == 0) {
+                break;
+            }
+            for (int pilot = 0; ; pilot++) {
+                if (pilot == MAX_PILOT) {
+                    throw new IllegalStateException("Could not find a perfect hash for the keys");
+                }
+                if (tryPlace(members, from, length, pilot, count, taken, positions)) {
+                    pilots[bucket] = pilot;
+                    break;
+                }
+            }
+        }
+        return pilots;
+    }
+
+    private static boolean tryPlace(long[] members, int from, int length, int pilot, int count, long[] taken,
+                                    int[] positions) {
+        for (int i = 0; i < length; i++) {
+            int position = position(members[from + i], pilot, count);
+            if ((taken[position >>> 6] & 1L << position) != 0) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (positions[j] == position) {
+                    return false;
+                }
+            }
+            positions[i] = position;
+        }
+        for (int i = 0; i < length; i++) {
+            taken[positions[i] >>> 6] |= 1L << positions[i];
+        }
+        return true;
+    }
+
+    // SplitMix64 finalizer: a bijection, so distinct hash codes stay distinct in all 64 bits.
+    private static long mix(int hash) {
+        long z = (hash & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int bucketFor(long mixed, int bucketCount) {
+        return (int) (((mixed >>> 32) * bucketCount) >>> 32);
+    }
+
+    private static int position(long mixed, int pilot, int count) {
+        long x = mixed ^ (pilot + 1) * 0xC2B2AE3D27D4EB4FL;
+        x = (x ^ (x >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return (int) (((x >>> 32) * count) >>> 32);
+    }
+
+    private int slotFor(int hash) {
+        long mixed = mix(hash);
+        return position(mixed, pilots[bucketFor(mixed, pilots.length)], primaryCount);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (primaryCount == 0) {
+            return null;
+        }
+        int hash = hasher.hash(key);
+        int slot = slotFor(hash);
+        if (hashes[slot] != hash) {
+            return null;
+        }
+        if (keys[slot].equals(key)) {
+            return (V) values[slot];
+        }
+        return primaryCount == keys.length ? null : findOverflow(hash, key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V findOverflow(int hash, K key) {
+        int low = primaryCount;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = hashes[middle] != hash
+                    ? Integer.compare(hashes[middle], hash)
+                    : ((K) keys[middle]).compareTo(key);
+            if (comparison == 0) {
+                return (V) values[middle];
+            }
+            if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return getValue(key) != null;
+    }
+
+    // Entries in slot order, which has nothing to do with insertion or key order.
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            action.accept((K) keys[slot], (V) values[slot]);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return keys.length;
+    }
+
+    // Keys whose hash code is shared with another key and so are not reached in one probe.
+    public int getOverflowCount() {
+        return keys.length - primaryCount;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        throw new UnsupportedOperationException("Frozen table cannot be modified");
+    }
+
+    @Override
+    public V removePair(K key) {
+        throw new UnsupportedOperationException("Frozen table cannot be modified");
+    }
+}
@@ -2,97 +2,1104 @@ package com.baroniunas.hashtable;
 
 import com.baroniunas.collections.Collections;
 import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.collections.btree.Cursor;
 import com.baroniunas.collections.linkedlist.LinkedList;
 import com.baroniunas.collections.linkedlist.Node;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-public class HashTable<K extends Comparable<K>, V> {
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+public class HashTable<K extends Comparable<K>, V> implements Table<K, V> {
     private static final int INITIAL_CAPACITY = 3;
+    private static final int INITIAL_POWER_OF_TWO_CAPACITY = 4;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
     private static final float LOAD_FACTOR = 0.65f;
     private static final int TREE_THRESHOLD = 6;
+    // Halves of a split tree bin stay trees only above this size; smaller ones go back to lists.
+    private static final int UNTREEIFY_THRESHOLD = 4;
+    private static final int MIGRATION_STEP = 16;
+    // Keys resolved together by getAll and putAll; enough independent misses to keep the memory system busy.
+    private static final int BATCH_GROUP = 16;
+    private final ResizeMode resizeMode;
+    private final CapacityMode capacityMode;
+    private final Hasher<? super K> hasher;
+    private final float loadFactor;
+    private final int treeifyThreshold;
+    private final int untreeifyThreshold;
+    private final int minTreeifyCapacity;
+    private final int treeMinDegree;
     private int arraySize;
+    private int size;
     private Collections<K, V>[] collections;
+    // Incremental resize state: buckets still waiting in the previous array, nulled once moved.
+    private Collections<K, V>[] oldCollections;
+    private int pendingBuckets;
+    private int migrationCursor;
+    private long migrationStart;
+    private HashTableListener listener = HashTableListener.NONE;
+    private int resizeCount;
+    private long totalResizeNanos;
+    private long maxResizeNanos;
+    private int treeifyCount;
+    // Null unless metrics sampling is enabled, so the unsampled hot path pays one field check.
+    private OperationSampler sampler;
+    // Null unless enabled in the builder; holds each distinct key hash in the table once.
+    private CuckooFilter filter;
+    // With the filter on: keys per hash for each tree bin, built on first write to the bin and kept up to date after.
+    private IdentityHashMap<Collections<K, V>, IntIntHashTable> treeBinHashCounts;
+    // Scratch for getAll and putAll, allocated on first use so batches allocate nothing afterwards.
+    private int[] batchIndices;
+    private int[] batchTouched;
+    // Bumped whenever entries are added, removed or moved between buckets; iterators fail fast on it.
+    int modCount;
 
 
     private static final Logger logger = LogManager.getLogger(HashTable.class);
 
-    @SuppressWarnings("unchecked")
     public HashTable() {
-        collections = new Collections[INITIAL_CAPACITY];
+        this(ResizeMode.STOP_THE_WORLD);
+    }
+
+    public HashTable(ResizeMode resizeMode) {
+        this(resizeMode, CapacityMode.MODULO, Hasher.standard());
+    }
+
+    public HashTable(ResizeMode resizeMode, CapacityMode capacityMode, Hasher<? super K> hasher) {
+        this(new Builder<K, V>().resizeMode(resizeMode).capacityMode(capacityMode).hasher(hasher));
+    }
+
+    @SuppressWarnings("unchecked")
+    private HashTable(Builder<K, V> builder) {
+        this.resizeMode = builder.resizeMode;
+        this.capacityMode = builder.capacityMode;
+        this.hasher = builder.hasher;
+        this.loadFactor = builder.loadFactor;
+        this.treeifyThreshold = builder.treeifyThreshold;
+        this.untreeifyThreshold = builder.untreeifyThreshold;
+        this.minTreeifyCapacity = builder.minTreeifyCapacity;
+        this.treeMinDegree = builder.treeMinDegree;
+        setMetricsSampleInterval(builder.metricsSampleInterval);
+        if (builder.membershipFilter) {
+            filter = new CuckooFilter(builder.expectedSize);
+            treeBinHashCounts = new IdentityHashMap<>();
+        }
+        int capacity = capacityFor(builder.expectedSize);
+        collections = new Collections[capacity];
         arraySize = 0;
-        logger.info("Hash table initialized, initial capacity: {}", INITIAL_CAPACITY);
+        logger.debug("Hash table initialized, initial capacity: {}", capacity);
+    }
+
+    public static <K extends Comparable<K>, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    // Sized so that expectedSize entries fit without a resize even if every one lands in its own bucket.
+    public static <K extends Comparable<K>, V> HashTable<K, V> withExpectedSize(int expectedSize) {
+        return new Builder<K, V>().expectedSize(expectedSize).build();
+    }
+
+    private int capacityFor(int expectedSize) {
+        int minimum = capacityMode == CapacityMode.POWER_OF_TWO ? INITIAL_POWER_OF_TWO_CAPACITY : INITIAL_CAPACITY;
+        long needed = (long) Math.ceil(expectedSize / (double) loadFactor) + 1;
+        if (needed >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        int capacity = Math.max(minimum, (int) needed);
+        if (capacityMode == CapacityMode.POWER_OF_TWO) {
+            capacity = Integer.highestOneBit(capacity - 1) << 1;
+        }
+        return capacity;
+    }
+
+    // Grows the table once so that expectedSize entries fit without further resizes.
+    public void ensureCapacity(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        int capacity = capacityFor(expectedSize);
+        if (capacity > collections.length) {
+            completePendingMigration();
+            resize(capacity);
+        }
+    }
+
+    // Shrinks the table to the smallest capacity that still holds the current entries.
+    public void trimToSize() {
+        completePendingMigration();
+        int capacity = capacityFor(size);
+        if (capacity < collections.length) {
+            resize(capacity);
+        }
+        if (filter != null) {
+            rebuildFilter(size);
+        }
+    }
+
+    void completePendingMigration() {
+        if (oldCollections != null) {
+            finishMigration();
+        }
     }
 
     @SuppressWarnings("unchecked")
     private void resize(int newCapacity) {
-        logger.info("Starting to resize table capacity to {}.", newCapacity);
+        long start = System.nanoTime();
         Collections<K, V>[] oldCollections = collections;
         collections = new Collections[newCapacity];
         arraySize = 0;
+        modCount++;
 
-        for (Collections<K, V> collection : oldCollections) {
-            if (collection != null) {
-                if (collection instanceof LinkedList) {
-                    Node<K, V> node = ((LinkedList<K, V>) collection).getHead();
-                    while (node != null) {
-                        int newIndex = hash(node.getKey(), newCapacity);
-                        if(collections[newIndex] == null) {
-                            collections[newIndex] = new LinkedList<>();
-                            arraySize++;
-                        }
-                        collections[newIndex].put(node.getKey(), node.getValue());
-                        node = node.getNext();
-                    }
-                }
+        for (int i = 0; i < oldCollections.length; i++) {
+            if (oldCollections[i] != null) {
+                transferBucket(oldCollections[i], i, oldCollections.length);
             }
         }
-        logger.info("Resizing completed.");
+        recordResize(oldCollections.length, System.nanoTime() - start);
     }
 
-    public void put(K key, V value) {
-        int index = hash(key);
+    private void recordResize(int oldCapacity, long durationNanos) {
+        resizeCount++;
+        totalResizeNanos += durationNanos;
+        maxResizeNanos = Math.max(maxResizeNanos, durationNanos);
+        listener.onResize(oldCapacity, collections.length, durationNanos);
+    }
 
-        logger.info("Adding new element to the table with key <{}> and value <{}> at index {}.", key, value, index);
+    private void transferBucket(Collections<K, V> collection, int oldIndex, int oldCapacity) {
+        if (collection instanceof LinkedList && capacityMode == CapacityMode.POWER_OF_TWO
+                && collections.length == oldCapacity * 2) {
+            // Doubling a power of two adds one index bit: entries stay at oldIndex or move up by oldCapacity.
+            LinkedList<K, V> low = (LinkedList<K, V>) collection;
+            LinkedList<K, V> high = low.splitOff(key -> (spread(hasher.hash(key)) & oldCapacity) != 0);
+            placeBucket(oldIndex, low);
+            placeBucket(oldIndex + oldCapacity, high);
+        } else if (collection instanceof LinkedList) {
+            Node<K, V> node = ((LinkedList<K, V>) collection).getHead();
+            while (node != null) {
+                moveEntry(node.getKey(), node.getValue(), treeifyThreshold);
+                node = node.getNext();
+            }
+        } else if (collections.length == oldCapacity * 2) {
+            forgetTreeBin(collection);
+            splitTreeBin((BTree<K, V>) collection, oldIndex, oldCapacity);
+        } else {
+            forgetTreeBin(collection);
+            ((BTree<K, V>) collection).forEach((key, value) -> moveEntry(key, value, untreeifyThreshold + 1));
+        }
+    }
 
-        if (collections[index] == null) {
-            logger.info("No collection found at index {}. Initializing new LinkedList.", index);
-            collections[index] = new LinkedList<>();
+    /**
+     * Doubling either capacity mode sends each key of a bin to oldIndex or oldIndex + oldCapacity.
+     * One in-order walk fills the low half from the front of the arrays and the high half from the
+     * back, so both come out sorted (the high half reversed) and are bulk-built without a single
+     * comparison-driven insert. A half no larger than the untreeify threshold becomes a chain.
+     */
+    @SuppressWarnings("unchecked")
+    private void splitTreeBin(BTree<K, V> tree, int oldIndex, int oldCapacity) {
+        int count = tree.getSize();
+        K[] keys = (K[]) new Comparable[count];
+        V[] values = (V[]) new Object[count];
+        int low = 0;
+        int high = count;
+        Cursor<K, V> cursor = tree.cursor();
+        while (cursor.next()) {
+            if (hash(cursor.getKey()) == oldIndex) {
+                keys[low] = cursor.getKey();
+                values[low++] = cursor.getValue();
+            } else {
+                keys[--high] = cursor.getKey();
+                values[high] = cursor.getValue();
+            }
+        }
+        for (int i = high, j = count - 1; i < j; i++, j--) {
+            K key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            V value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        placeHalf(oldIndex, keys, values, low);
+        placeHalf(oldIndex + oldCapacity, Arrays.copyOfRange(keys, high, count),
+                Arrays.copyOfRange(values, high, count), count - high);
+    }
+
+    private void placeHalf(int index, K[] keys, V[] values, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (count > untreeifyThreshold && collections.length >= minTreeifyCapacity) {
+            collections[index] = new BTree<>(treeMinDegree, keys, values, count);
+        } else {
+            LinkedList<K, V> list = new LinkedList<>();
+            for (int i = count - 1; i >= 0; i--) {
+                list.addFirst(keys[i], values[i]);
+            }
+            collections[index] = list;
+        }
+        arraySize++;
+    }
+
+    // Keys are unique across the table, so a moved entry can be added to its new bucket without a lookup.
+    private void moveEntry(K key, V value, int treeifyAt) {
+        int index = hash(key);
+        Collections<K, V> bucket = collections[index];
+        if (bucket == null) {
+            bucket = new LinkedList<>();
+            collections[index] = bucket;
             arraySize++;
-            logger.info("Collection array size is now {}.", arraySize);
         }
+        if (bucket instanceof LinkedList) {
+            ((LinkedList<K, V>) bucket).addFirst(key, value);
+            if (bucket.getSize() >= treeifyAt && collections.length >= minTreeifyCapacity) {
+                transformToBTree(index);
+            }
+        } else {
+            bucket.put(key, value);
+            forgetTreeBin(bucket);
+        }
+    }
 
-        Collections<K, V> collection = collections[index];
+    private void placeBucket(int index, LinkedList<K, V> bucket) {
+        if (bucket.getSize() > 0) {
+            collections[index] = bucket;
+            arraySize++;
+        }
+    }
 
-        if ( arraySize >= collections.length * LOAD_FACTOR) {
+    private void grow() {
+        if (collections.length == MAXIMUM_CAPACITY) {
+            return;
+        }
+        if (resizeMode == ResizeMode.STOP_THE_WORLD) {
             resize(collections.length * 2);
+        } else {
+            startMigration(collections.length * 2);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void startMigration(int newCapacity) {
+        if (oldCollections != null) {
+            finishMigration();
+        }
+        migrationStart = System.nanoTime();
+        oldCollections = collections;
+        pendingBuckets = arraySize;
+        migrationCursor = 0;
+        collections = new Collections[newCapacity];
+        arraySize = 0;
+        modCount++;
+    }
+
+    private void migrateBucket(int oldIndex) {
+        Collections<K, V> collection = oldCollections[oldIndex];
+        if (collection != null) {
+            oldCollections[oldIndex] = null;
+            pendingBuckets--;
+            modCount++;
+            transferBucket(collection, oldIndex, oldCollections.length);
+        }
+    }
+
+    // Moves the bucket the key lives in plus up to MIGRATION_STEP more, so the key is only in the new array.
+    private void migrate(K key) {
+        migrateBucket(hash(key, oldCollections.length));
+        int end = Math.min(migrationCursor + MIGRATION_STEP, oldCollections.length);
+        while (migrationCursor < end) {
+            migrateBucket(migrationCursor++);
+        }
+        if (migrationCursor == oldCollections.length) {
+            completeMigration();
+        }
+    }
+
+    private void finishMigration() {
+        while (migrationCursor < oldCollections.length) {
+            migrateBucket(migrationCursor++);
         }
+        completeMigration();
+    }
+
+    private void completeMigration() {
+        int oldCapacity = oldCollections.length;
+        oldCollections = null;
+        pendingBuckets = 0;
+        recordResize(oldCapacity, System.nanoTime() - migrationStart);
+    }
 
+    @Override
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        if (sampler != null && sampler.sample()) {
+            long start = System.nanoTime();
+            putEntry(key, value);
+            sampler.putLatency.record(System.nanoTime() - start);
+        } else {
+            putEntry(key, value);
+        }
+    }
+
+    private void putEntry(K key, V value) {
+        int index = locate(key, true);
+        Collections<K, V> collection = collections[index];
+        int sizeBefore = collection.getSize();
         collection.put(key, value);
+        afterUpdate(key, index, collection, sizeBefore);
+    }
+
+    // Returns the existing value, or null after inserting value.
+    public V putIfAbsent(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        int index = locate(key, true);
+        Collections<K, V> collection = collections[index];
+        int sizeBefore = collection.getSize();
+        V existing = collection.putIfAbsent(key, value);
+        afterUpdate(key, index, collection, sizeBefore);
+        return existing;
+    }
+
+    // Returns the replaced value, or null if the key was absent and nothing changed.
+    public V replace(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        int index = locate(key, false);
+        Collections<K, V> collection = collections[index];
+        return collection == null ? null : collection.replace(key, value);
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (mappingFunction == null) {
+            throw new IllegalArgumentException("Function cannot be null");
+        }
+        int index = locate(key, false);
+        Collections<K, V> collection = collections[index];
+        if (collection == null) {
+            // No bucket yet: run the function first, so a throw leaves the table as it was.
+            int expectedModCount = modCount;
+            V value = mappingFunction.apply(key);
+            if (value != null) {
+                insertIntoEmpty(index, key, value, expectedModCount);
+            }
+            return value;
+        }
+        int sizeBefore = collection.getSize();
+        V value = collection.computeIfAbsent(key, mappingFunction);
+        afterUpdate(key, index, collection, sizeBefore);
+        return value;
+    }
+
+    // Replaces the value of a present key with the function's result, or removes the key if it returns null.
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (remappingFunction == null) {
+            throw new IllegalArgumentException("Function cannot be null");
+        }
+        int index = locate(key, false);
+        Collections<K, V> collection = collections[index];
+        if (collection == null) {
+            return null;
+        }
+        int sizeBefore = collection.getSize();
+        V value = collection.computeIfPresent(key, remappingFunction);
+        afterUpdate(key, index, collection, sizeBefore);
+        return value;
+    }
+
+    // The function sees null for an absent key; a null result removes the key or leaves it absent.
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (remappingFunction == null) {
+            throw new IllegalArgumentException("Function cannot be null");
+        }
+        int index = locate(key, false);
+        Collections<K, V> collection = collections[index];
+        if (collection == null) {
+            int expectedModCount = modCount;
+            V value = remappingFunction.apply(key, null);
+            if (value != null) {
+                insertIntoEmpty(index, key, value, expectedModCount);
+            }
+            return value;
+        }
+        int sizeBefore = collection.getSize();
+        V value = collection.compute(key, remappingFunction);
+        afterUpdate(key, index, collection, sizeBefore);
+        return value;
+    }
+
+    // Stores value for an absent key, otherwise combines it with the current one; a null result removes the key.
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        if (remappingFunction == null) {
+            throw new IllegalArgumentException("Function cannot be null");
+        }
+        int index = locate(key, true);
+        Collections<K, V> collection = collections[index];
+        int sizeBefore = collection.getSize();
+        V merged;
+        try {
+            merged = collection.merge(key, value, remappingFunction);
+        } catch (Throwable e) {
+            discardIfEmpty(index, collection);
+            throw e;
+        }
+        afterUpdate(key, index, collection, sizeBefore);
+        return merged;
+    }
+
+    // Stores a new key in the empty bucket locate found for it, then grows if that bucket reached the
+    // load factor. A function that changed the table in between may have moved the slot, so then it starts over.
+    private void insertIntoEmpty(int index, K key, V value, int expectedModCount) {
+        if (modCount != expectedModCount) {
+            putEntry(key, value);
+            return;
+        }
+        LinkedList<K, V> bucket = new LinkedList<>();
+        collections[index] = bucket;
+        arraySize++;
+        bucket.put(key, value);
+        afterUpdate(key, index, bucket, 0);
+        if (arraySize >= collections.length * loadFactor && collections.length < MAXIMUM_CAPACITY) {
+            grow();
+        }
+    }
 
-        if (collection instanceof LinkedList && collection.getSize() == TREE_THRESHOLD) {
-            transformToBTree(index);
+    // Hashes the key once and returns its bucket index. With create, an empty bucket is added, growing the table first if due.
+    private int locate(K key, boolean create) {
+        if (oldCollections != null) {
+            migrate(key);
+        }
+        int index = hash(key);
+        if (!create) {
+            return index;
+        }
+
+        if (collections[index] == null) {
+            collections[index] = new LinkedList<>();
+            arraySize++;
+        }
+
+        if ( arraySize >= collections.length * loadFactor && collections.length < MAXIMUM_CAPACITY) {
+            grow();
+            if (oldCollections != null) {
+                migrate(key);
+            }
+            index = hash(key);
+            if (collections[index] == null) {
+                collections[index] = new LinkedList<>();
+                arraySize++;
+            }
+        }
+        return index;
+    }
+
+    // Drops the bucket locate created after growing, when the user's function then throws before anything is stored.
+    private void discardIfEmpty(int index, Collections<K, V> collection) {
+        if (collection.getSize() == 0 && collections[index] == collection) {
+            collections[index] = null;
+            arraySize--;
+        }
+    }
+
+    // Bookkeeping after a bin operation: size, modCount, dropping emptied buckets and treeifying long chains.
+    private void afterUpdate(K key, int index, Collections<K, V> collection, int sizeBefore) {
+        int sizeAfter = collection.getSize();
+        if (sizeAfter != sizeBefore) {
+            size += sizeAfter - sizeBefore;
+            modCount++;
+            if (filter != null) {
+                updateFilter(key, sizeAfter > sizeBefore, collection);
+            }
+        }
+        if (sizeAfter == 0) {
+            forgetTreeBin(collection);
+            collections[index] = null;
+            arraySize--;
+        } else if (collection instanceof LinkedList && sizeAfter >= treeifyThreshold) {
+            // Below minTreeifyCapacity a long chain means the table is too small, not that the keys collide.
+            if (collections.length < minTreeifyCapacity && oldCollections == null) {
+                grow();
+            } else {
+                transformToBTree(index);
+            }
         }
     }
 
+    @SuppressWarnings("unchecked")
     private void transformToBTree(int index) {
-        logger.info("Transforming to btree index {}.", index);
         LinkedList<K, V> linkedList = (LinkedList<K, V>) collections[index];
-        BTree<K, V> bTree = new BTree<>();
+        int count = linkedList.getSize();
+        K[] keys = (K[]) new Comparable[count];
+        V[] values = (V[]) new Object[count];
 
-        Node<K, V> node = linkedList.getHead();
-        while (node != null) {
-            bTree.put(node.getKey(), node.getValue());
-            node = node.getNext();
+        // Insertion sort: chains are about treeifyThreshold long when they convert.
+        int sorted = 0;
+        for (Node<K, V> node = linkedList.getHead(); node != null; node = node.getNext()) {
+            int position = sorted++;
+            while (position > 0 && keys[position - 1].compareTo(node.getKey()) > 0) {
+                keys[position] = keys[position - 1];
+                values[position] = values[position - 1];
+                position--;
+            }
+            keys[position] = node.getKey();
+            values[position] = node.getValue();
         }
+        BTree<K, V> bTree = new BTree<>(treeMinDegree, keys, values, count);
 
         collections[index] = bTree;
-        logger.info("Transformation successful.");
+        treeifyCount++;
+        listener.onTreeify(index, bTree.getSize());
+    }
+
+    // Snapshot loading: gives an empty table the capacity the snapshot was written with.
+    @SuppressWarnings("unchecked")
+    void restoreCapacity(int capacity) {
+        if (size == 0 && oldCollections == null && capacity != collections.length) {
+            collections = new Collections[capacity];
+            arraySize = 0;
+            modCount++;
+        }
+    }
+
+    // Snapshot loading: adds an entry known to be new straight to its bucket, without growing the table.
+    void restoreEntry(int index, K key, V value) {
+        Collections<K, V> bucket = collections[index];
+        if (bucket == null) {
+            bucket = new LinkedList<>();
+            collections[index] = bucket;
+            arraySize++;
+        }
+        ((LinkedList<K, V>) bucket).addFirst(key, value);
+        size++;
+        modCount++;
+        if (filter != null) {
+            updateFilter(key, true, bucket);
+        }
+    }
+
+    // Snapshot loading: installs a tree bin bulk-built from keys already in sorted order.
+    void restoreTree(int index, K[] keys, V[] values, int count) {
+        collections[index] = new BTree<>(treeMinDegree, keys, values, count);
+        arraySize++;
+        size += count;
+        modCount++;
+        if (filter != null && !addDistinctHashes(collections[index], filter)) {
+            rebuildFilter(size);
+        }
+    }
+
+    /**
+     * Adds or removes the key's hash in the membership filter after the key was inserted into or
+     * removed from bucket. Keys with equal hashes always share a bucket, and the filter counts a
+     * hash only once, so it changes only when no other key in the bucket has the same hash. That
+     * keeps a tree bin of keys with one hash code from overflowing a filter bucket.
+     */
+    private void updateFilter(K key, boolean added, Collections<K, V> bucket) {
+        int hash = hasher.hash(key);
+        if (sharesHash(bucket, key, hash, added)) {
+            return;
+        }
+        if (!added) {
+            filter.remove(hash);
+        } else if (!filter.add(hash)) {
+            // Half again the current entries doubles the bucket array once the filter is at its maximum load.
+            rebuildFilter(size + size / 2);
+        }
+    }
+
+    // Whether another key in the bucket has this hash, once the key was added or removed. Chains are
+    // scanned; tree bins can be large, so they keep a count per hash and answer in constant time.
+    private boolean sharesHash(Collections<K, V> bucket, K key, int hash, boolean added) {
+        if (bucket instanceof LinkedList) {
+            for (Node<K, V> node = ((LinkedList<K, V>) bucket).getHead(); node != null; node = node.getNext()) {
+                if (hasher.hash(node.getKey()) == hash && !node.getKey().equals(key)) {
+                    return true;
+                }
+            }
+        } else if (bucket != null) {
+            IntIntHashTable counts = treeBinHashCounts.get(bucket);
+            if (counts == null) {
+                // Built from the bin as it is now, so it already reflects this change.
+                counts = countHashes((BTree<K, V>) bucket);
+                treeBinHashCounts.put(bucket, counts);
+            } else {
+                counts.put(hash, counts.getValue(hash) + (added ? 1 : -1));
+            }
+            int remaining = counts.getValue(hash);
+            if (remaining == 0) {
+                counts.removePair(hash);
+            }
+            return added ? remaining > 1 : remaining > 0;
+        }
+        return false;
+    }
+
+    private IntIntHashTable countHashes(BTree<K, V> tree) {
+        IntIntHashTable counts = new IntIntHashTable(tree.getSize(), 0);
+        Cursor<K, V> cursor = tree.cursor();
+        while (cursor.next()) {
+            int hash = hasher.hash(cursor.getKey());
+            counts.put(hash, counts.getValue(hash) + 1);
+        }
+        return counts;
+    }
+
+    // Drops the hash counts of a tree bin that is leaving the table or was changed without updateFilter.
+    private void forgetTreeBin(Collections<K, V> bucket) {
+        if (treeBinHashCounts != null && bucket instanceof BTree) {
+            treeBinHashCounts.remove(bucket);
+        }
+    }
+
+    // Replaces the filter with one sized for expectedEntries, doubling until every hash fits.
+    private void rebuildFilter(int expectedEntries) {
+        while (true) {
+            CuckooFilter rebuilt = new CuckooFilter(expectedEntries);
+            boolean complete = true;
+            for (int index = 0; index < getBucketCount() && complete; index++) {
+                complete = addDistinctHashes(getBucket(index), rebuilt);
+            }
+            if (complete) {
+                filter = rebuilt;
+                return;
+            }
+            expectedEntries = Math.max(expectedEntries, 1) * 2;
+        }
+    }
+
+    private boolean addDistinctHashes(Collections<K, V> bucket, CuckooFilter target) {
+        if (bucket instanceof LinkedList) {
+            Node<K, V> head = ((LinkedList<K, V>) bucket).getHead();
+            for (Node<K, V> node = head; node != null; node = node.getNext()) {
+                int hash = hasher.hash(node.getKey());
+                boolean seen = false;
+                for (Node<K, V> earlier = head; earlier != node && !seen; earlier = earlier.getNext()) {
+                    seen = hasher.hash(earlier.getKey()) == hash;
+                }
+                if (!seen && !target.add(hash)) {
+                    return false;
+                }
+            }
+        } else if (bucket != null) {
+            int[] hashes = new int[bucket.getSize()];
+            int count = 0;
+            Cursor<K, V> cursor = ((BTree<K, V>) bucket).cursor();
+            while (cursor.next()) {
+                hashes[count++] = hasher.hash(cursor.getKey());
+            }
+            Arrays.sort(hashes);
+            for (int i = 0; i < count; i++) {
+                if ((i == 0 || hashes[i] != hashes[i - 1]) && !target.add(hashes[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Sizes the table once for the incoming entries, so none of the puts below triggers a resize.
+    public void putAll(Map<? extends K, ? extends V> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Map cannot be null");
+        }
+        ensureCapacity(size + map.size());
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
     }
 
+    public void putAll(HashTable<? extends K, ? extends V> table) {
+        if (table == null) {
+            throw new IllegalArgumentException("Table cannot be null");
+        }
+        ensureCapacity(size + table.getSize());
+        table.forEach(this::put);
+    }
+
+    public void putAll(Iterable<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        if (entries == null) {
+            throw new IllegalArgumentException("Entries cannot be null");
+        }
+        if (entries instanceof Collection) {
+            ensureCapacity(size + ((Collection<?>) entries).size());
+        }
+        for (Map.Entry<? extends K, ? extends V> entry : entries) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Looks up every key and stores its value, or null, at the same position in out. Keys are
+     * handled in groups: all hashes first, then all bucket slots, then all bucket heads, then the
+     * key comparisons, so each pass issues independent loads whose cache misses overlap instead of
+     * waiting for one another. Returns the number of keys found. Unlike getValue this writes to
+     * scratch arrays owned by the table, so it must not run concurrently with other reads.
+     */
+    public int getAll(K[] keys, V[] out) {
+        if (keys == null || out == null) {
+            throw new IllegalArgumentException("Arrays cannot be null");
+        }
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output array is shorter than the keys");
+        }
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("Key cannot be null");
+            }
+        }
+        if (oldCollections != null) {
+            // Keys may be in either array until the migration finishes, so take the single-key path.
+            int found = 0;
+            for (int i = 0; i < keys.length; i++) {
+                out[i] = findValue(keys[i]);
+                found += out[i] != null ? 1 : 0;
+            }
+            return found;
+        }
+        int[] indices = batchIndices();
+        int found = 0;
+        for (int start = 0; start < keys.length; start += BATCH_GROUP) {
+            int count = Math.min(BATCH_GROUP, keys.length - start);
+            for (int i = 0; i < count; i++) {
+                K key = keys[start + i];
+                indices[i] = filter != null && !filter.mightContain(hasher.hash(key)) ? -1 : hash(key);
+            }
+            touchBuckets(indices, count);
+            for (int i = 0; i < count; i++) {
+                Collections<K, V> collection = indices[i] < 0 ? null : collections[indices[i]];
+                V value = collection == null ? null : collection.getValue(keys[start + i]);
+                out[start + i] = value;
+                found += value != null ? 1 : 0;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads the bucket, head node and head key behind each index, one level at a time across the
+     * group, so the misses at each level are in flight together. The results go to an int array:
+     * storing references would cost a GC write barrier per slot and give back most of the gain.
+     */
+    private void touchBuckets(int[] indices, int count) {
+        int[] touched = batchTouched;
+        for (int i = 0; i < count; i++) {
+            Collections<K, V> bucket = indices[i] < 0 ? null : collections[indices[i]];
+            touched[i] = bucket == null ? 0 : bucket.getSize();
+        }
+        for (int i = 0; i < count; i++) {
+            if (touched[i] != 0 && collections[indices[i]] instanceof LinkedList) {
+                Node<K, V> head = ((LinkedList<K, V>) collections[indices[i]]).getHead();
+                touched[i] = head.getKey().hashCode();
+            }
+        }
+    }
+
+    /**
+     * Puts keys[i] to values[i] for every i. The table is sized for all of them up front, and each
+     * group's bucket slots and heads are read in one pass before any insert, so the inserts find
+     * their cache lines already loaded. A null key or value is rejected before anything is stored.
+     */
+    public void putAll(K[] keys, V[] values) {
+        if (keys == null || values == null) {
+            throw new IllegalArgumentException("Arrays cannot be null");
+        }
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length");
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null || values[i] == null) {
+                throw new IllegalArgumentException("Key or value cannot be null");
+            }
+        }
+        // Some keys may already be present, so like HashMap this sizes for the batch alone. Incremental
+        // tables grow as usual instead, so a large batch never pays for one stop-the-world resize.
+        if (resizeMode == ResizeMode.STOP_THE_WORLD) {
+            ensureCapacity(keys.length);
+        }
+        int[] indices = batchIndices();
+        for (int start = 0; start < keys.length; start += BATCH_GROUP) {
+            int count = Math.min(BATCH_GROUP, keys.length - start);
+            if (oldCollections == null) {
+                for (int i = 0; i < count; i++) {
+                    indices[i] = hash(keys[start + i]);
+                }
+                touchBuckets(indices, count);
+            }
+            for (int i = 0; i < count; i++) {
+                putEntry(keys[start + i], values[start + i]);
+            }
+        }
+    }
+
+    private int[] batchIndices() {
+        if (batchIndices == null) {
+            batchIndices = new int[BATCH_GROUP];
+            batchTouched = new int[BATCH_GROUP];
+        }
+        return batchIndices;
+    }
+
+    /**
+     * Copies the entries into an immutable {@link FrozenHashTable} that answers every lookup with
+     * one probe and can be read from any number of threads. This table is left unchanged.
+     */
+    public FrozenHashTable<K, V> freeze() {
+        Object[] keys = new Object[size];
+        Object[] values = new Object[size];
+        int[] count = new int[1];
+        forEach((key, value) -> {
+            keys[count[0]] = key;
+            values[count[0]] = value;
+            count[0]++;
+        });
+        return new FrozenHashTable<K, V>(hasher, keys, values, size);
+    }
+
+    // Visits every entry, including ones still waiting in the old array during an incremental resize.
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (oldCollections != null) {
+            forEachIn(oldCollections, action);
+        }
+        forEachIn(collections, action);
+    }
+
+    private void forEachIn(Collections<K, V>[] buckets, BiConsumer<? super K, ? super V> action) {
+        for (Collections<K, V> bucket : buckets) {
+            if (bucket instanceof LinkedList) {
+                ((LinkedList<K, V>) bucket).forEach(action);
+            } else if (bucket != null) {
+                ((BTree<K, V>) bucket).forEach(action);
+            }
+        }
+    }
+
+    // Visits entries on the common pool once the table holds at least parallelismThreshold of them.
+    public void forEach(long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        StreamSupport.stream(new BucketSpliterator<>(this, AbstractMap.SimpleImmutableEntry<K, V>::new),
+                        size >= parallelismThreshold)
+                .forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+    }
+
+    // Like ConcurrentHashMap.reduce: null transformer results are skipped, and an empty result is null.
+    public <U> U reduce(long parallelismThreshold,
+                        BiFunction<? super K, ? super V, ? extends U> transformer,
+                        BiFunction<? super U, ? super U, ? extends U> reducer) {
+        if (transformer == null || reducer == null) {
+            throw new IllegalArgumentException("Function cannot be null");
+        }
+        return StreamSupport.stream(new BucketSpliterator<K, V, U>(this, transformer), size >= parallelismThreshold)
+                .filter(Objects::nonNull)
+                .reduce((left, right) -> reducer.apply(left, right))
+                .orElse(null);
+    }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return Spliterators.iterator(spliterator());
+            }
+
+            @Override
+            public Spliterator<Map.Entry<K, V>> spliterator() {
+                return new BucketSpliterator<>(HashTable.this, AbstractMap.SimpleImmutableEntry<K, V>::new);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry)) {
+                    return false;
+                }
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                V value = lookup(entry.getKey());
+                return value != null && value.equals(entry.getValue());
+            }
+        };
+    }
+
+    public Set<K> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<K> iterator() {
+                return Spliterators.iterator(spliterator());
+            }
+
+            @Override
+            public Spliterator<K> spliterator() {
+                return new BucketSpliterator<>(HashTable.this, (key, value) -> key);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return lookup(o) != null;
+            }
+        };
+    }
+
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return Spliterators.iterator(spliterator());
+            }
+
+            @Override
+            public Spliterator<V> spliterator() {
+                return new BucketSpliterator<>(HashTable.this, (key, value) -> value);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // getValue for keys of unknown type: a key that cannot be compared to ours is simply absent.
+    @SuppressWarnings("unchecked")
+    private V lookup(Object key) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return getValue((K) key);
+        } catch (ClassCastException e) {
+            return null;
+        }
+    }
+
+    // Buckets of the old array during an incremental resize come first, then the current array.
+    int getBucketCount() {
+        return (oldCollections == null ? 0 : oldCollections.length) + collections.length;
+    }
+
+    Collections<K, V> getBucket(int index) {
+        if (oldCollections != null) {
+            if (index < oldCollections.length) {
+                return oldCollections[index];
+            }
+            index -= oldCollections.length;
+        }
+        return collections[index];
+    }
+
+    @Override
     public V getValue(K key) {
-        int index = hash(key);
-        return collections[index].getValue(key);
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (sampler != null && sampler.sample()) {
+            long start = System.nanoTime();
+            V value = findValue(key);
+            sampler.getLatency.record(System.nanoTime() - start);
+            sampleProbe(key);
+            return value;
+        }
+        return findValue(key);
+    }
+
+    private V findValue(K key) {
+        if (filter != null && !filter.mightContain(hasher.hash(key))) {
+            return null;
+        }
+        Collections<K, V>[] pending = oldCollections;
+        if (pending != null) {
+            Collections<K, V> collection = pending[hash(key, pending.length)];
+            if (collection != null) {
+                return collection.getValue(key);
+            }
+        }
+        Collections<K, V> collection = collections[hash(key)];
+        return collection == null ? null : collection.getValue(key);
+    }
+
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (filter != null && !filter.mightContain(hasher.hash(key))) {
+            return false;
+        }
+        Collections<K, V>[] pending = oldCollections;
+        if (pending != null) {
+            Collections<K, V> collection = pending[hash(key, pending.length)];
+            if (collection != null) {
+                return collection.containsKey(key);
+            }
+        }
+        Collections<K, V> collection = collections[hash(key)];
+        return collection != null && collection.containsKey(key);
+    }
+
+    // Repeats the lookup findValue just made, counting bucket arrays read and keys compared.
+    private void sampleProbe(K key) {
+        int buckets = 1;
+        Collections<K, V> collection = null;
+        Collections<K, V>[] pending = oldCollections;
+        if (pending != null) {
+            collection = pending[hash(key, pending.length)];
+            if (collection == null) {
+                buckets++;
+            }
+        }
+        if (collection == null) {
+            collection = collections[hash(key)];
+        }
+        int comparisons = 0;
+        if (collection instanceof LinkedList) {
+            for (Node<K, V> node = ((LinkedList<K, V>) collection).getHead(); node != null; node = node.getNext()) {
+                comparisons++;
+                if (node.getKey().equals(key)) {
+                    break;
+                }
+            }
+        } else if (collection != null) {
+            comparisons = ((BTree<K, V>) collection).lookupComparisons(key);
+        }
+        sampler.recordProbe(buckets, comparisons);
     }
 
     public Collections<K, V> getCollectionAtIndex(int index) {
@@ -102,16 +1109,39 @@ public class HashTable<K extends Comparable<K>, V> {
         return collections[index];
     }
 
+    @Override
     public V removePair(K key) {
-        int index = hash(key);
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (sampler != null && sampler.sample()) {
+            long start = System.nanoTime();
+            V value = removeEntry(key);
+            sampler.removeLatency.record(System.nanoTime() - start);
+            return value;
+        }
+        return removeEntry(key);
+    }
+
+    private V removeEntry(K key) {
+        int index = locate(key, false);
 
         if (collections[index] == null)
             return null;
 
-        V value = collections[index].remove(key);
-        if (value != null && collections[index].getSize() == 0) {
-            collections[index] = null;
-            arraySize--;
+        Collections<K, V> collection = collections[index];
+        V value = collection.remove(key);
+        if (value != null) {
+            size--;
+            modCount++;
+            if (filter != null) {
+                updateFilter(key, false, collection);
+            }
+            if (collection.getSize() == 0) {
+                forgetTreeBin(collection);
+                collections[index] = null;
+                arraySize--;
+            }
         }
 
         return value;
@@ -138,15 +1168,31 @@ public class HashTable<K extends Comparable<K>, V> {
     }*/
 
     public int hash(K key) {
-        return (key == null) ? 0 : Math.abs(key.hashCode() % collections.length);
+        return (key == null) ? 0 : indexFor(key, collections.length);
     }
 
     private int hash(K key, int capacity) {
-        return (key == null) ? 0 : Math.abs(key.hashCode() % capacity);
+        return (key == null) ? 0 : indexFor(key, capacity);
+    }
+
+    private int indexFor(K key, int capacity) {
+        int h = hasher.hash(key);
+        return capacityMode == CapacityMode.POWER_OF_TWO ? spread(h) & (capacity - 1) : Math.abs(h % capacity);
+    }
+
+    // Fibonacci multiply then fold the high half down, so keys differing only in high bits still spread.
+    static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
     }
 
     public int getArraySize() {
-        return arraySize;
+        return arraySize + pendingBuckets;
     }
 
     public Collections<K, V>[] getDataStructure() {
@@ -155,4 +1201,199 @@ public class HashTable<K extends Comparable<K>, V> {
 
     public int getCurrentCapacity() { return collections.length;}
 
+    public CapacityMode getCapacityMode() {
+        return capacityMode;
+    }
+
+    public ResizeMode getResizeMode() {
+        return resizeMode;
+    }
+
+    public boolean isResizing() {
+        return oldCollections != null;
+    }
+
+    public int getResizeCount() {
+        return resizeCount;
+    }
+
+    public int getTreeifyCount() {
+        return treeifyCount;
+    }
+
+    public float getLoadFactor() {
+        return loadFactor;
+    }
+
+    /**
+     * Samples one in every sampleInterval calls to getValue, put and removePair for latency and
+     * probe metrics; 0 turns sampling off. Changing the interval discards samples taken so far.
+     */
+    public void setMetricsSampleInterval(int sampleInterval) {
+        if (sampleInterval < 0) {
+            throw new IllegalArgumentException("Sample interval cannot be negative");
+        }
+        sampler = sampleInterval == 0 ? null : new OperationSampler(sampleInterval);
+    }
+
+    // Walks the bucket array once, reading only bucket sizes, so it is safe to call from a monitoring thread.
+    public TableMetrics getMetrics() {
+        long[] histogram = new long[TableMetrics.MAX_TRACKED_BUCKET_LENGTH + 1];
+        int occupied = 0;
+        int treeBins = 0;
+        int maxLength = 0;
+        int emptyBuckets = 0;
+        Collections<K, V>[] pending = oldCollections;
+        Collections<K, V>[] current = collections;
+        int offset = pending == null ? 0 : pending.length;
+        for (int index = 0; index < offset + current.length; index++) {
+            Collections<K, V> bucket = index < offset ? pending[index] : current[index - offset];
+            if (bucket == null) {
+                // Slots of the old array emptied by migration are not part of the table any more.
+                emptyBuckets += index < offset ? 0 : 1;
+                continue;
+            }
+            int length = bucket.getSize();
+            occupied++;
+            histogram[Math.min(length, TableMetrics.MAX_TRACKED_BUCKET_LENGTH)]++;
+            maxLength = Math.max(maxLength, length);
+            if (bucket instanceof BTree) {
+                treeBins++;
+            }
+        }
+        histogram[0] = emptyBuckets;
+        return new TableMetrics(size, current.length, occupied, histogram, treeBins, maxLength, resizeCount,
+                totalResizeNanos, maxResizeNanos, treeifyCount, sampler);
+    }
+
+    public boolean hasMembershipFilter() {
+        return filter != null;
+    }
+
+    // Heap used by the membership filter's bucket array, or 0 without a filter.
+    public long getMembershipFilterBytes() {
+        return filter == null ? 0 : filter.getBytes();
+    }
+
+    public HashTableMXBean asMXBean() {
+        return new HashTableMetricsBean(this);
+    }
+
+    public void setListener(HashTableListener listener) {
+        this.listener = listener == null ? HashTableListener.NONE : listener;
+    }
+
+    public static class Builder<K extends Comparable<K>, V> {
+        private ResizeMode resizeMode = ResizeMode.STOP_THE_WORLD;
+        private CapacityMode capacityMode = CapacityMode.MODULO;
+        private Hasher<? super K> hasher = Hasher.standard();
+        private int expectedSize;
+        private float loadFactor = LOAD_FACTOR;
+        private int treeifyThreshold = TREE_THRESHOLD;
+        private int untreeifyThreshold = UNTREEIFY_THRESHOLD;
+        private int minTreeifyCapacity;
+        private int treeMinDegree = BTree.DEFAULT_MIN_DEGREE;
+        private int metricsSampleInterval;
+        private boolean membershipFilter;
+
+        public Builder<K, V> resizeMode(ResizeMode resizeMode) {
+            if (resizeMode == null) {
+                throw new IllegalArgumentException("Resize mode cannot be null");
+            }
+            this.resizeMode = resizeMode;
+            return this;
+        }
+
+        public Builder<K, V> capacityMode(CapacityMode capacityMode) {
+            if (capacityMode == null) {
+                throw new IllegalArgumentException("Capacity mode cannot be null");
+            }
+            this.capacityMode = capacityMode;
+            return this;
+        }
+
+        public Builder<K, V> hasher(Hasher<? super K> hasher) {
+            if (hasher == null) {
+                throw new IllegalArgumentException("Hasher cannot be null");
+            }
+            this.hasher = hasher;
+            return this;
+        }
+
+        public Builder<K, V> expectedSize(int expectedSize) {
+            if (expectedSize < 0) {
+                throw new IllegalArgumentException("Expected size cannot be negative");
+            }
+            this.expectedSize = expectedSize;
+            return this;
+        }
+
+        // Fraction of occupied buckets that triggers a resize.
+        public Builder<K, V> loadFactor(float loadFactor) {
+            if (!(loadFactor > 0 && loadFactor <= 1)) {
+                throw new IllegalArgumentException("Load factor must be in (0, 1]");
+            }
+            this.loadFactor = loadFactor;
+            return this;
+        }
+
+        public Builder<K, V> treeifyThreshold(int treeifyThreshold) {
+            if (treeifyThreshold < 2) {
+                throw new IllegalArgumentException("Treeify threshold must be at least 2");
+            }
+            this.treeifyThreshold = treeifyThreshold;
+            return this;
+        }
+
+        public Builder<K, V> untreeifyThreshold(int untreeifyThreshold) {
+            if (untreeifyThreshold < 0) {
+                throw new IllegalArgumentException("Untreeify threshold cannot be negative");
+            }
+            this.untreeifyThreshold = untreeifyThreshold;
+            return this;
+        }
+
+        public Builder<K, V> minTreeifyCapacity(int minTreeifyCapacity) {
+            if (minTreeifyCapacity < 0) {
+                throw new IllegalArgumentException("Minimum treeify capacity cannot be negative");
+            }
+            this.minTreeifyCapacity = minTreeifyCapacity;
+            return this;
+        }
+
+        // Wider tree nodes trade memory in small bins for fewer node hops in large ones.
+        public Builder<K, V> treeMinDegree(int treeMinDegree) {
+            if (treeMinDegree < 2) {
+                throw new IllegalArgumentException("Minimum degree must be at least 2");
+            }
+            this.treeMinDegree = treeMinDegree;
+            return this;
+        }
+
+        public Builder<K, V> metricsSampleInterval(int metricsSampleInterval) {
+            if (metricsSampleInterval < 0) {
+                throw new IllegalArgumentException("Sample interval cannot be negative");
+            }
+            this.metricsSampleInterval = metricsSampleInterval;
+            return this;
+        }
+
+        /**
+         * Keeps a cuckoo filter of key hashes that getValue and containsKey consult before the
+         * bucket, so most misses cost two array reads. It adds about 2 to 4 bytes per entry and
+         * some work to every insert and removal, so it pays off when lookups mostly miss.
+         */
+        public Builder<K, V> membershipFilter(boolean membershipFilter) {
+            this.membershipFilter = membershipFilter;
+            return this;
+        }
+
+        public HashTable<K, V> build() {
+            if (untreeifyThreshold >= treeifyThreshold) {
+                throw new IllegalArgumentException("Untreeify threshold must be below the treeify threshold");
+            }
+            return new HashTable<>(this);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.baroniunas.hashtable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Receives structural events from a {@link HashTable}. Callbacks run on the mutating thread, inside
+ * the operation that caused them, so implementations should be cheap.
+ */
+public interface HashTableListener {
+
+    HashTableListener NONE = new HashTableListener() {
+    };
+
+    default void onResize(int oldCapacity, int newCapacity, long durationNanos) {
+    }
+
+    default void onTreeify(int index, int binSize) {
+    }
+
+    static HashTableListener logging() {
+        Logger logger = LogManager.getLogger(HashTable.class);
+        return new HashTableListener() {
+            @Override
+            public void onResize(int oldCapacity, int newCapacity, long durationNanos) {
+                logger.info("Resized table capacity from {} to {} in {} ns.", oldCapacity, newCapacity, durationNanos);
+            }
+
+            @Override
+            public void onTreeify(int index, int binSize) {
+                logger.info("Transformed bin at index {} with {} entries to BTree.", index, binSize);
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.baroniunas.hashtable;
+
+/**
+ * JMX view of a table's {@link TableMetrics}, obtained from {@link HashTable#asMXBean()} and
+ * registered by the application under a name of its choosing, for example:
+ * <pre>{@code
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(table.asMXBean(),
+ *         new ObjectName("com.baroniunas.hashtable:type=HashTable,name=sessions"));
+ * }</pre>
+ */
+public interface HashTableMXBean {
+
+    int getSize();
+
+    int getCapacity();
+
+    int getOccupiedBuckets();
+
+    double getLoadFactor();
+
+    long[] getBucketLengthHistogram();
+
+    int getTreeBinCount();
+
+    int getMaxBucketLength();
+
+    int getResizeCount();
+
+    long getTotalResizeNanos();
+
+    long getMaxResizeNanos();
+
+    int getTreeifyCount();
+
+    int getSampleInterval();
+
+    double getMeanProbes();
+
+    double getMeanComparisons();
+
+    int getMaxComparisons();
+
+    LatencySnapshot getGetLatency();
+
+    LatencySnapshot getPutLatency();
+
+    LatencySnapshot getRemoveLatency();
+}
@@ -0,0 +1,116 @@
+package com.baroniunas.hashtable;
+
+/**
+ * Serves {@link HashTableMXBean} attributes from one {@link TableMetrics} snapshot. JMX clients
+ * read attributes one at a time, so a snapshot is reused for up to a second instead of walking
+ * the bucket array once per attribute.
+ */
+class HashTableMetricsBean implements HashTableMXBean {
+    private static final long MAX_AGE_NANOS = 1_000_000_000L;
+    private final HashTable<?, ?> table;
+    private TableMetrics metrics;
+    private long takenAt;
+
+    HashTableMetricsBean(HashTable<?, ?> table) {
+        this.table = table;
+    }
+
+    private synchronized TableMetrics metrics() {
+        long now = System.nanoTime();
+        if (metrics == null || now - takenAt > MAX_AGE_NANOS) {
+            metrics = table.getMetrics();
+            takenAt = now;
+        }
+        return metrics;
+    }
+
+    @Override
+    public int getSize() {
+        return metrics().getSize();
+    }
+
+    @Override
+    public int getCapacity() {
+        return metrics().getCapacity();
+    }
+
+    @Override
+    public int getOccupiedBuckets() {
+        return metrics().getOccupiedBuckets();
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return metrics().getLoadFactor();
+    }
+
+    @Override
+    public long[] getBucketLengthHistogram() {
+        return metrics().getBucketLengthHistogram();
+    }
+
+    @Override
+    public int getTreeBinCount() {
+        return metrics().getTreeBinCount();
+    }
+
+    @Override
+    public int getMaxBucketLength() {
+        return metrics().getMaxBucketLength();
+    }
+
+    @Override
+    public int getResizeCount() {
+        return metrics().getResizeCount();
+    }
+
+    @Override
+    public long getTotalResizeNanos() {
+        return metrics().getTotalResizeNanos();
+    }
+
+    @Override
+    public long getMaxResizeNanos() {
+        return metrics().getMaxResizeNanos();
+    }
+
+    @Override
+    public int getTreeifyCount() {
+        return metrics().getTreeifyCount();
+    }
+
+    @Override
+    public int getSampleInterval() {
+        return metrics().getSampleInterval();
+    }
+
+    @Override
+    public double getMeanProbes() {
+        return metrics().getMeanProbes();
+    }
+
+    @Override
+    public double getMeanComparisons() {
+        return metrics().getMeanComparisons();
+    }
+
+    @Override
+    public int getMaxComparisons() {
+        return metrics().getMaxComparisons();
+    }
+
+    @Override
+    public LatencySnapshot getGetLatency() {
+        return metrics().getGetLatency();
+    }
+
+    @Override
+    public LatencySnapshot getPutLatency() {
+        return metrics().getPutLatency();
+    }
+
+    @Override
+    public LatencySnapshot getRemoveLatency() {
+        return metrics().getRemoveLatency();
+    }
+}
@@ -0,0 +1,15 @@
+package com.baroniunas.hashtable;
+
+/**
+ * Supplies the hash code a {@link HashTable} buckets a key by. Keys that are equal must hash
+ * equally. The default is {@link Object#hashCode()}.
+ */
+@FunctionalInterface
+public interface Hasher<K> {
+
+    int hash(K key);
+
+    static <K> Hasher<K> standard() {
+        return Object::hashCode;
+    }
+}
@@ -0,0 +1,156 @@
+package com.baroniunas.hashtable;
+
+/**
+ * Open-addressing {@code int -> int} table with no boxing of either keys or values. Lookups of
+ * absent keys return {@link #getNoEntryValue()}, which is {@code 0} unless chosen at construction;
+ * use {@link #containsKey(int)} when that value is also a legitimate mapping.
+ */
+public class IntIntHashTable {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int noEntryValue;
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntHashTable() {
+        noEntryValue = 0;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public IntIntHashTable(int expectedSize, int noEntryValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        this.noEntryValue = noEntryValue;
+        this.zeroValue = noEntryValue;
+        allocate(IntObjHashTable.capacityFor(expectedSize, LOAD_FACTOR));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public void put(int key, int value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = IntObjHashTable.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            resize();
+        }
+    }
+
+    private int find(int key) {
+        int slot = IntObjHashTable.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int getValue(int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int slot = find(key);
+        return slot < 0 ? noEntryValue : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    public int removePair(int key) {
+        if (key == 0) {
+            int value = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = noEntryValue;
+                size--;
+            }
+            return value;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return noEntryValue;
+        }
+        int value = values[slot];
+        shiftBack(slot);
+        size--;
+        return value;
+    }
+
+    private void shiftBack(int gap) {
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = IntObjHashTable.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+    }
+
+    private void resize() {
+        if (keys.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Table cannot grow beyond " + MAXIMUM_CAPACITY + " slots");
+        }
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int slot = IntObjHashTable.mix(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    public int getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCurrentCapacity() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,66 @@
+package com.baroniunas.hashtable;
+
+/**
+ * Log-linear histogram of nanosecond durations. Each power of two is split into eight equal
+ * buckets, so a reported percentile is at most 12.5% above the true value, in a fixed 4 KB array
+ * that recording never resizes or allocates.
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final long[] counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[indexFor(nanos)]++;
+        count++;
+        total += nanos;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above that the top four bits pick the bucket.
+    static int indexFor(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    // Largest value that falls into the bucket at index.
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long bound = ((long) (SUB_BUCKETS + index % SUB_BUCKETS + 1) << shift) - 1;
+        return bound < 0 ? Long.MAX_VALUE : bound;
+    }
+
+    long percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(upperBound(index), max);
+            }
+        }
+        return max;
+    }
+
+    LatencySnapshot snapshot() {
+        return new LatencySnapshot(count, count == 0 ? 0 : (double) total / count,
+                percentile(0.5), percentile(0.99), percentile(0.999), max);
+    }
+}
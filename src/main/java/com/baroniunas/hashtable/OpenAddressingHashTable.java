@@ -0,0 +1,205 @@
+package com.baroniunas.hashtable;
+
+/**
+ * Robin Hood open-addressing table. Keys, values and cached hash codes live in parallel arrays,
+ * so an entry costs three array slots instead of a bin object plus a node. A slot whose cached
+ * hash is {@code 0} is empty; stored hashes always have the top bit set.
+ * Removal uses backward-shift deletion, so there are no tombstones and lookups can stop as soon
+ * as they pass an entry closer to its home slot than the probe.
+ */
+public class OpenAddressingHashTable<K extends Comparable<K>, V> implements Table<K, V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.8f;
+    private static final int EMPTY = 0;
+    private static final int OCCUPIED = 0x80000000;
+
+    private int[] hashes;
+    private Object[] keys;
+    private Object[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    public OpenAddressingHashTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public OpenAddressingHashTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        if (needed >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(INITIAL_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    private void allocate(int capacity) {
+        hashes = new int[capacity];
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = capacity == MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY - 1 : (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) | OCCUPIED;
+    }
+
+    private int distance(int slot, int hash) {
+        return (slot - hash) & mask;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        int hash = hash(key);
+        int slot = hash & mask;
+        int dist = 0;
+        while (true) {
+            int resident = hashes[slot];
+            if (resident == EMPTY) {
+                break;
+            }
+            if (resident == hash && key.equals(keys[slot])) {
+                values[slot] = value;
+                return;
+            }
+            if (distance(slot, resident) < dist) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+
+        if (size >= threshold) {
+            resize();
+            insertNew(hash, key, value);
+        } else {
+            insertAt(slot, dist, hash, key, value);
+        }
+        size++;
+    }
+
+    private void insertNew(int hash, Object key, Object value) {
+        int slot = hash & mask;
+        int dist = 0;
+        while (hashes[slot] != EMPTY && distance(slot, hashes[slot]) >= dist) {
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+        insertAt(slot, dist, hash, key, value);
+    }
+
+    // Places the entry at slot, displacing richer residents forward until an empty slot is reached.
+    private void insertAt(int slot, int dist, int hash, Object key, Object value) {
+        while (hashes[slot] != EMPTY) {
+            int residentHash = hashes[slot];
+            Object residentKey = keys[slot];
+            Object residentValue = values[slot];
+            hashes[slot] = hash;
+            keys[slot] = key;
+            values[slot] = value;
+            hash = residentHash;
+            key = residentKey;
+            value = residentValue;
+
+            slot = (slot + 1) & mask;
+            dist = distance(slot, hash);
+            while (hashes[slot] != EMPTY && distance(slot, hashes[slot]) >= dist) {
+                slot = (slot + 1) & mask;
+                dist++;
+            }
+        }
+        hashes[slot] = hash;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private void resize() {
+        if (hashes.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Table cannot grow beyond " + MAXIMUM_CAPACITY + " slots");
+        }
+        int[] oldHashes = hashes;
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldHashes.length * 2);
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY) {
+                insertNew(oldHashes[i], oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private int find(Object key) {
+        int hash = hash(key);
+        int slot = hash & mask;
+        int dist = 0;
+        while (true) {
+            int resident = hashes[slot];
+            if (resident == EMPTY || distance(slot, resident) < dist) {
+                return -1;
+            }
+            if (resident == hash && key.equals(keys[slot])) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V removePair(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) values[slot];
+
+        int next = (slot + 1) & mask;
+        while (hashes[next] != EMPTY && distance(next, hashes[next]) > 0) {
+            hashes[slot] = hashes[next];
+            keys[slot] = keys[next];
+            values[slot] = values[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        hashes[slot] = EMPTY;
+        keys[slot] = null;
+        values[slot] = null;
+        size--;
+        return value;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    public int getCurrentCapacity() {
+        return hashes.length;
+    }
+}
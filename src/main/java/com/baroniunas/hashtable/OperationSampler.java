@@ -0,0 +1,61 @@
+package com.baroniunas.hashtable;
+
+/**
+ * Per-table state for sampled metrics. One operation in every {@code interval} is timed and, for
+ * lookups, has its probe cost measured; the rest pay only a counter decrement. Fields are written
+ * by the mutating thread without synchronization, so a reader on another thread, such as a JMX
+ * client, may see values a few operations old.
+ */
+class OperationSampler {
+    private final int interval;
+    private int countdown;
+    final LatencyHistogram getLatency = new LatencyHistogram();
+    final LatencyHistogram putLatency = new LatencyHistogram();
+    final LatencyHistogram removeLatency = new LatencyHistogram();
+    private long probedLookups;
+    private long probes;
+    private long comparisons;
+    private int maxComparisons;
+
+    OperationSampler(int interval) {
+        this.interval = interval;
+        this.countdown = interval;
+    }
+
+    boolean sample() {
+        if (--countdown > 0) {
+            return false;
+        }
+        countdown = interval;
+        return true;
+    }
+
+    void recordProbe(int buckets, int keyComparisons) {
+        probedLookups++;
+        probes += buckets;
+        comparisons += keyComparisons;
+        if (keyComparisons > maxComparisons) {
+            maxComparisons = keyComparisons;
+        }
+    }
+
+    int getInterval() {
+        return interval;
+    }
+
+    long getProbedLookups() {
+        return probedLookups;
+    }
+
+    double getMeanProbes() {
+        return probedLookups == 0 ? 0 : (double) probes / probedLookups;
+    }
+
+    double getMeanComparisons() {
+        return probedLookups == 0 ? 0 : (double) comparisons / probedLookups;
+    }
+
+    int getMaxComparisons() {
+        return maxComparisons;
+    }
+}
@@ -0,0 +1,476 @@
+package com.baroniunas.hashtable;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Hash array mapped trie with structural sharing. Each level consumes five bits of the key's hash
+ * code; a node keeps its entries and its children in one array indexed through two bitmaps, in
+ * the compressed (CHAMP) layout, and keys whose hash codes are equal end in a collision node
+ * ordered by key. A write copies only the path from the root to the changed entry, so
+ * {@link #snapshot()} is O(1): it hands out the current root, and later writes never touch it.
+ *
+ * <p>Inside {@link #batch} the table is transient: nodes copied during the batch belong to it and
+ * later writes in the same batch change them in place instead of copying them again. Taking a
+ * snapshot inside a batch ends that ownership, so nodes a snapshot can reach are never changed.
+ * A handle is not thread-safe, but a snapshot can be handed to any number of reader threads
+ * through a volatile field or concurrent queue while the writer keeps using the original.
+ */
+public class PersistentHashTable<K extends Comparable<K>, V> implements Table<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Hasher<? super K> hasher;
+    private Node root;
+    private int size;
+    // Non-null during a batch: nodes created under this token may be changed in place.
+    private Object edit;
+    // Results of the current write, carried out of the recursion; a handle has a single writer.
+    private Object previous;
+    private boolean added;
+
+    public PersistentHashTable() {
+        this(Hasher.standard());
+    }
+
+    public PersistentHashTable(Hasher<? super K> hasher) {
+        this(hasher, new BitmapNode(null, 0, 0, EMPTY), 0);
+    }
+
+    private PersistentHashTable(Hasher<? super K> hasher, Node root, int size) {
+        if (hasher == null) {
+            throw new IllegalArgumentException("Hasher cannot be null");
+        }
+        this.hasher = hasher;
+        this.root = root;
+        this.size = size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        added = false;
+        previous = null;
+        root = root.put(this, key, hasher.hash(key), value, 0);
+        previous = null;
+        if (added) {
+            size++;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        return (V) root.get(key, hasher.hash(key), 0);
+    }
+
+    public boolean containsKey(K key) {
+        return getValue(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V removePair(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        previous = null;
+        root = root.remove(this, key, hasher.hash(key), 0);
+        V removed = (V) previous;
+        previous = null;
+        if (removed != null) {
+            size--;
+        }
+        return removed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    // A table holding the current entries that this one's later writes cannot affect.
+    public PersistentHashTable<K, V> snapshot() {
+        if (edit != null) {
+            edit = new Object();
+        }
+        return new PersistentHashTable<K, V>(hasher, root, size);
+    }
+
+    /**
+     * Runs edits against this table in transient mode, for bulk writes: each node is copied at
+     * most once per batch and then updated in place. A batch inside a batch joins the outer one.
+     */
+    public void batch(Consumer<? super PersistentHashTable<K, V>> edits) {
+        if (edits == null) {
+            throw new IllegalArgumentException("Function cannot be null");
+        }
+        if (edit != null) {
+            edits.accept(this);
+            return;
+        }
+        edit = new Object();
+        try {
+            edits.accept(this);
+        } finally {
+            edit = null;
+        }
+    }
+
+    private int hashOf(Object key) {
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        return hasher.hash(k);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object a, Object b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private abstract static class Node {
+        abstract Object get(Object key, int hash, int shift);
+
+        abstract Node put(PersistentHashTable<?, ?> table, Object key, int hash, Object value, int shift);
+
+        abstract Node remove(PersistentHashTable<?, ?> table, Object key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+
+        // True when the node holds exactly one entry, which its parent then stores inline.
+        abstract boolean isSingleEntry();
+
+        abstract Object firstKey();
+
+        abstract Object firstValue();
+    }
+
+    private static final class BitmapNode extends Node {
+        private final Object edit;
+        private int dataMap;
+        private int nodeMap;
+        // Entries as key, value pairs in bit order, followed by the children in bit order.
+        private Object[] array;
+
+        BitmapNode(Object edit, int dataMap, int nodeMap, Object[] array) {
+            this.edit = edit;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.array = array;
+        }
+
+        private int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit) {
+            return 2 * Integer.bitCount(dataMap) + Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                return array[index].equals(key) ? array[index + 1] : null;
+            }
+            if ((nodeMap & bit) != 0) {
+                return ((Node) array[nodeIndex(bit)]).get(key, hash, shift + BITS);
+            }
+            return null;
+        }
+
+        // This node when the table's batch owns it, otherwise a copy the batch (if any) will own.
+        private BitmapNode editable(PersistentHashTable<?, ?> table) {
+            if (table.edit != null && table.edit == edit) {
+                return this;
+            }
+            return new BitmapNode(table.edit, dataMap, nodeMap, array.clone());
+        }
+
+        @Override
+        Node put(PersistentHashTable<?, ?> table, Object key, int hash, Object value, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                Object existing = array[index];
+                if (existing.equals(key)) {
+                    table.previous = array[index + 1];
+                    if (array[index + 1] == value) {
+                        return this;
+                    }
+                    BitmapNode node = editable(table);
+                    node.array[index + 1] = value;
+                    return node;
+                }
+                Node child = merge(table, existing, array[index + 1], table.hashOf(existing), key, value, hash,
+                        shift + BITS);
+                table.added = true;
+                return inlineToNode(table, bit, child);
+            }
+            if ((nodeMap & bit) != 0) {
+                int index = nodeIndex(bit);
+                Node child = (Node) array[index];
+                Node updated = child.put(table, key, hash, value, shift + BITS);
+                if (updated == child) {
+                    return this;
+                }
+                BitmapNode node = editable(table);
+                node.array[index] = updated;
+                return node;
+            }
+            table.added = true;
+            int index = 2 * dataIndex(bit);
+            Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, index);
+            grown[index] = key;
+            grown[index + 1] = value;
+            System.arraycopy(array, index, grown, index + 2, array.length - index);
+            return withArray(table, dataMap | bit, nodeMap, grown);
+        }
+
+        private Node withArray(PersistentHashTable<?, ?> table, int dataMap, int nodeMap, Object[] array) {
+            if (table.edit != null && table.edit == edit) {
+                this.dataMap = dataMap;
+                this.nodeMap = nodeMap;
+                this.array = array;
+                return this;
+            }
+            return new BitmapNode(table.edit, dataMap, nodeMap, array);
+        }
+
+        // Replaces the entry at bit with a child holding it and the new entry.
+        private Node inlineToNode(PersistentHashTable<?, ?> table, int bit, Node child) {
+            int dataAt = 2 * dataIndex(bit);
+            int nodeAt = nodeIndex(bit) - 2;
+            Object[] moved = new Object[array.length - 1];
+            System.arraycopy(array, 0, moved, 0, dataAt);
+            System.arraycopy(array, dataAt + 2, moved, dataAt, nodeAt - dataAt);
+            moved[nodeAt] = child;
+            System.arraycopy(array, nodeAt + 2, moved, nodeAt + 1, array.length - nodeAt - 2);
+            return withArray(table, dataMap ^ bit, nodeMap | bit, moved);
+        }
+
+        // Replaces the child at bit with the single entry it has left.
+        private Node nodeToInline(PersistentHashTable<?, ?> table, int bit, Node child) {
+            int nodeAt = nodeIndex(bit);
+            int dataAt = 2 * dataIndex(bit);
+            Object[] moved = new Object[array.length + 1];
+            System.arraycopy(array, 0, moved, 0, dataAt);
+            moved[dataAt] = child.firstKey();
+            moved[dataAt + 1] = child.firstValue();
+            System.arraycopy(array, dataAt, moved, dataAt + 2, nodeAt - dataAt);
+            System.arraycopy(array, nodeAt + 1, moved, nodeAt + 2, array.length - nodeAt - 1);
+            return withArray(table, dataMap | bit, nodeMap ^ bit, moved);
+        }
+
+        @Override
+        Node remove(PersistentHashTable<?, ?> table, Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                if (!array[index].equals(key)) {
+                    return this;
+                }
+                table.previous = array[index + 1];
+                Object[] shrunk = new Object[array.length - 2];
+                System.arraycopy(array, 0, shrunk, 0, index);
+                System.arraycopy(array, index + 2, shrunk, index, array.length - index - 2);
+                return withArray(table, dataMap ^ bit, nodeMap, shrunk);
+            }
+            if ((nodeMap & bit) != 0) {
+                int index = nodeIndex(bit);
+                Node child = (Node) array[index];
+                Node updated = child.remove(table, key, hash, shift + BITS);
+                if (table.previous == null) {
+                    return this;
+                }
+                if (updated.isSingleEntry()) {
+                    return nodeToInline(table, bit, updated);
+                }
+                if (updated == child) {
+                    return this;
+                }
+                BitmapNode node = editable(table);
+                node.array[index] = updated;
+                return node;
+            }
+            return this;
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            int dataEnd = 2 * Integer.bitCount(dataMap);
+            for (int i = 0; i < dataEnd; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+            for (int i = dataEnd; i < array.length; i++) {
+                ((Node) array[i]).forEach(action);
+            }
+        }
+
+        @Override
+        boolean isSingleEntry() {
+            return nodeMap == 0 && Integer.bitCount(dataMap) == 1;
+        }
+
+        @Override
+        Object firstKey() {
+            return array[0];
+        }
+
+        @Override
+        Object firstValue() {
+            return array[1];
+        }
+    }
+
+    // Keys with one full hash code, ordered by compareTo so lookups bisect them like a tree bin.
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Object[] keys;
+        private final Object[] values;
+
+        CollisionNode(int hash, Object[] keys, Object[] values) {
+            this.hash = hash;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private int find(Object key) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = compare(keys[middle], key);
+                if (comparison == 0) {
+                    return middle;
+                }
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return -(low + 1);
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int index = find(key);
+            return index >= 0 ? values[index] : null;
+        }
+
+        @Override
+        Node put(PersistentHashTable<?, ?> table, Object key, int hash, Object value, int shift) {
+            if (hash != this.hash) {
+                // The hashes agree only on the bits consumed so far: branch above this node.
+                BitmapNode branch = new BitmapNode(table.edit, 0, 1 << ((this.hash >>> shift) & MASK),
+                        new Object[]{this});
+                return branch.put(table, key, hash, value, shift);
+            }
+            int index = find(key);
+            if (index >= 0) {
+                table.previous = values[index];
+                if (values[index] == value) {
+                    return this;
+                }
+                Object[] updated = values.clone();
+                updated[index] = value;
+                return new CollisionNode(hash, keys, updated);
+            }
+            table.added = true;
+            int at = -index - 1;
+            Object[] grownKeys = new Object[keys.length + 1];
+            Object[] grownValues = new Object[keys.length + 1];
+            System.arraycopy(keys, 0, grownKeys, 0, at);
+            System.arraycopy(values, 0, grownValues, 0, at);
+            grownKeys[at] = key;
+            grownValues[at] = value;
+            System.arraycopy(keys, at, grownKeys, at + 1, keys.length - at);
+            System.arraycopy(values, at, grownValues, at + 1, keys.length - at);
+            return new CollisionNode(hash, grownKeys, grownValues);
+        }
+
+        @Override
+        Node remove(PersistentHashTable<?, ?> table, Object key, int hash, int shift) {
+            int index = hash == this.hash ? find(key) : -1;
+            if (index < 0) {
+                return this;
+            }
+            table.previous = values[index];
+            Object[] shrunkKeys = new Object[keys.length - 1];
+            Object[] shrunkValues = new Object[keys.length - 1];
+            System.arraycopy(keys, 0, shrunkKeys, 0, index);
+            System.arraycopy(values, 0, shrunkValues, 0, index);
+            System.arraycopy(keys, index + 1, shrunkKeys, index, keys.length - index - 1);
+            System.arraycopy(values, index + 1, shrunkValues, index, keys.length - index - 1);
+            return new CollisionNode(hash, shrunkKeys, shrunkValues);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < keys.length; i++) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+
+        @Override
+        boolean isSingleEntry() {
+            return keys.length == 1;
+        }
+
+        @Override
+        Object firstKey() {
+            return keys[0];
+        }
+
+        @Override
+        Object firstValue() {
+            return values[0];
+        }
+    }
+
+    // A node holding two entries that agree on the hash bits above shift.
+    private static Node merge(PersistentHashTable<?, ?> table, Object key0, Object value0, int hash0,
+                              Object key1, Object value1, int hash1, int shift) {
+        if (hash0 == hash1) {
+            boolean ordered = compare(key0, key1) < 0;
+            return new CollisionNode(hash0,
+                    ordered ? new Object[]{key0, key1} : new Object[]{key1, key0},
+                    ordered ? new Object[]{value0, value1} : new Object[]{value1, value0});
+        }
+        int fragment0 = (hash0 >>> shift) & MASK;
+        int fragment1 = (hash1 >>> shift) & MASK;
+        if (fragment0 != fragment1) {
+            Object[] array = fragment0 < fragment1
+                    ? new Object[]{key0, value0, key1, value1}
+                    : new Object[]{key1, value1, key0, value0};
+            return new BitmapNode(table.edit, 1 << fragment0 | 1 << fragment1, 0, array);
+        }
+        Node child = merge(table, key0, value0, hash0, key1, value1, hash1, shift + BITS);
+        return new BitmapNode(table.edit, 0, 1 << fragment0, new Object[]{child});
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> sb.append(sb.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return sb.append('}').toString();
+    }
+}
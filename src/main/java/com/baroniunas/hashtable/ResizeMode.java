@@ -0,0 +1,12 @@
+package com.baroniunas.hashtable;
+
+/**
+ * How a {@link HashTable} moves its buckets when it grows. {@code STOP_THE_WORLD} rehashes every
+ * bucket inside the put that crosses the load factor. {@code INCREMENTAL} keeps the old bucket
+ * array live and migrates a bounded number of buckets on each subsequent put or removePair, so
+ * no single operation pays for the whole table.
+ */
+public enum ResizeMode {
+    STOP_THE_WORLD,
+    INCREMENTAL
+}
@@ -0,0 +1,378 @@
+package com.baroniunas.hashtable;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Partitions keys by hash across shards, each a plain {@link HashTable} owned by one worker
+ * thread. Callers never touch a shard: every operation is a message on the owning shard's queue,
+ * answered through a {@link CompletableFuture}, so the tables need no locks and each shard's
+ * buckets stay in the cache of the core running its worker. The queues are lock-free
+ * multi-producer, single-consumer lists; an idle worker spins briefly and then parks until a
+ * producer wakes it.
+ *
+ * <p>Futures are completed on the worker, so stages attached with {@code thenApply} and the like
+ * run there and hold up the shard; use the {@code ...Async} variants for anything slow. The
+ * blocking {@link Table} methods wait for the result, so a worker waiting on its own shard would
+ * never return; called from a worker they throw {@link IllegalStateException} instead.
+ */
+public class ShardedHashTable<K extends Comparable<K>, V> implements Table<K, V>, AutoCloseable {
+    private final Shard<K, V>[] shards;
+    private volatile boolean closed;
+
+    public ShardedHashTable() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    public ShardedHashTable(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>("hashtable-shard-" + i);
+        }
+        for (Shard<K, V> shard : shards) {
+            shard.worker.start();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // The high bits of a multiplicative hash, so the shard does not depend on the low bits each HashTable buckets by.
+    private int shardIndex(K key) {
+        long mixed = (key.hashCode() * 0x9E3779B9L) & 0xffffffffL;
+        return (int) ((mixed * shards.length) >>> 32);
+    }
+
+    public CompletableFuture<V> getAsync(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        return submit(shards[shardIndex(key)], table -> table.getValue(key));
+    }
+
+    public CompletableFuture<Void> putAsync(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        return submit(shards[shardIndex(key)], table -> {
+            table.put(key, value);
+            return null;
+        });
+    }
+
+    public CompletableFuture<V> removeAsync(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        return submit(shards[shardIndex(key)], table -> table.removePair(key));
+    }
+
+    /**
+     * Looks up every key and stores its value, or null, at the same position in out, sending one
+     * message per shard that holds any of the keys. The future yields the number of keys found;
+     * out must not be read before it completes.
+     */
+    public CompletableFuture<Integer> getAllAsync(K[] keys, V[] out) {
+        if (keys == null || out == null) {
+            throw new IllegalArgumentException("Arrays cannot be null");
+        }
+        if (out.length < keys.length) {
+            throw new IllegalArgumentException("Output array is shorter than the keys");
+        }
+        int[][] positions = partition(keys);
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Integer>[] parts = new CompletableFuture[shards.length];
+        for (int s = 0; s < shards.length; s++) {
+            int[] at = positions[s];
+            if (at.length == 0) {
+                parts[s] = CompletableFuture.completedFuture(0);
+                continue;
+            }
+            K[] partKeys = gather(keys, at);
+            V[] partOut = newArray(out, at.length);
+            parts[s] = submit(shards[s], table -> {
+                int found = table.getAll(partKeys, partOut);
+                for (int i = 0; i < at.length; i++) {
+                    out[at[i]] = partOut[i];
+                }
+                return found;
+            });
+        }
+        return CompletableFuture.allOf(parts).thenApply(ignored -> {
+            int found = 0;
+            for (CompletableFuture<Integer> part : parts) {
+                found += part.join();
+            }
+            return found;
+        });
+    }
+
+    // Puts keys[i] to values[i] for every i, sending one message per shard that receives any of them.
+    public CompletableFuture<Void> putAllAsync(K[] keys, V[] values) {
+        if (keys == null || values == null) {
+            throw new IllegalArgumentException("Arrays cannot be null");
+        }
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length");
+        }
+        for (V value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("Key or value cannot be null");
+            }
+        }
+        int[][] positions = partition(keys);
+        CompletableFuture<?>[] parts = new CompletableFuture[shards.length];
+        for (int s = 0; s < shards.length; s++) {
+            int[] at = positions[s];
+            if (at.length == 0) {
+                parts[s] = CompletableFuture.completedFuture(null);
+                continue;
+            }
+            K[] partKeys = gather(keys, at);
+            V[] partValues = gather(values, at);
+            parts[s] = submit(shards[s], table -> {
+                table.putAll(partKeys, partValues);
+                return null;
+            });
+        }
+        return CompletableFuture.allOf(parts);
+    }
+
+    // For each shard, the positions of the keys it owns, in order.
+    private int[][] partition(K[] keys) {
+        int[] owner = new int[keys.length];
+        int[] counts = new int[shards.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                throw new IllegalArgumentException("Key cannot be null");
+            }
+            owner[i] = shardIndex(keys[i]);
+            counts[owner[i]]++;
+        }
+        int[][] positions = new int[shards.length][];
+        for (int s = 0; s < shards.length; s++) {
+            positions[s] = new int[counts[s]];
+            counts[s] = 0;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            positions[owner[i]][counts[owner[i]]++] = i;
+        }
+        return positions;
+    }
+
+    private static <T> T[] gather(T[] source, int[] at) {
+        T[] part = newArray(source, at.length);
+        for (int i = 0; i < at.length; i++) {
+            part[i] = source[at[i]];
+        }
+        return part;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T[] newArray(T[] like, int length) {
+        return (T[]) Array.newInstance(like.getClass().getComponentType(), length);
+    }
+
+    private <T> CompletableFuture<T> submit(Shard<K, V> shard, Function<HashTable<K, V>, T> operation) {
+        if (closed) {
+            throw new IllegalStateException("Table is closed");
+        }
+        Request<K, V, T> request = new Request<>(operation);
+        shard.offer(request);
+        return request;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        requireNotWorker();
+        await(putAsync(key, value));
+    }
+
+    @Override
+    public V getValue(K key) {
+        requireNotWorker();
+        return await(getAsync(key));
+    }
+
+    @Override
+    public V removePair(K key) {
+        requireNotWorker();
+        return await(removeAsync(key));
+    }
+
+    // Entries as of each shard's last finished operation; exact once no requests are in flight.
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Shard<K, V> shard : shards) {
+            size += shard.size;
+        }
+        return size;
+    }
+
+    // Checked before submitting, so a rejected call leaves nothing queued. Waiting on another shard is
+    // refused too: two workers waiting on each other would wedge both.
+    private void requireNotWorker() {
+        for (Shard<K, V> shard : shards) {
+            if (shard.worker == Thread.currentThread()) {
+                throw new IllegalStateException("Blocking call from a shard worker; use the async methods");
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lets queued requests finish, then stops the workers; requests racing with close fail instead.
+     * Called from a callback running on a worker, it does not wait for that worker, which stops
+     * once the callback returns and the requests ahead of the stop message are done.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Shard<K, V> shard : shards) {
+            shard.offer(new Request<>(null));
+        }
+        boolean interrupted = false;
+        for (Shard<K, V> shard : shards) {
+            while (shard.worker != Thread.currentThread() && shard.worker.isAlive()) {
+                try {
+                    shard.worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A queued operation and its result; a request without an operation stops the worker.
+    private static final class Request<K extends Comparable<K>, V, T> extends CompletableFuture<T> {
+        private Function<HashTable<K, V>, T> operation;
+        volatile Request<K, V, ?> next;
+
+        Request(Function<HashTable<K, V>, T> operation) {
+            this.operation = operation;
+        }
+
+        // Publishes the shard's size before completing, so a caller that saw the result sees the size too.
+        void run(Shard<K, V> shard) {
+            Function<HashTable<K, V>, T> current = operation;
+            // The worker keeps the last request as its queue head, so drop what it captured.
+            operation = null;
+            T result;
+            try {
+                result = current.apply(shard.table);
+            } catch (Throwable e) {
+                // Errors from a key's hashCode or compareTo fail this request only; the worker keeps serving the shard.
+                shard.size = shard.table.getSize();
+                completeExceptionally(e);
+                return;
+            }
+            shard.size = shard.table.getSize();
+            complete(result);
+        }
+    }
+
+    private static final class Shard<K extends Comparable<K>, V> implements Runnable {
+        private static final int SPINS = 256;
+
+        private final HashTable<K, V> table = new HashTable<>();
+        private final Thread worker;
+        // Producers swap themselves in at the tail; only the worker moves the head.
+        private final AtomicReference<Request<K, V, ?>> tail;
+        private Request<K, V, ?> head;
+        private volatile boolean waiting;
+        private volatile boolean stopped;
+        volatile int size;
+
+        Shard(String name) {
+            head = new Request<>(null);
+            tail = new AtomicReference<>(head);
+            worker = new Thread(this, name);
+            worker.setDaemon(true);
+        }
+
+        // Reading the flags after linking pairs with the worker setting them before it polls, so no request is stranded.
+        void offer(Request<K, V, ?> request) {
+            tail.getAndSet(request).next = request;
+            if (stopped) {
+                request.completeExceptionally(new IllegalStateException("Table is closed"));
+            } else if (waiting) {
+                LockSupport.unpark(worker);
+            }
+        }
+
+        private Request<K, V, ?> poll() {
+            Request<K, V, ?> next = head.next;
+            if (next != null) {
+                // Callers may hold any request as a future, so unlink it or it would keep every later request alive.
+                // No producer writes here again: this node was swapped out of the tail before next was set.
+                head.next = null;
+                head = next;
+            }
+            return next;
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                Request<K, V, ?> request = poll();
+                if (request == null) {
+                    if (++idle < SPINS) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    waiting = true;
+                    if (head.next == null) {
+                        LockSupport.park(this);
+                    }
+                    waiting = false;
+                    continue;
+                }
+                idle = 0;
+                if (request.operation == null) {
+                    break;
+                }
+                request.run(this);
+            }
+            stopped = true;
+            // A producer may have swapped the tail but not linked yet, so wait for each link.
+            while (tail.get() != head) {
+                Request<K, V, ?> request = poll();
+                if (request == null) {
+                    Thread.onSpinWait();
+                } else {
+                    request.completeExceptionally(new IllegalStateException("Table is closed"));
+                }
+            }
+        }
+    }
+}
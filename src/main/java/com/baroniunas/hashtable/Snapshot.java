@@ -0,0 +1,222 @@
+package com.baroniunas.hashtable;
+
+import com.baroniunas.collections.Collections;
+import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.collections.btree.Cursor;
+import com.baroniunas.collections.linkedlist.LinkedList;
+import com.baroniunas.collections.linkedlist.Node;
+import com.baroniunas.offheap.Codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Binary snapshots of a {@link HashTable} or {@link BTree}, streamed entry by entry. A snapshot is
+ * an 8-byte header (magic, version, structure, compression) followed by a body, compressed if
+ * requested, of unsigned LEB128 numbers and length-prefixed codec bytes. The body ends with a
+ * CRC32 of its uncompressed bytes.
+ *
+ * <p>A table body holds its capacity mode, capacity, size and occupied bucket count, then each
+ * occupied bucket's index, bin kind, entry count and entries. Tree bins are written in key order,
+ * so a table read back with the same capacity gets its tree bins bulk-built and its chains
+ * relinked without hashing into a growing table. A tree body holds the minimum degree, the size
+ * and the entries in key order.
+ */
+public final class Snapshot {
+    static final int MAGIC = 0x31535448;
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    private static final byte HASH_TABLE = 1;
+    private static final byte B_TREE = 2;
+    private static final int LIST_BIN = 0;
+    private static final int TREE_BIN = 1;
+    // Counts read from the body are unverified until the checksum, so entry arrays start at most this big and grow.
+    private static final int INITIAL_ENTRIES = 1024;
+
+    private Snapshot() {
+    }
+
+    // Finishes a pending incremental resize first, so buckets are written at their final index.
+    public static <K extends Comparable<K>, V> void writeTo(HashTable<K, V> table, OutputStream out, Codec<K> keyCodec,
+                                                            Codec<V> valueCodec, Compression compression) throws IOException {
+        if (table == null) {
+            throw new IllegalArgumentException("Table cannot be null");
+        }
+        table.completePendingMigration();
+        SnapshotOutput output = SnapshotOutput.open(out, HASH_TABLE, compression);
+        output.writeByte(table.getCapacityMode().ordinal());
+        output.writeVarint(table.getCurrentCapacity());
+        output.writeVarint(table.getSize());
+        output.writeVarint(table.getArraySize());
+        Collections<K, V>[] buckets = table.getDataStructure();
+        for (int index = 0; index < buckets.length; index++) {
+            Collections<K, V> bucket = buckets[index];
+            if (bucket == null) {
+                continue;
+            }
+            output.writeVarint(index);
+            output.writeByte(bucket instanceof LinkedList ? LIST_BIN : TREE_BIN);
+            output.writeVarint(bucket.getSize());
+            if (bucket instanceof LinkedList) {
+                for (Node<K, V> node = ((LinkedList<K, V>) bucket).getHead(); node != null; node = node.getNext()) {
+                    output.write(keyCodec, node.getKey());
+                    output.write(valueCodec, node.getValue());
+                }
+            } else {
+                writeEntries(((BTree<K, V>) bucket).cursor(), output, keyCodec, valueCodec);
+            }
+        }
+        output.finish();
+    }
+
+    public static <K extends Comparable<K>, V> void writeTo(HashTable<K, V> table, WritableByteChannel channel, Codec<K> keyCodec,
+                                                            Codec<V> valueCodec, Compression compression) throws IOException {
+        writeTo(table, Channels.newOutputStream(channel), keyCodec, valueCodec, compression);
+    }
+
+    public static <K extends Comparable<K>, V> void writeTo(BTree<K, V> tree, OutputStream out, Codec<K> keyCodec,
+                                                            Codec<V> valueCodec, Compression compression) throws IOException {
+        if (tree == null) {
+            throw new IllegalArgumentException("Tree cannot be null");
+        }
+        SnapshotOutput output = SnapshotOutput.open(out, B_TREE, compression);
+        output.writeVarint(tree.getMinDegree());
+        output.writeVarint(tree.getSize());
+        writeEntries(tree.cursor(), output, keyCodec, valueCodec);
+        output.finish();
+    }
+
+    public static <K extends Comparable<K>, V> void writeTo(BTree<K, V> tree, WritableByteChannel channel, Codec<K> keyCodec,
+                                                            Codec<V> valueCodec, Compression compression) throws IOException {
+        writeTo(tree, Channels.newOutputStream(channel), keyCodec, valueCodec, compression);
+    }
+
+    private static <K extends Comparable<K>, V> void writeEntries(Cursor<K, V> cursor, SnapshotOutput output,
+                                                                  Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        while (cursor.next()) {
+            output.write(keyCodec, cursor.getKey());
+            output.write(valueCodec, cursor.getValue());
+        }
+    }
+
+    public static <K extends Comparable<K>, V> HashTable<K, V> readHashTable(InputStream in, Codec<K> keyCodec,
+                                                                             Codec<V> valueCodec) throws IOException {
+        return readHashTable(in, keyCodec, valueCodec, HashTable.builder());
+    }
+
+    public static <K extends Comparable<K>, V> HashTable<K, V> readHashTable(ReadableByteChannel channel, Codec<K> keyCodec,
+                                                                             Codec<V> valueCodec) throws IOException {
+        return readHashTable(Channels.newInputStream(channel), keyCodec, valueCodec, HashTable.builder());
+    }
+
+    /**
+     * Reads a table into one made by builder. Bins are placed directly when the new table has the
+     * snapshot's capacity mode and its hasher puts each bin's keys at the recorded index; anything
+     * else is inserted with {@code put}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> HashTable<K, V> readHashTable(InputStream in, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                                             HashTable.Builder<K, V> builder) throws IOException {
+        if (builder == null) {
+            throw new IllegalArgumentException("Builder cannot be null");
+        }
+        SnapshotInput input = SnapshotInput.open(in, HASH_TABLE);
+        int mode = input.readByte();
+        if (mode >= CapacityMode.values().length) {
+            throw new IOException("Malformed snapshot");
+        }
+        int capacity = input.readLength();
+        int size = input.readLength();
+        int occupied = input.readLength();
+
+        HashTable<K, V> table = builder.build();
+        if (table.getCapacityMode() == CapacityMode.values()[mode] && table.getCurrentCapacity() <= capacity) {
+            table.restoreCapacity(capacity);
+        } else {
+            table.ensureCapacity(size);
+        }
+        for (int bucket = 0; bucket < occupied; bucket++) {
+            int index = input.readLength();
+            int kind = input.readByte();
+            int count = input.readLength();
+            boolean direct = table.getCurrentCapacity() == capacity;
+            if (kind == TREE_BIN && direct) {
+                K[] keys = (K[]) new Comparable[Math.min(count, INITIAL_ENTRIES)];
+                V[] values = (V[]) new Object[keys.length];
+                boolean placed = count > 0 && table.getCollectionAtIndex(index) == null;
+                for (int i = 0; i < count; i++) {
+                    if (i == keys.length) {
+                        keys = grow(keys, count);
+                        values = grow(values, count);
+                    }
+                    keys[i] = input.read(keyCodec);
+                    values[i] = input.read(valueCodec);
+                    placed &= table.hash(keys[i]) == index;
+                }
+                if (placed) {
+                    table.restoreTree(index, keys, values, count);
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        table.put(keys[i], values[i]);
+                    }
+                }
+            } else if (kind == LIST_BIN || kind == TREE_BIN) {
+                for (int i = 0; i < count; i++) {
+                    K key = input.read(keyCodec);
+                    V value = input.read(valueCodec);
+                    // A put that fell back from an earlier bin may have turned this bucket into a tree.
+                    if (direct && table.hash(key) == index && !(table.getCollectionAtIndex(index) instanceof BTree)) {
+                        table.restoreEntry(index, key, value);
+                    } else {
+                        table.put(key, value);
+                    }
+                }
+            } else {
+                throw new IOException("Malformed snapshot");
+            }
+        }
+        input.finish();
+        if (table.getSize() != size) {
+            throw new IOException("Malformed snapshot");
+        }
+        return table;
+    }
+
+    // Entries arrive in key order, so the tree is bulk-built bottom-up once the checksum has been verified.
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> BTree<K, V> readBTree(InputStream in, Codec<K> keyCodec,
+                                                                     Codec<V> valueCodec) throws IOException {
+        SnapshotInput input = SnapshotInput.open(in, B_TREE);
+        int minDegree = input.readLength();
+        int size = input.readLength();
+        if (minDegree < 2) {
+            throw new IOException("Malformed snapshot");
+        }
+        K[] keys = (K[]) new Comparable[Math.min(size, INITIAL_ENTRIES)];
+        V[] values = (V[]) new Object[keys.length];
+        for (int i = 0; i < size; i++) {
+            if (i == keys.length) {
+                keys = grow(keys, size);
+                values = grow(values, size);
+            }
+            keys[i] = input.read(keyCodec);
+            values[i] = input.read(valueCodec);
+        }
+        input.finish();
+        return new BTree<>(minDegree, keys, values, size);
+    }
+
+    private static <T> T[] grow(T[] array, int count) {
+        return Arrays.copyOf(array, (int) Math.min(count, 2L * array.length));
+    }
+
+    public static <K extends Comparable<K>, V> BTree<K, V> readBTree(ReadableByteChannel channel, Codec<K> keyCodec,
+                                                                     Codec<V> valueCodec) throws IOException {
+        return readBTree(Channels.newInputStream(channel), keyCodec, valueCodec);
+    }
+}
@@ -0,0 +1,138 @@
+package com.baroniunas.hashtable;
+
+import com.baroniunas.offheap.Codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// Buffered reader for the snapshot body that checksums bytes as they are consumed.
+class SnapshotInput {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final InputStream in;
+    private final Inflater inflater;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private int position;
+    private int limit;
+    // Bytes of the buffer before this index are already in the checksum.
+    private int checked;
+
+    private SnapshotInput(InputStream in, Inflater inflater) {
+        this.in = in;
+        this.inflater = inflater;
+    }
+
+    // Checks the header and returns a reader for the body.
+    static SnapshotInput open(InputStream in, byte kind) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Stream cannot be null");
+        }
+        byte[] bytes = in.readNBytes(Snapshot.HEADER_SIZE);
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < Snapshot.HEADER_SIZE || header.getInt(0) != Snapshot.MAGIC) {
+            throw new IOException("Not a snapshot");
+        }
+        if (header.get(4) != Snapshot.VERSION) {
+            throw new IOException("Unsupported snapshot version " + header.get(4));
+        }
+        if (header.get(5) != kind) {
+            throw new IOException("Snapshot holds a different structure");
+        }
+        int compression = header.get(6);
+        if (compression < 0 || compression >= Compression.values().length) {
+            throw new IOException("Unknown snapshot compression " + compression);
+        }
+        if (Compression.values()[compression] == Compression.NONE) {
+            return new SnapshotInput(in, null);
+        }
+        Inflater inflater = new Inflater();
+        return new SnapshotInput(new InflaterInputStream(in, inflater, BUFFER_SIZE), inflater);
+    }
+
+    int readByte() throws IOException {
+        require(1);
+        return buffer.get(position++) & 0xff;
+    }
+
+    long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed snapshot");
+    }
+
+    int readLength() throws IOException {
+        long length = readVarint();
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Malformed snapshot");
+        }
+        return (int) length;
+    }
+
+    <T> T read(Codec<T> codec) throws IOException {
+        int length = readLength();
+        require(length);
+        T value = codec.decode(buffer, position, length);
+        position += length;
+        return value;
+    }
+
+    private void checksumConsumed() {
+        crc.update(buffer.array(), checked, position - checked);
+        checked = position;
+    }
+
+    // Makes at least length unread bytes available, refilling from the stream. The buffer grows only
+    // once it is full, so a corrupt length costs at most twice the bytes actually present, not length.
+    private void require(int length) throws IOException {
+        if (limit - position >= length) {
+            return;
+        }
+        checksumConsumed();
+        System.arraycopy(buffer.array(), position, buffer.array(), 0, limit - position);
+        limit -= position;
+        position = 0;
+        checked = 0;
+        while (limit < length) {
+            if (limit == buffer.capacity()) {
+                int capacity = (int) Math.min(length, 2L * buffer.capacity());
+                ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+                System.arraycopy(buffer.array(), 0, grown.array(), 0, limit);
+                buffer = grown;
+            }
+            int read = in.read(buffer.array(), limit, buffer.capacity() - limit);
+            if (read < 0) {
+                throw new EOFException("Snapshot is truncated");
+            }
+            limit += read;
+        }
+    }
+
+    // Verifies the trailing checksum. Bytes after the snapshot may already have been read from the stream.
+    void finish() throws IOException {
+        try {
+            checksumConsumed();
+            long expected = crc.getValue();
+            require(Integer.BYTES);
+            if ((buffer.getInt(position) & 0xffffffffL) != expected) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            position += Integer.BYTES;
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+}
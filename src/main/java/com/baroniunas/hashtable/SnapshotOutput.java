@@ -0,0 +1,94 @@
+package com.baroniunas.hashtable;
+
+import com.baroniunas.offheap.Codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Buffered, checksummed writer for the snapshot body. The caller's stream is never closed.
+class SnapshotOutput {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final OutputStream out;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private int position;
+
+    private SnapshotOutput(OutputStream out, Deflater deflater) {
+        this.out = out;
+        this.deflater = deflater;
+    }
+
+    // Writes the uncompressed header, then returns a writer for the body.
+    static SnapshotOutput open(OutputStream out, byte kind, Compression compression) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Stream cannot be null");
+        }
+        if (compression == null) {
+            throw new IllegalArgumentException("Compression cannot be null");
+        }
+        ByteBuffer header = ByteBuffer.allocate(Snapshot.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(Snapshot.MAGIC).put(Snapshot.VERSION).put(kind).put((byte) compression.ordinal());
+        out.write(header.array());
+        if (compression == Compression.NONE) {
+            return new SnapshotOutput(out, null);
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        return new SnapshotOutput(new DeflaterOutputStream(out, deflater, BUFFER_SIZE), deflater);
+    }
+
+    void writeByte(int value) throws IOException {
+        require(1);
+        buffer.put(position++, (byte) value);
+    }
+
+    // Unsigned LEB128.
+    void writeVarint(long value) throws IOException {
+        require(10);
+        while ((value & ~0x7fL) != 0) {
+            buffer.put(position++, (byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(position++, (byte) value);
+    }
+
+    <T> void write(Codec<T> codec, T value) throws IOException {
+        int length = codec.encodedSize(value);
+        writeVarint(length);
+        require(length);
+        codec.encode(value, buffer, position);
+        position += length;
+    }
+
+    private void require(int length) throws IOException {
+        if (position + length > buffer.capacity()) {
+            flushBuffer();
+            if (length > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        crc.update(buffer.array(), 0, position);
+        out.write(buffer.array(), 0, position);
+        position = 0;
+    }
+
+    // Appends the checksum of everything written so far and ends the compressed stream, if any.
+    void finish() throws IOException {
+        flushBuffer();
+        buffer.putInt(0, (int) crc.getValue());
+        out.write(buffer.array(), 0, Integer.BYTES);
+        if (deflater != null) {
+            ((DeflaterOutputStream) out).finish();
+            deflater.end();
+        }
+        out.flush();
+    }
+}
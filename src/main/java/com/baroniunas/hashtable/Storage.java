@@ -0,0 +1,15 @@
+package com.baroniunas.hashtable;
+
+/**
+ * Storage engines that can back a {@link Table}. {@code CHAINED} is the bucket array of
+ * {@code LinkedList}/{@code BTree} bins used by {@link HashTable}; {@code OPEN_ADDRESSING} keeps
+ * entries inline in parallel arrays, see {@link OpenAddressingHashTable}.
+ */
+public enum Storage {
+    CHAINED,
+    OPEN_ADDRESSING;
+
+    public <K extends Comparable<K>, V> Table<K, V> create() {
+        return this == CHAINED ? new HashTable<>() : new OpenAddressingHashTable<>();
+    }
+}
@@ -0,0 +1,9 @@
+package com.baroniunas.hashtable;
+
+public interface Table<K extends Comparable<K>, V> {
+
+    void put(K key, V value);
+    V getValue(K key);
+    V removePair(K key);
+    int getSize();
+}
@@ -0,0 +1,150 @@
+package com.baroniunas.hashtable;
+
+import java.util.Arrays;
+
+/**
+ * A point-in-time view of a {@link HashTable}'s health, taken by {@link HashTable#getMetrics()}.
+ * Structure, resize and treeify figures are always available. Probe counts and latencies come
+ * from sampled operations and stay zero unless sampling was enabled with
+ * {@link HashTable#setMetricsSampleInterval(int)} or the builder.
+ */
+public final class TableMetrics {
+    // Bucket lengths from 0 up to this are counted individually; longer buckets share the last slot.
+    public static final int MAX_TRACKED_BUCKET_LENGTH = 16;
+
+    private final int size;
+    private final int capacity;
+    private final int occupiedBuckets;
+    private final long[] bucketLengthHistogram;
+    private final int treeBinCount;
+    private final int maxBucketLength;
+    private final int resizeCount;
+    private final long totalResizeNanos;
+    private final long maxResizeNanos;
+    private final int treeifyCount;
+    private final int sampleInterval;
+    private final long probedLookups;
+    private final double meanProbes;
+    private final double meanComparisons;
+    private final int maxComparisons;
+    private final LatencySnapshot getLatency;
+    private final LatencySnapshot putLatency;
+    private final LatencySnapshot removeLatency;
+
+    TableMetrics(int size, int capacity, int occupiedBuckets, long[] bucketLengthHistogram, int treeBinCount,
+                 int maxBucketLength, int resizeCount, long totalResizeNanos, long maxResizeNanos, int treeifyCount,
+                 OperationSampler sampler) {
+        this.size = size;
+        this.capacity = capacity;
+        this.occupiedBuckets = occupiedBuckets;
+        this.bucketLengthHistogram = bucketLengthHistogram;
+        this.treeBinCount = treeBinCount;
+        this.maxBucketLength = maxBucketLength;
+        this.resizeCount = resizeCount;
+        this.totalResizeNanos = totalResizeNanos;
+        this.maxResizeNanos = maxResizeNanos;
+        this.treeifyCount = treeifyCount;
+        OperationSampler samples = sampler == null ? new OperationSampler(0) : sampler;
+        this.sampleInterval = samples.getInterval();
+        this.probedLookups = samples.getProbedLookups();
+        this.meanProbes = samples.getMeanProbes();
+        this.meanComparisons = samples.getMeanComparisons();
+        this.maxComparisons = samples.getMaxComparisons();
+        this.getLatency = samples.getLatency.snapshot();
+        this.putLatency = samples.putLatency.snapshot();
+        this.removeLatency = samples.removeLatency.snapshot();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Buckets in the current array, excluding the old array of a resize still in progress.
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getOccupiedBuckets() {
+        return occupiedBuckets;
+    }
+
+    // Entries per bucket; compare with HashTable.getLoadFactor(), the ratio that triggers a resize.
+    public double getLoadFactor() {
+        return capacity == 0 ? 0 : (double) size / capacity;
+    }
+
+    // Element i is the number of buckets holding exactly i entries; the last element counts all longer ones.
+    public long[] getBucketLengthHistogram() {
+        return bucketLengthHistogram.clone();
+    }
+
+    public int getTreeBinCount() {
+        return treeBinCount;
+    }
+
+    public int getMaxBucketLength() {
+        return maxBucketLength;
+    }
+
+    public int getResizeCount() {
+        return resizeCount;
+    }
+
+    // For incremental resizes this is the time from starting to finishing a migration, not time spent migrating.
+    public long getTotalResizeNanos() {
+        return totalResizeNanos;
+    }
+
+    public long getMaxResizeNanos() {
+        return maxResizeNanos;
+    }
+
+    public int getTreeifyCount() {
+        return treeifyCount;
+    }
+
+    // One operation in this many is sampled; 0 when sampling is off.
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public long getProbedLookups() {
+        return probedLookups;
+    }
+
+    // Bucket arrays read per sampled lookup: 2 while the key's old bucket is still waiting to migrate.
+    public double getMeanProbes() {
+        return meanProbes;
+    }
+
+    // Keys compared per sampled lookup, hits and misses together.
+    public double getMeanComparisons() {
+        return meanComparisons;
+    }
+
+    public int getMaxComparisons() {
+        return maxComparisons;
+    }
+
+    public LatencySnapshot getGetLatency() {
+        return getLatency;
+    }
+
+    public LatencySnapshot getPutLatency() {
+        return putLatency;
+    }
+
+    public LatencySnapshot getRemoveLatency() {
+        return removeLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size + " capacity=" + capacity + " occupiedBuckets=" + occupiedBuckets
+                + " loadFactor=" + String.format("%.3f", getLoadFactor())
+                + " bucketLengths=" + Arrays.toString(bucketLengthHistogram) + " treeBins=" + treeBinCount
+                + " resizes=" + resizeCount + " resizeNanos=" + totalResizeNanos
+                + " meanComparisons=" + String.format("%.2f", meanComparisons)
+                + " get=[" + getLatency + "] put=[" + putLatency + "] remove=[" + removeLatency + "]";
+    }
+}
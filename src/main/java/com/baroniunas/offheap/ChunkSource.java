@@ -0,0 +1,12 @@
+package com.baroniunas.offheap;
+
+import java.nio.ByteBuffer;
+
+// Supplies the buffers that back a Memory region, one chunk at a time.
+interface ChunkSource {
+
+    // A little-endian buffer of exactly size bytes covering [position, position + size) of the region.
+    ByteBuffer open(long position, int size);
+
+    void close();
+}
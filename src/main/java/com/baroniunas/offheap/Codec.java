@@ -0,0 +1,109 @@
+package com.baroniunas.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns keys and values into bytes for the off-heap tables. Reads and writes use absolute
+ * offsets into a little-endian buffer, so codecs never move the buffer's position. Keys are
+ * compared by their encoded bytes, so equal keys must always encode to the same bytes.
+ */
+public interface Codec<T> {
+
+    int encodedSize(T value);
+
+    void encode(T value, ByteBuffer buffer, int offset);
+
+    T decode(ByteBuffer buffer, int offset, int length);
+
+    Codec<Integer> INTEGER = new Codec<>() {
+        @Override
+        public int encodedSize(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer buffer, int offset) {
+            buffer.putInt(offset, value);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    Codec<Long> LONG = new Codec<>() {
+        @Override
+        public int encodedSize(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    // UTF-8; unpaired surrogates become '?' exactly as String.getBytes does.
+    Codec<String> STRING = new Codec<>() {
+        @Override
+        public int encodedSize(String value) {
+            int size = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    size++;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    size += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    size++;
+                } else {
+                    size += 3;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer buffer, int offset) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.put(offset, bytes);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int offset, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    Codec<byte[]> BYTES = new Codec<>() {
+        @Override
+        public int encodedSize(byte[] value) {
+            return value.length;
+        }
+
+        @Override
+        public void encode(byte[] value, ByteBuffer buffer, int offset) {
+            buffer.put(offset, value);
+        }
+
+        @Override
+        public byte[] decode(ByteBuffer buffer, int offset, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return bytes;
+        }
+    };
+}
@@ -0,0 +1,16 @@
+package com.baroniunas.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+class DirectChunkSource implements ChunkSource {
+
+    @Override
+    public ByteBuffer open(long position, int size) {
+        return ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void close() {
+    }
+}
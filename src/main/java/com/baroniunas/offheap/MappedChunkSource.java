@@ -0,0 +1,34 @@
+package com.baroniunas.offheap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// Maps chunks of a file; mapping past the end of the file extends it.
+class MappedChunkSource implements ChunkSource {
+    private final FileChannel channel;
+
+    MappedChunkSource(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public ByteBuffer open(long position, int size) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, size).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
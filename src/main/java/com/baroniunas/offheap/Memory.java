@@ -0,0 +1,293 @@
+package com.baroniunas.offheap;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A growable region of off-heap memory made of chunks of up to 1 GiB, addressed by a
+ * {@code long} whose upper bits select the chunk. Address {@code 0} is the header and doubles
+ * as the null address. Blocks are rounded to size classes and recycled through per-class free
+ * lists; a block never crosses a chunk boundary. The allocator and table state live in the
+ * header rather than on the heap, so the region describes itself and can be reopened from a file.
+ *
+ * <p>A file-backed region is marked dirty, and that mark is forced to disk, before the first change
+ * after a flush. {@link #flush()} forces every chunk and only then writes the clean mark and a
+ * checksum of the header, so a region that reopens as clean was completely on disk.
+ */
+class Memory implements AutoCloseable {
+    static final int CHUNK_BITS = 30;
+    static final int MAXIMUM_CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAXIMUM_CHUNKS = 1024;
+    // Blocks up to this size are rounded to 8 bytes; larger ones to a power of two.
+    private static final int SMALL_LIMIT = 512;
+    private static final int CLASS_COUNT = SMALL_LIMIT / 8 + (CHUNK_BITS - 9);
+
+    private static final long MAGIC = 0x4c50414548464f42L;
+    static final int VERSION = 1;
+    private static final int CLEAN = 1;
+    private static final int DIRTY = 2;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int STATE_OFFSET = 12;
+    // CRC32 of the header with the state and checksum fields left out.
+    private static final int CHECKSUM_OFFSET = 16;
+    static final int SIZE_OFFSET = 24;
+    static final int BUCKETS_OFFSET = 32;
+    static final int BUCKET_COUNT_OFFSET = 40;
+    private static final int CHUNK_COUNT_OFFSET = 44;
+    private static final int TOP_OFFSET = 48;
+    private static final int FREE_LISTS_OFFSET = 56;
+    private static final int CHUNK_SIZES_OFFSET = FREE_LISTS_OFFSET + CLASS_COUNT * Long.BYTES;
+    static final int HEADER_SIZE = CHUNK_SIZES_OFFSET + MAXIMUM_CHUNKS * Integer.BYTES;
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Without it, closed chunks are released when the garbage collector finds them.
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final ChunkSource source;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer header;
+    private long top;
+    private long mappedBytes;
+    private boolean dirty;
+
+    private Memory(ChunkSource source) {
+        this.source = source;
+    }
+
+    static Memory create(ChunkSource source, int initialChunkSize) {
+        Memory memory = new Memory(source);
+        int size = Math.max(blockSize(HEADER_SIZE) * 2, initialChunkSize);
+        memory.addChunk(size);
+        memory.header.putLong(MAGIC_OFFSET, MAGIC);
+        memory.header.putInt(VERSION_OFFSET, VERSION);
+        memory.top = HEADER_SIZE;
+        memory.header.putLong(TOP_OFFSET, memory.top);
+        memory.markDirty();
+        return memory;
+    }
+
+    // Maps an existing region, checking its header before trusting any address in it.
+    static Memory open(ChunkSource source, long length) throws IOException {
+        if (length < HEADER_SIZE) {
+            throw new IOException("Not a hash table file");
+        }
+        ByteBuffer probe = source.open(0, HEADER_SIZE);
+        try {
+            if (probe.getLong(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a hash table file");
+            }
+            int version = probe.getInt(VERSION_OFFSET);
+            if (version != VERSION) {
+                throw new IOException("Unsupported file version " + version);
+            }
+            if (probe.getInt(STATE_OFFSET) != CLEAN) {
+                throw new IOException("File was not closed cleanly");
+            }
+            if (probe.getLong(CHECKSUM_OFFSET) != checksum(probe)) {
+                throw new IOException("Header checksum mismatch");
+            }
+            Memory memory = new Memory(source);
+            int chunkCount = probe.getInt(CHUNK_COUNT_OFFSET);
+            long total = 0;
+            for (int index = 0; index < chunkCount; index++) {
+                total += probe.getInt(CHUNK_SIZES_OFFSET + index * Integer.BYTES);
+            }
+            if (chunkCount < 1 || chunkCount > MAXIMUM_CHUNKS || total > length) {
+                throw new IOException("File is truncated");
+            }
+            for (int index = 0; index < chunkCount; index++) {
+                int size = probe.getInt(CHUNK_SIZES_OFFSET + index * Integer.BYTES);
+                memory.chunks.add(source.open(memory.mappedBytes, size));
+                memory.mappedBytes += size;
+            }
+            memory.header = memory.chunks.get(0);
+            memory.top = memory.header.getLong(TOP_OFFSET);
+            return memory;
+        } finally {
+            release(probe);
+        }
+    }
+
+    private static long checksum(ByteBuffer header) {
+        CRC32 crc = new CRC32();
+        crc.update(header.duplicate().position(MAGIC_OFFSET).limit(STATE_OFFSET));
+        crc.update(header.duplicate().position(SIZE_OFFSET).limit(HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    // Must be called before every change; only the first one after a flush does any work.
+    void markDirty() {
+        if (!dirty) {
+            dirty = true;
+            header.putInt(STATE_OFFSET, DIRTY);
+            force(header);
+        }
+    }
+
+    // Writes every chunk back to its file, then records the header as clean. A no-op for direct memory.
+    void flush() {
+        for (ByteBuffer chunk : chunks) {
+            force(chunk);
+        }
+        header.putLong(CHECKSUM_OFFSET, checksum(header));
+        header.putInt(STATE_OFFSET, CLEAN);
+        force(header);
+        dirty = false;
+    }
+
+    private static void force(ByteBuffer chunk) {
+        if (chunk instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) chunk).force();
+        }
+    }
+
+    private void addChunk(int size) {
+        int index = chunks.size();
+        if (index == MAXIMUM_CHUNKS) {
+            throw new IllegalStateException("Memory cannot grow beyond " + MAXIMUM_CHUNKS + " chunks");
+        }
+        ByteBuffer chunk = source.open(mappedBytes, size);
+        chunks.add(chunk);
+        if (index == 0) {
+            header = chunk;
+        }
+        mappedBytes += size;
+        header.putInt(CHUNK_SIZES_OFFSET + index * Integer.BYTES, size);
+        header.putInt(CHUNK_COUNT_OFFSET, chunks.size());
+    }
+
+    ByteBuffer header() {
+        return header;
+    }
+
+    ByteBuffer chunk(long address) {
+        return chunks.get((int) (address >>> CHUNK_BITS));
+    }
+
+    static int offset(long address) {
+        return (int) (address & (MAXIMUM_CHUNK_SIZE - 1));
+    }
+
+    long getLong(long address) {
+        return chunk(address).getLong(offset(address));
+    }
+
+    void putLong(long address, long value) {
+        chunk(address).putLong(offset(address), value);
+    }
+
+    int getInt(long address) {
+        return chunk(address).getInt(offset(address));
+    }
+
+    void putInt(long address, int value) {
+        chunk(address).putInt(offset(address), value);
+    }
+
+    // Bytes reserved from the chunk source, used or not.
+    long getReservedBytes() {
+        return mappedBytes;
+    }
+
+    static int blockSize(int length) {
+        int rounded = (length + 7) & ~7;
+        if (rounded <= SMALL_LIMIT) {
+            return Math.max(rounded, 8);
+        }
+        return Integer.highestOneBit(rounded - 1) << 1;
+    }
+
+    private static int sizeClass(int blockSize) {
+        if (blockSize <= SMALL_LIMIT) {
+            return blockSize / 8 - 1;
+        }
+        return SMALL_LIMIT / 8 + Integer.numberOfTrailingZeros(blockSize) - 10;
+    }
+
+    // Returns the address of a block of at least length bytes. Its contents are undefined.
+    long allocate(int length) {
+        if (length > MAXIMUM_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Block cannot be larger than " + MAXIMUM_CHUNK_SIZE + " bytes");
+        }
+        int size = blockSize(length);
+        int freeList = FREE_LISTS_OFFSET + sizeClass(size) * Long.BYTES;
+        long free = header.getLong(freeList);
+        if (free != 0) {
+            header.putLong(freeList, getLong(free));
+            return free;
+        }
+        ByteBuffer last = chunks.get(chunks.size() - 1);
+        long used = top - ((long) (chunks.size() - 1) << CHUNK_BITS);
+        if (used + size > last.capacity()) {
+            int next = (int) Math.min(MAXIMUM_CHUNK_SIZE, (long) last.capacity() * 2);
+            addChunk(Math.max(next, size));
+            top = (long) (chunks.size() - 1) << CHUNK_BITS;
+        }
+        long address = top;
+        top += size;
+        header.putLong(TOP_OFFSET, top);
+        return address;
+    }
+
+    void free(long address, int length) {
+        int freeList = FREE_LISTS_OFFSET + sizeClass(blockSize(length)) * Long.BYTES;
+        putLong(address, header.getLong(freeList));
+        header.putLong(freeList, address);
+    }
+
+    void fill(long address, int length, byte value) {
+        ByteBuffer chunk = chunk(address);
+        int offset = offset(address);
+        long pattern = (value & 0xffL) * 0x0101010101010101L;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            chunk.putLong(offset + i, pattern);
+        }
+        for (; i < length; i++) {
+            chunk.put(offset + i, value);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ByteBuffer chunk : chunks) {
+            release(chunk);
+        }
+        chunks.clear();
+        header = null;
+        source.close();
+    }
+
+    private static void release(ByteBuffer buffer) {
+        if (INVOKE_CLEANER != null && buffer.isDirect()) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException e) {
+                // Left to the garbage collector.
+            }
+        }
+    }
+}
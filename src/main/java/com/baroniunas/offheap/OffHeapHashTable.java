@@ -0,0 +1,369 @@
+package com.baroniunas.offheap;
+
+import com.baroniunas.hashtable.Table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * Chained hash table whose bucket array and entries live outside the Java heap, so the garbage
+ * collector only sees this handle however many entries it holds. Keys and values are stored as
+ * bytes produced by a {@link Codec}; lookups encode the key once and compare encoded bytes, and
+ * reads decode a fresh value object. Memory is released by {@link #close()}, after which every
+ * operation throws. Like {@code HashTable}, it is not thread-safe.
+ *
+ * <p>A table made by {@link #create} lives in a memory-mapped file instead and survives the
+ * process: {@link #flush()} makes it durable and {@link #open} maps it back without rebuilding it.
+ */
+public class OffHeapHashTable<K extends Comparable<K>, V> implements Table<K, V>, AutoCloseable {
+    private static final int INITIAL_CAPACITY = 16;
+    // The bucket array is one block, so it has to fit in a single chunk.
+    private static final int MAXIMUM_CAPACITY = Memory.MAXIMUM_CHUNK_SIZE / Long.BYTES;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int INITIAL_CHUNK_SIZE = 1 << 20;
+    // Entry layout: next entry address, key hash, key length, value length, padding, key bytes, value bytes.
+    private static final int NEXT = 0;
+    private static final int HASH = 8;
+    private static final int KEY_LENGTH = 12;
+    private static final int VALUE_LENGTH = 16;
+    private static final int ENTRY_HEADER = 24;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private Memory memory;
+    private long buckets;
+    private int mask;
+    private int threshold;
+    private int size;
+    // The key of the current operation, encoded once.
+    private ByteBuffer scratch = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+    private int scratchLength;
+    private int scratchHash;
+
+    public OffHeapHashTable(Codec<K> keyCodec, Codec<V> valueCodec) {
+        this(keyCodec, valueCodec, 0);
+    }
+
+    public OffHeapHashTable(Codec<K> keyCodec, Codec<V> valueCodec, int expectedSize) {
+        this(keyCodec, valueCodec, Memory.create(new DirectChunkSource(), INITIAL_CHUNK_SIZE));
+        initialize(expectedSize);
+    }
+
+    private OffHeapHashTable(Codec<K> keyCodec, Codec<V> valueCodec, Memory memory) {
+        if (keyCodec == null || valueCodec == null) {
+            throw new IllegalArgumentException("Codec cannot be null");
+        }
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.memory = memory;
+    }
+
+    // Creates a table in a new memory-mapped file. The file must not exist yet.
+    public static <K extends Comparable<K>, V> OffHeapHashTable<K, V> create(
+            Path file, Codec<K> keyCodec, Codec<V> valueCodec, int expectedSize) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            OffHeapHashTable<K, V> table = new OffHeapHashTable<>(keyCodec, valueCodec,
+                    Memory.create(new MappedChunkSource(channel), INITIAL_CHUNK_SIZE));
+            table.initialize(expectedSize);
+            table.flush();
+            return table;
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps a file written by a table created with {@link #create}. Nothing is read beyond the
+     * header, so opening takes the same time whatever the file size; pages are loaded on first
+     * access. Fails if the file was not flushed after its last change. A file must not be open in
+     * two tables that write to it at the same time.
+     */
+    public static <K extends Comparable<K>, V> OffHeapHashTable<K, V> open(
+            Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            OffHeapHashTable<K, V> table = new OffHeapHashTable<>(keyCodec, valueCodec,
+                    Memory.open(new MappedChunkSource(channel), channel.size()));
+            ByteBuffer header = table.memory.header();
+            int capacity = header.getInt(Memory.BUCKET_COUNT_OFFSET);
+            table.buckets = header.getLong(Memory.BUCKETS_OFFSET);
+            table.mask = capacity - 1;
+            table.threshold = capacity == MAXIMUM_CAPACITY ? Integer.MAX_VALUE : (int) (capacity * LOAD_FACTOR);
+            table.size = (int) header.getLong(Memory.SIZE_OFFSET);
+            return table;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void initialize(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        int capacity = capacityFor(expectedSize);
+        setBuckets(allocateBuckets(capacity), capacity);
+    }
+
+    static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        if (needed >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(INITIAL_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    private long allocateBuckets(int capacity) {
+        long address = memory.allocate(capacity * Long.BYTES);
+        memory.fill(address, capacity * Long.BYTES, (byte) 0);
+        return address;
+    }
+
+    private void setBuckets(long address, int capacity) {
+        buckets = address;
+        mask = capacity - 1;
+        threshold = capacity == MAXIMUM_CAPACITY ? Integer.MAX_VALUE : (int) (capacity * LOAD_FACTOR);
+        ByteBuffer header = memory.header();
+        header.putLong(Memory.BUCKETS_OFFSET, address);
+        header.putInt(Memory.BUCKET_COUNT_OFFSET, capacity);
+    }
+
+    // Same result on every JVM, so hashes stored in the entries stay valid wherever the bytes are read.
+    static int hash(ByteBuffer buffer, int offset, int length) {
+        long h = length * 0x9E3779B97F4A7C15L;
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            h = (h ^ buffer.getLong(offset + i)) * 0xbf58476d1ce4e5b9L;
+            h ^= h >>> 31;
+        }
+        for (; i < length; i++) {
+            h = (h ^ (buffer.get(offset + i) & 0xff)) * 0x94d049bb133111ebL;
+        }
+        h ^= h >>> 29;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void encodeKey(K key) {
+        int length = keyCodec.encodedSize(key);
+        if (length > scratch.capacity()) {
+            scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        keyCodec.encode(key, scratch, 0);
+        scratchLength = length;
+        scratchHash = hash(scratch, 0, length);
+    }
+
+    // Address of the link pointing at the entry for the encoded key, or 0 if there is none.
+    private long findLink() {
+        long link = buckets + (long) (scratchHash & mask) * Long.BYTES;
+        long entry;
+        while ((entry = memory.getLong(link)) != 0) {
+            if (matches(entry)) {
+                return link;
+            }
+            link = entry + NEXT;
+        }
+        return 0;
+    }
+
+    private boolean matches(long entry) {
+        ByteBuffer chunk = memory.chunk(entry);
+        int offset = Memory.offset(entry);
+        if (chunk.getInt(offset + HASH) != scratchHash || chunk.getInt(offset + KEY_LENGTH) != scratchLength) {
+            return false;
+        }
+        offset += ENTRY_HEADER;
+        int i = 0;
+        for (; i + Long.BYTES <= scratchLength; i += Long.BYTES) {
+            if (chunk.getLong(offset + i) != scratch.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < scratchLength; i++) {
+            if (chunk.get(offset + i) != scratch.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        ensureOpen();
+        memory.markDirty();
+        encodeKey(key);
+        int valueLength = valueCodec.encodedSize(value);
+        long link = findLink();
+        if (link != 0) {
+            long entry = memory.getLong(link);
+            int oldLength = ENTRY_HEADER + scratchLength + memory.getInt(entry + VALUE_LENGTH);
+            int newLength = ENTRY_HEADER + scratchLength + valueLength;
+            if (Memory.blockSize(oldLength) == Memory.blockSize(newLength)) {
+                ByteBuffer chunk = memory.chunk(entry);
+                int offset = Memory.offset(entry);
+                chunk.putInt(offset + VALUE_LENGTH, valueLength);
+                valueCodec.encode(value, chunk, offset + ENTRY_HEADER + scratchLength);
+            } else {
+                // The value no longer fits the entry's block, so the entry moves to a new one.
+                memory.putLong(link, writeEntry(memory.getLong(entry + NEXT), value, valueLength));
+                memory.free(entry, oldLength);
+            }
+            return;
+        }
+        long bucket = buckets + (long) (scratchHash & mask) * Long.BYTES;
+        memory.putLong(bucket, writeEntry(memory.getLong(bucket), value, valueLength));
+        setSize(size + 1);
+        if (size > threshold) {
+            resize();
+        }
+    }
+
+    private long writeEntry(long next, V value, int valueLength) {
+        long entry = memory.allocate(ENTRY_HEADER + scratchLength + valueLength);
+        ByteBuffer chunk = memory.chunk(entry);
+        int offset = Memory.offset(entry);
+        chunk.putLong(offset + NEXT, next);
+        chunk.putInt(offset + HASH, scratchHash);
+        chunk.putInt(offset + KEY_LENGTH, scratchLength);
+        chunk.putInt(offset + VALUE_LENGTH, valueLength);
+        chunk.put(offset + ENTRY_HEADER, scratch, 0, scratchLength);
+        valueCodec.encode(value, chunk, offset + ENTRY_HEADER + scratchLength);
+        return entry;
+    }
+
+    @Override
+    public V getValue(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        ensureOpen();
+        encodeKey(key);
+        long link = findLink();
+        return link == 0 ? null : readValue(memory.getLong(link));
+    }
+
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        ensureOpen();
+        encodeKey(key);
+        return findLink() != 0;
+    }
+
+    private V readValue(long entry) {
+        ByteBuffer chunk = memory.chunk(entry);
+        int offset = Memory.offset(entry);
+        int keyLength = chunk.getInt(offset + KEY_LENGTH);
+        return valueCodec.decode(chunk, offset + ENTRY_HEADER + keyLength, chunk.getInt(offset + VALUE_LENGTH));
+    }
+
+    @Override
+    public V removePair(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        ensureOpen();
+        memory.markDirty();
+        encodeKey(key);
+        long link = findLink();
+        if (link == 0) {
+            return null;
+        }
+        long entry = memory.getLong(link);
+        V value = readValue(entry);
+        memory.putLong(link, memory.getLong(entry + NEXT));
+        memory.free(entry, ENTRY_HEADER + scratchLength + memory.getInt(entry + VALUE_LENGTH));
+        setSize(size - 1);
+        return value;
+    }
+
+    // Relinks every entry into a bucket array twice the size; entries themselves are not copied.
+    private void resize() {
+        int oldCapacity = mask + 1;
+        if (oldCapacity == MAXIMUM_CAPACITY) {
+            return;
+        }
+        int capacity = oldCapacity * 2;
+        long oldBuckets = buckets;
+        long newBuckets = allocateBuckets(capacity);
+        for (int index = 0; index < oldCapacity; index++) {
+            long entry = memory.getLong(oldBuckets + (long) index * Long.BYTES);
+            while (entry != 0) {
+                long next = memory.getLong(entry + NEXT);
+                long bucket = newBuckets + (long) (memory.getInt(entry + HASH) & (capacity - 1)) * Long.BYTES;
+                memory.putLong(entry + NEXT, memory.getLong(bucket));
+                memory.putLong(bucket, entry);
+                entry = next;
+            }
+        }
+        setBuckets(newBuckets, capacity);
+        memory.free(oldBuckets, oldCapacity * Long.BYTES);
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        ensureOpen();
+        for (int index = 0; index <= mask; index++) {
+            for (long entry = memory.getLong(buckets + (long) index * Long.BYTES); entry != 0;
+                 entry = memory.getLong(entry + NEXT)) {
+                ByteBuffer chunk = memory.chunk(entry);
+                int offset = Memory.offset(entry);
+                int keyLength = chunk.getInt(offset + KEY_LENGTH);
+                action.accept(keyCodec.decode(chunk, offset + ENTRY_HEADER, keyLength), readValue(entry));
+            }
+        }
+    }
+
+    private void setSize(int size) {
+        this.size = size;
+        memory.header().putLong(Memory.SIZE_OFFSET, size);
+    }
+
+    private void ensureOpen() {
+        if (memory == null) {
+            throw new IllegalStateException("Table is closed");
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    // Off-heap bytes held by the table, including free space not yet reused.
+    public long getReservedBytes() {
+        ensureOpen();
+        return memory.getReservedBytes();
+    }
+
+    // Writes a file-backed table to disk so that it can be reopened; does nothing useful for direct memory.
+    public void flush() {
+        ensureOpen();
+        memory.flush();
+    }
+
+    // A file-backed table is flushed first.
+    @Override
+    public void close() {
+        if (memory != null) {
+            memory.flush();
+            memory.close();
+            memory = null;
+        }
+    }
+}
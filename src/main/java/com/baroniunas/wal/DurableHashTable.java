@@ -0,0 +1,320 @@
+package com.baroniunas.wal;
+
+import com.baroniunas.hashtable.Compression;
+import com.baroniunas.hashtable.HashTable;
+import com.baroniunas.hashtable.Snapshot;
+import com.baroniunas.hashtable.Table;
+import com.baroniunas.offheap.Codec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link HashTable} whose changes survive a crash. Every {@code put} and {@code removePair} is
+ * appended to a write-ahead log before it is applied. The log is forced to disk once per batch of
+ * {@code syncEvery} records or once {@code syncInterval} has passed since the last sync, checked
+ * on each write; {@link #sync()} forces it immediately. A change is durable once it has been
+ * synced. When the current log segment passes {@code checkpointBytes}, the table is written as a
+ * {@link Snapshot} and a new segment is started, so recovery replays at most one segment.
+ *
+ * <p>The directory holds {@code checkpoint-N.snap} and {@code wal-N.log} files. A checkpoint N
+ * holds every change logged in segments before N. Opening loads the newest checkpoint and replays
+ * the segments from N on, cutting off a torn record at the end of the last one. Like
+ * {@code HashTable}, the table is not thread-safe, and a directory must be open in one table at a time.
+ */
+public class DurableHashTable<K extends Comparable<K>, V> implements Table<K, V>, AutoCloseable {
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".snap";
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int syncEvery;
+    private final long syncIntervalNanos;
+    private final long checkpointBytes;
+    private final HashTable<K, V> table;
+    private WriteAheadLog<K, V> log;
+    private long segment;
+    private int unsyncedRecords;
+    private long lastSync;
+    private int checkpointCount;
+
+    private DurableHashTable(Builder<K, V> builder) throws IOException {
+        this.directory = builder.directory;
+        this.keyCodec = builder.keyCodec;
+        this.valueCodec = builder.valueCodec;
+        this.syncEvery = builder.syncEvery;
+        this.syncIntervalNanos = builder.syncInterval.toNanos();
+        this.checkpointBytes = builder.checkpointBytes;
+        Files.createDirectories(directory);
+
+        List<Long> checkpoints = list(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+        List<Long> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        segment = checkpoints.isEmpty() ? 0 : checkpoints.get(checkpoints.size() - 1);
+        if (checkpoints.isEmpty()) {
+            table = new HashTable<>();
+        } else {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(checkpoint(segment)))) {
+                table = Snapshot.readHashTable(in, keyCodec, valueCodec);
+            }
+        }
+
+        long validLength = 0;
+        for (long number : segments) {
+            if (number < segment) {
+                continue;
+            }
+            long length = WriteAheadLog.replay(segment(number), keyCodec, valueCodec, table);
+            if (number != segments.get(segments.size() - 1) && length != Files.size(segment(number))) {
+                throw new IOException("Log segment " + segment(number) + " is damaged");
+            }
+            segment = number;
+            validLength = length;
+        }
+        log = WriteAheadLog.open(segment(segment), validLength, keyCodec, valueCodec);
+        lastSync = System.nanoTime();
+        deleteBefore(segment);
+    }
+
+    public static <K extends Comparable<K>, V> Builder<K, V> builder(Path directory, Codec<K> keyCodec, Codec<V> valueCodec) {
+        return new Builder<>(directory, keyCodec, valueCodec);
+    }
+
+    private List<Long> list(String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    // Left by a checkpoint that did not finish.
+                    Files.delete(file);
+                } else if (name.startsWith(prefix) && name.endsWith(suffix)) {
+                    numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                }
+            }
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path checkpoint(long number) {
+        return directory.resolve(String.format("%s%020d%s", CHECKPOINT_PREFIX, number, CHECKPOINT_SUFFIX));
+    }
+
+    private Path segment(long number) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key or value cannot be null");
+        }
+        ensureOpen();
+        try {
+            log.append(WriteAheadLog.PUT, key, value);
+            table.put(key, value);
+            afterAppend();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public V removePair(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        ensureOpen();
+        V value = table.getValue(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            log.append(WriteAheadLog.REMOVE, key, null);
+            table.removePair(key);
+            afterAppend();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return value;
+    }
+
+    private void afterAppend() throws IOException {
+        if (++unsyncedRecords >= syncEvery || System.nanoTime() - lastSync >= syncIntervalNanos) {
+            sync();
+        }
+        if (log.getSize() >= checkpointBytes) {
+            checkpoint();
+        }
+    }
+
+    // Forces every change made so far to disk.
+    public void sync() throws IOException {
+        ensureOpen();
+        log.sync();
+        unsyncedRecords = 0;
+        lastSync = System.nanoTime();
+    }
+
+    /**
+     * Writes the whole table as checkpoint N+1 next to the current segment N, then starts segment
+     * N+1 and deletes everything older. The snapshot is written to a temporary file and renamed
+     * once it is on disk, so a crash at any point leaves either the old or the new checkpoint.
+     */
+    public void checkpoint() throws IOException {
+        ensureOpen();
+        sync();
+        long next = segment + 1;
+        Path temporary = directory.resolve(checkpoint(next).getFileName() + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+            Snapshot.writeTo(table, out, keyCodec, valueCodec, Compression.NONE);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, checkpoint(next), StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+
+        WriteAheadLog<K, V> previous = log;
+        log = WriteAheadLog.open(segment(next), 0, keyCodec, valueCodec);
+        segment = next;
+        previous.close();
+        deleteBefore(next);
+        checkpointCount++;
+    }
+
+    // Makes the rename durable where the platform allows opening a directory; elsewhere this is best effort.
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on this platform.
+        }
+    }
+
+    private void deleteBefore(long number) throws IOException {
+        for (long older : list(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX)) {
+            if (older < number) {
+                Files.deleteIfExists(checkpoint(older));
+            }
+        }
+        for (long older : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (older < number) {
+                Files.deleteIfExists(segment(older));
+            }
+        }
+    }
+
+    @Override
+    public V getValue(K key) {
+        ensureOpen();
+        return table.getValue(key);
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        ensureOpen();
+        table.forEach(action);
+    }
+
+    @Override
+    public int getSize() {
+        return table.getSize();
+    }
+
+    public int getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    private void ensureOpen() {
+        if (log == null) {
+            throw new IllegalStateException("Table is closed");
+        }
+    }
+
+    // Syncs the log; reopening replays it, so close does not checkpoint.
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+
+    // Drops the file handles without syncing, leaving the directory as a crash would.
+    void crash() throws IOException {
+        log.abandon();
+        log = null;
+    }
+
+    public static class Builder<K extends Comparable<K>, V> {
+        private final Path directory;
+        private final Codec<K> keyCodec;
+        private final Codec<V> valueCodec;
+        private int syncEvery = 64;
+        private Duration syncInterval = Duration.ofMillis(10);
+        private long checkpointBytes = 64L << 20;
+
+        private Builder(Path directory, Codec<K> keyCodec, Codec<V> valueCodec) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory cannot be null");
+            }
+            if (keyCodec == null || valueCodec == null) {
+                throw new IllegalArgumentException("Codec cannot be null");
+            }
+            this.directory = directory;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+
+        // Records per fsync; 1 syncs every change before the call returns.
+        public Builder<K, V> syncEvery(int records) {
+            if (records < 1) {
+                throw new IllegalArgumentException("Sync batch must be at least 1");
+            }
+            this.syncEvery = records;
+            return this;
+        }
+
+        // Longest time a change may stay unsynced while writes keep arriving.
+        public Builder<K, V> syncInterval(Duration syncInterval) {
+            if (syncInterval == null || syncInterval.isNegative()) {
+                throw new IllegalArgumentException("Sync interval cannot be negative");
+            }
+            this.syncInterval = syncInterval;
+            return this;
+        }
+
+        // Log segment size that triggers a checkpoint.
+        public Builder<K, V> checkpointBytes(long checkpointBytes) {
+            if (checkpointBytes < 1) {
+                throw new IllegalArgumentException("Checkpoint size must be positive");
+            }
+            this.checkpointBytes = checkpointBytes;
+            return this;
+        }
+
+        // Recovers whatever the directory holds and returns the table ready for writes.
+        public DurableHashTable<K, V> open() throws IOException {
+            return new DurableHashTable<>(this);
+        }
+    }
+}
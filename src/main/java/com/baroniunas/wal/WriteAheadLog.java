@@ -0,0 +1,165 @@
+package com.baroniunas.wal;
+
+import com.baroniunas.hashtable.Table;
+import com.baroniunas.offheap.Codec;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only log segment. A record is its payload length and the CRC32 of its payload,
+ * followed by the payload: operation, key length, key, and for puts the value length and value.
+ * Records collect in a buffer and reach the file on {@link #sync()}, which is also the only
+ * point where the file is forced to disk, so many records share one fsync.
+ */
+class WriteAheadLog<K, V> implements AutoCloseable {
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long size;
+
+    private WriteAheadLog(FileChannel channel, long size, Codec<K> keyCodec, Codec<V> valueCodec) {
+        this.channel = channel;
+        this.size = size;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+    }
+
+    // Opens a segment for appending after its first length bytes; anything beyond them is cut off.
+    static <K, V> WriteAheadLog<K, V> open(Path file, long length, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() > length) {
+                channel.truncate(length);
+                channel.force(false);
+            }
+            channel.position(length);
+            return new WriteAheadLog<>(channel, length, keyCodec, valueCodec);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    void append(byte operation, K key, V value) throws IOException {
+        int keyLength = keyCodec.encodedSize(key);
+        int valueLength = operation == PUT ? valueCodec.encodedSize(value) : 0;
+        int payloadLength = 1 + Integer.BYTES + keyLength + (operation == PUT ? Integer.BYTES + valueLength : 0);
+        int recordLength = RECORD_HEADER + payloadLength;
+        if (buffer.position() + recordLength > buffer.capacity()) {
+            writeBuffer();
+            if (recordLength > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(recordLength).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        int start = buffer.position();
+        int offset = start + RECORD_HEADER;
+        buffer.put(offset++, operation);
+        buffer.putInt(offset, keyLength);
+        offset += Integer.BYTES;
+        keyCodec.encode(key, buffer, offset);
+        offset += keyLength;
+        if (operation == PUT) {
+            buffer.putInt(offset, valueLength);
+            offset += Integer.BYTES;
+            valueCodec.encode(value, buffer, offset);
+        }
+        crc.reset();
+        crc.update(buffer.array(), start + RECORD_HEADER, payloadLength);
+        buffer.putInt(start, payloadLength);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        buffer.position(start + recordLength);
+        size += recordLength;
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Makes every appended record durable.
+    void sync() throws IOException {
+        writeBuffer();
+        channel.force(false);
+    }
+
+    // Bytes in the segment, including records not yet synced.
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Applies the segment's records to target in order and returns the length of its valid
+     * prefix. Reading stops at the first record that is cut short or fails its checksum, which
+     * is what a crash in the middle of a write leaves behind.
+     */
+    static <K extends Comparable<K>, V> long replay(Path file, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                   Table<K, V> target) throws IOException {
+        long valid = 0;
+        CRC32 crc = new CRC32();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            while (true) {
+                if (in.readNBytes(header.array(), 0, RECORD_HEADER) < RECORD_HEADER) {
+                    return valid;
+                }
+                int payloadLength = header.getInt(0);
+                if (payloadLength < 1 + Integer.BYTES) {
+                    return valid;
+                }
+                byte[] bytes = in.readNBytes(payloadLength);
+                if (bytes.length < payloadLength) {
+                    return valid;
+                }
+                crc.reset();
+                crc.update(bytes);
+                if ((int) crc.getValue() != header.getInt(Integer.BYTES)) {
+                    return valid;
+                }
+                ByteBuffer payload = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+                int keyLength = payload.getInt(1);
+                K key = keyCodec.decode(payload, 1 + Integer.BYTES, keyLength);
+                if (payload.get(0) == PUT) {
+                    int offset = 1 + Integer.BYTES + keyLength;
+                    target.put(key, valueCodec.decode(payload, offset + Integer.BYTES, payload.getInt(offset)));
+                } else {
+                    target.removePair(key);
+                }
+                valid += RECORD_HEADER + payloadLength;
+            }
+        }
+    }
+
+    // Writes out and forces everything appended so far, then closes the file.
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Closes the file without writing buffered records, as a crash would.
+    void abandon() throws IOException {
+        channel.close();
+    }
+}
@@ -1,9 +1,20 @@
 package com.baroniunas.btree;
 
 import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.collections.btree.Cursor;
+import com.baroniunas.collections.btree.RangeView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BTreeTest {
@@ -26,6 +37,19 @@ class BTreeTest {
         assertEquals(30, bTree.getValue("key3"));
     }
 
+    @Test
+    void containsKeyShouldFindKeysInEveryLevel() {
+        for (int i = 0; i < 100; i++) {
+            bTree.put("key" + i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(bTree.containsKey("key" + i));
+        }
+        assertFalse(bTree.containsKey("missing"));
+        bTree.remove("key50");
+        assertFalse(bTree.containsKey("key50"));
+    }
+
     @Test
     void deletedBTreeValueShouldBeNull() {
         bTree.put("key1", 10);
@@ -43,4 +67,201 @@ class BTreeTest {
         assertNull(bTree.getValue("key1"));
         assertNull(bTree.getValue("key3"));
     }
+
+    @Test
+    void shouldMatchTreeMapAfterRandomRemovals() {
+        BTree<Integer, Integer> tree = new BTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(300);
+            if (random.nextBoolean()) {
+                if (!expected.containsKey(key)) {
+                    tree.put(key, i);
+                    expected.put(key, i);
+                }
+            } else {
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+        }
+        for (int key = 0; key < 300; key++) {
+            assertEquals(expected.get(key), tree.getValue(key));
+        }
+        assertEquals(expected.size(), tree.getSize());
+    }
+
+    @Test
+    void bulkBuiltTreeShouldBehaveLikeIncrementallyBuiltOne() {
+        Random random = new Random(1);
+        for (int count = 0; count <= 400; count++) {
+            Integer[] keys = new Integer[count];
+            Integer[] values = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = i * 2;
+                values[i] = -i;
+            }
+            BTree<Integer, Integer> tree = new BTree<>(keys, values, count);
+            assertEquals(count, tree.getSize());
+
+            List<Integer> visited = new ArrayList<>();
+            tree.forEach((key, value) -> {
+                assertEquals(-key / 2, value);
+                visited.add(key);
+            });
+            assertEquals(List.of(keys), visited);
+
+            // Deletions rely on every node being at least half full, so mix them with inserts.
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                expected.put(keys[i], values[i]);
+            }
+            for (int i = 0; i < count * 2; i++) {
+                int key = random.nextInt(count * 2 + 1);
+                if (random.nextInt(3) == 0 && !expected.containsKey(key)) {
+                    tree.put(key, i);
+                    expected.put(key, i);
+                } else {
+                    assertEquals(expected.remove(key), tree.remove(key), "count " + count);
+                }
+            }
+            for (int key = 0; key <= count * 2; key++) {
+                assertEquals(expected.get(key), tree.getValue(key), "count " + count);
+            }
+            assertEquals(expected.size(), tree.getSize());
+        }
+    }
+
+    @Test
+    void bulkBuildShouldRejectUnsortedKeys() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BTree<>(new Integer[]{1, 3, 2}, new Integer[]{1, 2, 3}, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BTree<>(new Integer[]{1, 1}, new Integer[]{1, 2}, 2));
+    }
+
+    @Test
+    void shouldMatchTreeMapForEveryMinDegree() {
+        for (int minDegree : new int[]{2, 3, 8, 32, 64}) {
+            Integer[] keys = new Integer[1000];
+            Integer[] values = new Integer[1000];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = i * 3;
+                values[i] = i;
+            }
+            BTree<Integer, Integer> tree = new BTree<>(minDegree, keys, values, keys.length);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                expected.put(keys[i], values[i]);
+            }
+            Random random = new Random(minDegree);
+            for (int i = 0; i < 30_000; i++) {
+                int key = random.nextInt(4000);
+                if (random.nextBoolean()) {
+                    if (!expected.containsKey(key)) {
+                        tree.put(key, i);
+                        expected.put(key, i);
+                    }
+                } else {
+                    assertEquals(expected.remove(key), tree.remove(key), "degree " + minDegree);
+                }
+            }
+            List<Integer> visited = new ArrayList<>();
+            tree.forEach((key, value) -> visited.add(key));
+            assertEquals(new ArrayList<>(expected.keySet()), visited, "degree " + minDegree);
+            for (int key = 0; key < 4000; key++) {
+                assertEquals(expected.get(key), tree.getValue(key), "degree " + minDegree);
+            }
+            assertEquals(minDegree, tree.getMinDegree());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BTree<Integer, Integer>(1));
+    }
+
+    @Test
+    void rangeQueriesShouldMatchTreeMap() {
+        for (int minDegree : new int[]{2, 5, 32}) {
+            BTree<Integer, Integer> tree = new BTree<>(minDegree);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            Random random = new Random(minDegree);
+            while (expected.size() < 2000) {
+                int key = random.nextInt(10_000);
+                if (!expected.containsKey(key)) {
+                    tree.put(key, -key);
+                    expected.put(key, -key);
+                }
+            }
+            for (int i = 0; i < 200; i++) {
+                int from = random.nextInt(10_200) - 100;
+                int to = from + random.nextInt(3000);
+                boolean fromInclusive = random.nextBoolean();
+                boolean toInclusive = random.nextBoolean();
+                assertEquals(new ArrayList<>(expected.subMap(from, fromInclusive, to, toInclusive).keySet()),
+                        keys(tree.range(from, fromInclusive, to, toInclusive)));
+                assertEquals(new ArrayList<>(expected.headMap(to).keySet()), keys(tree.headMap(to)));
+                assertEquals(new ArrayList<>(expected.tailMap(from, fromInclusive).keySet()),
+                        keys(tree.tailMap(from, fromInclusive)));
+                assertEquals(expected.floorKey(from), tree.floorKey(from));
+                assertEquals(expected.ceilingKey(from), tree.ceilingKey(from));
+            }
+            List<Integer> iterated = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> entry : tree) {
+                assertEquals(-entry.getKey(), entry.getValue());
+                iterated.add(entry.getKey());
+            }
+            assertEquals(new ArrayList<>(expected.keySet()), iterated);
+        }
+    }
+
+    private static List<Integer> keys(Iterable<Map.Entry<Integer, Integer>> entries) {
+        List<Integer> keys = new ArrayList<>();
+        entries.forEach(entry -> keys.add(entry.getKey()));
+        return keys;
+    }
+
+    @Test
+    void rangeViewShouldReadThroughToTheTree() {
+        BTree<Integer, Integer> tree = new BTree<>();
+        for (int i = 0; i < 100; i++) {
+            tree.put(i, i);
+        }
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 20; i < 40; i++) {
+            expected.put(i, i);
+        }
+        RangeView<Integer, Integer> view = tree.range(20, 40);
+        tree.remove(25);
+        expected.remove(25);
+        List<Integer> visited = new ArrayList<>();
+        view.forEach((key, value) -> visited.add(key));
+        assertEquals(new ArrayList<>(expected.keySet()), visited);
+        assertNull(view.getValue(50));
+        assertEquals(30, view.getValue(30));
+    }
+
+    @Test
+    void cursorShouldFailFastAfterModification() {
+        BTree<Integer, Integer> tree = new BTree<>();
+        for (int i = 0; i < 10; i++) {
+            tree.put(i, i);
+        }
+        Cursor<Integer, Integer> cursor = tree.cursor();
+        assertTrue(cursor.next());
+        assertEquals(0, cursor.getKey());
+        tree.put(100, 100);
+        assertThrows(ConcurrentModificationException.class, cursor::next);
+
+        Iterator<Map.Entry<Integer, Integer>> iterator = new BTree<Integer, Integer>().iterator();
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void putShouldUpdateExistingKeyInPlace() {
+        for (int i = 0; i < 100; i++) {
+            bTree.put("key" + i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            bTree.put("key" + i, -i);
+        }
+        assertEquals(100, bTree.getSize());
+        assertEquals(-42, bTree.getValue("key42"));
+    }
 }
@@ -0,0 +1,218 @@
+package com.baroniunas.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheTest {
+
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+    }
+
+    @Test
+    void lruShouldEvictLeastRecentlyUsedEntry() {
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .maximumSize(3)
+                .evictionPolicy(EvictionPolicy.LRU)
+                .build();
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(3, "three");
+        assertEquals("one", cache.getValue(1));
+        cache.put(4, "four");
+
+        assertNull(cache.getValue(2));
+        assertEquals("one", cache.getValue(1));
+        assertEquals("three", cache.getValue(3));
+        assertEquals("four", cache.getValue(4));
+        assertEquals(3, cache.getSize());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    void lruShouldMatchAccessOrderedLinkedHashMap() {
+        Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder()
+                .maximumSize(50)
+                .evictionPolicy(EvictionPolicy.LRU)
+                .build();
+        Map<Integer, Integer> expected = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > 50;
+            }
+        };
+        Random random = new Random(0);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(200);
+            switch (random.nextInt(3)) {
+                case 0:
+                    cache.put(key, i);
+                    expected.put(key, i);
+                    break;
+                case 1:
+                    assertEquals(expected.get(key), cache.getValue(key));
+                    break;
+                default:
+                    assertEquals(expected.remove(key), cache.removePair(key));
+            }
+        }
+        assertEquals(expected.size(), cache.getSize());
+    }
+
+    @Test
+    void everyPolicyShouldStayWithinMaximumSize() {
+        for (EvictionPolicy evictionPolicy : EvictionPolicy.values()) {
+            Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder()
+                    .maximumSize(100)
+                    .evictionPolicy(evictionPolicy)
+                    .build();
+            Random random = new Random(1);
+            for (int i = 0; i < 10_000; i++) {
+                int key = random.nextInt(1000);
+                cache.put(key, key);
+                assertTrue(cache.getSize() <= 100, evictionPolicy.name());
+                assertEquals(cache.getSize(), cache.getWeightedSize());
+            }
+            assertEquals(100, cache.getSize(), evictionPolicy.name());
+            assertTrue(cache.getStats().getEvictionCount() > 0, evictionPolicy.name());
+        }
+    }
+
+    @Test
+    void tinyLfuShouldKeepFrequentKeysThroughAScan() {
+        Cache<Integer, Integer> lru = Cache.<Integer, Integer>builder()
+                .maximumSize(100)
+                .evictionPolicy(EvictionPolicy.LRU)
+                .build();
+        Cache<Integer, Integer> tinyLfu = Cache.<Integer, Integer>builder()
+                .maximumSize(100)
+                .evictionPolicy(EvictionPolicy.W_TINY_LFU)
+                .build();
+        for (Cache<Integer, Integer> cache : List.of(lru, tinyLfu)) {
+            for (int round = 0; round < 20; round++) {
+                for (int key = 0; key < 50; key++) {
+                    cache.get(key, k -> k);
+                }
+            }
+            // A one-off scan over many cold keys.
+            for (int key = 1000; key < 2000; key++) {
+                cache.get(key, k -> k);
+            }
+        }
+        int lruHot = 0;
+        int tinyLfuHot = 0;
+        for (int key = 0; key < 50; key++) {
+            lruHot += lru.getValue(key) != null ? 1 : 0;
+            tinyLfuHot += tinyLfu.getValue(key) != null ? 1 : 0;
+        }
+        assertEquals(0, lruHot);
+        assertTrue(tinyLfuHot >= 45, "hot keys kept: " + tinyLfuHot);
+    }
+
+    @Test
+    void weightLimitShouldEvictByWeight() {
+        Cache<String, String> cache = Cache.<String, String>builder()
+                .maximumWeight(10, (key, value) -> value.length())
+                .evictionPolicy(EvictionPolicy.LRU)
+                .build();
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        assertEquals(8, cache.getWeightedSize());
+        cache.put("c", "cccc");
+
+        assertNull(cache.getValue("a"));
+        assertEquals(8, cache.getWeightedSize());
+        assertEquals(4, cache.getStats().getEvictionWeight());
+
+        // Growing an existing entry counts against the limit too.
+        cache.put("c", "cccccccc");
+        assertNull(cache.getValue("b"));
+        assertEquals(8, cache.getWeightedSize());
+
+        // An entry heavier than the whole cache is not kept.
+        cache.put("d", "ddddddddddd");
+        assertNull(cache.getValue("d"));
+        assertTrue(cache.getWeightedSize() <= 10);
+    }
+
+    @Test
+    void entriesShouldExpireAfterWrite() {
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .expireAfterWrite(Duration.ofNanos(100))
+                .ticker(() -> now)
+                .build();
+        cache.put(1, "one");
+        now = 50;
+        cache.put(2, "two");
+        assertEquals("one", cache.getValue(1));
+
+        now = 100;
+        assertNull(cache.getValue(1));
+        assertEquals("two", cache.getValue(2));
+
+        now = 149;
+        cache.put(2, "two again");
+        now = 200;
+        assertEquals("two again", cache.getValue(2));
+        now = 248;
+        cache.cleanUp();
+        assertEquals(1, cache.getSize());
+        now = 249;
+        cache.cleanUp();
+        assertEquals(0, cache.getSize());
+        assertEquals(2, cache.getStats().getExpiredCount());
+    }
+
+    @Test
+    void readsShouldExtendExpireAfterAccess() {
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .expireAfterAccess(Duration.ofNanos(100))
+                .ticker(() -> now)
+                .build();
+        cache.put(1, "one");
+        cache.put(2, "two");
+        for (now = 60; now <= 600; now += 60) {
+            assertEquals("one", cache.getValue(1));
+        }
+        assertNull(cache.getValue(2));
+        assertEquals("one", cache.removePair(1));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void statsShouldCountHitsAndMisses() {
+        Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder().maximumSize(10).build();
+        assertEquals(1.0, cache.getStats().getHitRate());
+        assertEquals(7, cache.get(7, key -> key));
+        assertEquals(7, cache.get(7, key -> -1));
+        assertNull(cache.getValue(8));
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(1.0 / 3, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void builderShouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> Cache.builder().maximumSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> Cache.builder().maximumWeight(10, null));
+        assertThrows(IllegalArgumentException.class, () -> Cache.builder().expireAfterWrite(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> Cache.<String, String>builder().maximumSize(1).maximumWeight(1, (k, v) -> 1).build());
+        Cache<String, String> cache = Cache.<String, String>builder().maximumWeight(10, (k, v) -> -1).build();
+        assertThrows(IllegalArgumentException.class, () -> cache.put("a", "b"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put(null, "b"));
+    }
+}
@@ -0,0 +1,165 @@
+package com.baroniunas.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchOperationsTest {
+    private HashTable<Integer, Integer> table;
+
+    @BeforeEach
+    void setUp() {
+        table = new HashTable<>();
+    }
+
+    @Test
+    void getAllShouldMatchGetValue() {
+        for (int i = 0; i < 1000; i += 2) {
+            table.put(i, i * 10);
+        }
+        Integer[] keys = new Integer[37];
+        Integer[] out = new Integer[40];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 7;
+        }
+        int found = table.getAll(keys, out);
+
+        int expected = 0;
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(table.getValue(keys[i]), out[i]);
+            expected += out[i] != null ? 1 : 0;
+        }
+        assertEquals(expected, found);
+        assertTrue(found > 0 && found < keys.length);
+    }
+
+    @Test
+    void getAllShouldReadTreeBinsAndFilteredTables() {
+        HashTable<Integer, Integer> colliding = HashTable.<Integer, Integer>builder()
+                .hasher(key -> key % 4).membershipFilter(true).build();
+        for (int i = 0; i < 200; i++) {
+            colliding.put(i, i);
+        }
+        Integer[] keys = {0, 5, 199, 200, -4, 150};
+        Integer[] out = new Integer[keys.length];
+
+        assertEquals(4, colliding.getAll(keys, out));
+        assertArrayEquals(new Integer[]{0, 5, 199, null, null, 150}, out);
+    }
+
+    @Test
+    void getAllShouldWorkDuringIncrementalResize() {
+        HashTable<Integer, Integer> incremental = new HashTable<>(ResizeMode.INCREMENTAL);
+        int i = 0;
+        while (!incremental.isResizing()) {
+            incremental.put(i, i);
+            i++;
+        }
+        Integer[] keys = new Integer[i + 10];
+        for (int k = 0; k < keys.length; k++) {
+            keys[k] = k;
+        }
+        Integer[] out = new Integer[keys.length];
+
+        assertEquals(i, incremental.getAll(keys, out));
+        for (int k = 0; k < keys.length; k++) {
+            assertEquals(k < i ? Integer.valueOf(k) : null, out[k]);
+        }
+    }
+
+    @Test
+    void putAllShouldStoreEveryPair() {
+        table.put(3, -1);
+        Integer[] keys = new Integer[500];
+        Integer[] values = new Integer[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+            values[i] = i + 1;
+        }
+        table.putAll(keys, values);
+
+        assertEquals(500, table.getSize());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i + 1, table.getValue(i));
+        }
+        // The table was sized once for the whole batch.
+        assertTrue(table.getResizeCount() <= 2);
+    }
+
+    @Test
+    void putAllShouldNotCountUpdatesAsNewEntries() {
+        Integer[] keys = new Integer[500];
+        Integer[] values = new Integer[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+            values[i] = -i;
+        }
+        table.putAll(keys, values);
+        int capacity = table.getCurrentCapacity();
+        table.putAll(keys, values);
+
+        assertEquals(capacity, table.getCurrentCapacity());
+        assertEquals(500, table.getSize());
+    }
+
+    @Test
+    void putAllShouldResizeIncrementally() {
+        HashTable<Integer, Integer> incremental = HashTable.<Integer, Integer>builder()
+                .resizeMode(ResizeMode.INCREMENTAL).build();
+        for (int i = 0; i < 1000; i++) {
+            incremental.put(i, i);
+        }
+        int resizesBefore = incremental.getResizeCount();
+        // Pre-sizing for the batch would jump straight to the final capacity in one stop-the-world resize.
+        incremental.setListener(new HashTableListener() {
+            @Override
+            public void onResize(int oldCapacity, int newCapacity, long durationNanos) {
+                assertEquals(oldCapacity * 2, newCapacity);
+            }
+        });
+        Integer[] keys = new Integer[3000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 1000 + i;
+        }
+        incremental.putAll(keys, keys);
+
+        assertTrue(incremental.getResizeCount() > resizesBefore);
+        assertEquals(4000, incremental.getSize());
+        assertEquals(2999, incremental.getValue(2999));
+    }
+
+    @Test
+    void batchOperationsShouldValidateArguments() {
+        assertThrows(IllegalArgumentException.class, () -> table.getAll(null, new Integer[1]));
+        assertThrows(IllegalArgumentException.class, () -> table.getAll(new Integer[]{1, 2}, new Integer[1]));
+        assertThrows(IllegalArgumentException.class, () -> table.getAll(new Integer[]{1, null}, new Integer[2]));
+        assertThrows(IllegalArgumentException.class, () -> table.putAll(new Integer[]{1}, new Integer[2]));
+        assertThrows(IllegalArgumentException.class, () -> table.putAll(new Integer[]{1, 2}, new Integer[]{1, null}));
+        assertEquals(0, table.getSize());
+    }
+
+    @Test
+    void getAllOnWarmTableShouldNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Integer[] keys = new Integer[256];
+        Integer[] out = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+            table.put(keys[i], i);
+        }
+        // Let the JIT settle first: a recompilation inside the measured loop allocates on this thread.
+        for (int i = 0; i < 1000; i++) {
+            table.getAll(keys, out);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            table.getAll(keys, out);
+        }
+        // The allocation counter itself costs a few bytes.
+        assertTrue(threads.getCurrentThreadAllocatedBytes() - before < 1000);
+    }
+}
@@ -0,0 +1,125 @@
+package com.baroniunas.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHashTableTest {
+    private static final int THREADS = 8;
+
+    private ConcurrentHashTable<String, Integer> hashTable;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        hashTable = new ConcurrentHashTable<>();
+        executor = Executors.newFixedThreadPool(THREADS + 1);
+    }
+
+    private static String collidingKey(int id) {
+        // "Aa" and "BB" share a hash code, so every key built from them lands in the same bin.
+        StringBuilder sb = new StringBuilder();
+        for (int bit = 11; bit >= 0; bit--) {
+            sb.append(((id >>> bit) & 1) == 0 ? "Aa" : "BB");
+        }
+        return sb.toString();
+    }
+
+    private void runAll(List<Runnable> tasks) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldBeAbleToPutGetAndRemove() {
+        hashTable.put("One", 1);
+        hashTable.put("One", 2);
+        assertEquals(2, hashTable.getValue("One"));
+        assertEquals(2, hashTable.removePair("One"));
+        assertNull(hashTable.getValue("One"));
+        assertEquals(0, hashTable.getSize());
+    }
+
+    @Test
+    void puttingNullKeyNotAvailable() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> hashTable.put(null, 1));
+        assertEquals("Key or value cannot be null", exception.getMessage());
+    }
+
+    @Test
+    void concurrentPutsShouldAllBeVisibleAfterResizes() throws Exception {
+        int perThread = 20_000;
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * perThread;
+            tasks.add(() -> {
+                for (int i = offset; i < offset + perThread; i++) {
+                    hashTable.put("Key" + i, i);
+                }
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(THREADS * perThread, hashTable.getSize());
+        for (int i = 0; i < THREADS * perThread; i++) {
+            assertEquals(i, hashTable.getValue("Key" + i));
+        }
+    }
+
+    @Test
+    void readersShouldSeeStableKeysWhileTreeBinIsMutated() throws Exception {
+        int stable = 64;
+        for (int i = 0; i < stable; i++) {
+            hashTable.put(collidingKey(i), i);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = stable + t * 200;
+            tasks.add(() -> {
+                for (int round = 0; round < 50; round++) {
+                    for (int i = offset; i < offset + 200; i++) {
+                        hashTable.put(collidingKey(i), i);
+                    }
+                    for (int i = offset; i < offset + 200; i++) {
+                        assertEquals(i, hashTable.removePair(collidingKey(i)));
+                    }
+                }
+            });
+        }
+        tasks.add(() -> {
+            while (!done.get()) {
+                for (int i = 0; i < stable; i++) {
+                    assertEquals(i, hashTable.getValue(collidingKey(i)));
+                }
+            }
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        for (int i = 0; i < THREADS; i++) {
+            futures.get(i).get(60, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        futures.get(THREADS).get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(stable, hashTable.getSize());
+    }
+}
@@ -0,0 +1,115 @@
+package com.baroniunas.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrozenHashTableTest {
+    private HashTable<String, Integer> table;
+
+    @BeforeEach
+    void setUp() {
+        table = new HashTable<>();
+    }
+
+    @Test
+    void frozenTableShouldAnswerLikeTheOriginal() {
+        for (int i = 0; i < 10_000; i++) {
+            table.put("Key" + i, i);
+        }
+        FrozenHashTable<String, Integer> frozen = table.freeze();
+
+        assertEquals(10_000, frozen.getSize());
+        assertEquals(0, frozen.getOverflowCount());
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(table.getValue("Key" + i), frozen.getValue("Key" + i));
+            assertEquals(i < 10_000, frozen.containsKey("Key" + i));
+        }
+    }
+
+    @Test
+    void forEachShouldVisitEveryEntryOnce() {
+        for (int i = 0; i < 1000; i++) {
+            table.put("Key" + i, i);
+        }
+        Map<String, Integer> seen = new HashMap<>();
+        table.freeze().forEach((key, value) -> assertNull(seen.put(key, value)));
+
+        assertEquals(1000, seen.size());
+        seen.forEach((key, value) -> assertEquals(table.getValue(key), value));
+    }
+
+    @Test
+    void keysSharingHashCodesShouldUseOverflow() {
+        HashTable<Integer, Integer> colliding = HashTable.<Integer, Integer>builder().hasher(key -> key % 10).build();
+        for (int i = 0; i < 500; i++) {
+            colliding.put(i, i * 2);
+        }
+        FrozenHashTable<Integer, Integer> frozen = colliding.freeze();
+
+        assertEquals(490, frozen.getOverflowCount());
+        for (int i = -50; i < 600; i++) {
+            assertEquals(i >= 0 && i < 500 ? Integer.valueOf(i * 2) : null, frozen.getValue(i));
+        }
+    }
+
+    @Test
+    void emptyAndSingleEntryTablesShouldFreeze() {
+        FrozenHashTable<String, Integer> empty = table.freeze();
+        assertEquals(0, empty.getSize());
+        assertNull(empty.getValue("Key"));
+
+        table.put("Key", 1);
+        FrozenHashTable<String, Integer> single = table.freeze();
+        assertEquals(1, single.getValue("Key"));
+        assertNull(single.getValue("Other"));
+    }
+
+    @Test
+    void freezingShouldLeaveTheTableMutable() {
+        table.put("One", 1);
+        FrozenHashTable<String, Integer> frozen = table.freeze();
+        table.put("Two", 2);
+
+        assertNull(frozen.getValue("Two"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.put("Three", 3));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.removePair("One"));
+        assertThrows(IllegalArgumentException.class, () -> frozen.getValue(null));
+    }
+
+    @Test
+    void frozenTableShouldBeReadableFromManyThreads() throws Exception {
+        for (int i = 0; i < 50_000; i++) {
+            table.put("Key" + i, i);
+        }
+        FrozenHashTable<String, Integer> frozen = table.freeze();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                results.add(executor.submit(() -> {
+                    int found = 0;
+                    for (int i = 0; i < 50_000; i++) {
+                        Integer value = frozen.getValue("Key" + i);
+                        found += value != null && value == i ? 1 : 0;
+                    }
+                    return found;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(50_000, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -1,9 +1,24 @@
 package com.baroniunas.hashtable;
 
 import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.collections.linkedlist.LinkedList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HashTableTest {
@@ -157,6 +172,452 @@ class HashTableTest {
     }
 
 
+    @Test
+    void listenerShouldReceiveStructuralEvents() {
+        int[] resizes = new int[1];
+        hashTable.setListener(new HashTableListener() {
+            @Override
+            public void onResize(int oldCapacity, int newCapacity, long durationNanos) {
+                assertEquals(oldCapacity * 2, newCapacity);
+                resizes[0]++;
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        assertTrue(resizes[0] > 0);
+        assertEquals(resizes[0], hashTable.getResizeCount());
+    }
+
+    @Test
+    void getValueOnWarmTableShouldNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String[] keys = new String[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "Key" + i;
+            hashTable.put(keys[i], i);
+        }
+        for (String key : keys) {
+            hashTable.getValue(key);
+        }
+
+        int lookups = 100_000;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < lookups; i++) {
+            hashTable.getValue(keys[i % keys.length]);
+        }
+        // The allocation counter itself costs a few bytes, so allow less than one byte per lookup.
+        assertTrue(threads.getCurrentThreadAllocatedBytes() - before < lookups);
+    }
+
+    @Test
+    void incrementalResizeShouldKeepEntriesReachableDuringMigration() {
+        HashTable<Integer, Integer> incremental = new HashTable<>(ResizeMode.INCREMENTAL);
+        boolean sawMigration = false;
+        for (int i = 0; i < 5000; i++) {
+            incremental.put(i, i);
+            sawMigration |= incremental.isResizing();
+            int earlier = i / 2;
+            assertEquals(earlier % 3 == 0 && earlier < i ? null : earlier, incremental.getValue(earlier));
+            if (i % 3 == 0) {
+                assertEquals(i, incremental.removePair(i));
+            }
+        }
+        assertTrue(sawMigration);
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i % 3 == 0 ? null : i, incremental.getValue(i));
+        }
+        assertEquals(3333, incremental.getSize());
+    }
+
+    @Test
+    void powerOfTwoModeShouldSplitBucketsOnResize() {
+        for (ResizeMode resizeMode : ResizeMode.values()) {
+            HashTable<Integer, Integer> table = new HashTable<>(resizeMode, CapacityMode.POWER_OF_TWO, Hasher.standard());
+            assertEquals(4, table.getCurrentCapacity());
+            // Multiples of 1024 share their low bits; the spread hash must still separate them.
+            for (int i = 0; i < 10_000; i++) {
+                table.put(i * 1024, i);
+            }
+            assertEquals(0, Integer.bitCount(table.getCurrentCapacity()) - 1);
+            assertEquals(0, table.getTreeifyCount());
+            for (int i = 0; i < 10_000; i++) {
+                assertEquals(i, table.getValue(i * 1024));
+            }
+            assertEquals(10_000, table.getSize());
+        }
+    }
+
+    @Test
+    void customHasherShouldDecideBucket() {
+        HashTable<String, Integer> table = new HashTable<>(ResizeMode.STOP_THE_WORLD, CapacityMode.POWER_OF_TWO, key -> 7);
+        table.put("One", 1);
+        table.put("Two", 2);
+        assertEquals(1, table.getArraySize());
+        assertEquals(table.hash("One"), table.hash("Two"));
+        assertEquals(2, table.getValue("Two"));
+    }
+
+    @Test
+    void treeBinsShouldSurviveResizeInEveryMode() {
+        for (ResizeMode resizeMode : ResizeMode.values()) {
+            for (CapacityMode capacityMode : CapacityMode.values()) {
+                // Groups of 32 consecutive keys share a hash, so most buckets become trees before the table grows.
+                HashTable<Integer, Integer> table = new HashTable<>(resizeMode, capacityMode, key -> key >>> 5);
+                Map<Integer, Integer> expected = new HashMap<>();
+                Random random = new Random(42);
+                for (int i = 0; i < 50_000; i++) {
+                    int key = random.nextInt(8192);
+                    int operation = random.nextInt(10);
+                    if (operation < 6) {
+                        if (!expected.containsKey(key)) {
+                            table.put(key, i);
+                            expected.put(key, i);
+                        }
+                    } else if (operation < 8) {
+                        assertEquals(expected.remove(key), table.removePair(key));
+                    } else {
+                        assertEquals(expected.get(key), table.getValue(key));
+                    }
+                }
+                String mode = resizeMode + "/" + capacityMode;
+                assertTrue(table.getResizeCount() > 0, mode);
+                assertTrue(table.getTreeifyCount() > 0, mode);
+                assertEquals(expected.size(), table.getSize(), mode);
+                for (int key = 0; key < 8192; key++) {
+                    assertEquals(expected.get(key), table.getValue(key), mode);
+                }
+            }
+        }
+    }
+
+    @Test
+    void treeBinShouldSplitIntoTreeAndChainOnGrowth() {
+        // Hashes 0 and 3 * 2^10 share bucket 0 until the capacity reaches 3 * 2^11; fillers never land in either bin.
+        HashTable<Integer, Integer> table = HashTable.<Integer, Integer>builder()
+                .hasher(key -> key < -40 ? 3072 : key < 0 ? 0 : key)
+                .build();
+        for (int key = -1; key >= -42; key--) {
+            table.put(key, key);
+        }
+        assertInstanceOf(BTree.class, table.getCollectionAtIndex(0));
+        for (int key = 1; key < 10_000; key++) {
+            if (key % 3072 != 0) {
+                table.put(key, key);
+            }
+        }
+
+        assertTrue(table.getCurrentCapacity() > 3072);
+        BTree<Integer, Integer> low = (BTree<Integer, Integer>) table.getCollectionAtIndex(0);
+        assertEquals(40, low.getSize());
+        List<Integer> keys = new ArrayList<>();
+        low.forEach((key, value) -> keys.add(key));
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1) < keys.get(i));
+        }
+        assertInstanceOf(LinkedList.class, table.getCollectionAtIndex(3072));
+        assertEquals(2, table.getCollectionAtIndex(3072).getSize());
+        for (int key = -42; key < 10_000; key++) {
+            assertEquals(key >= 0 && key % 3072 == 0 ? null : Integer.valueOf(key), table.getValue(key));
+        }
+    }
+
+    @Test
+    void presizedTableShouldNotResizeWhileLoading() {
+        HashTable<Integer, Integer> table = HashTable.withExpectedSize(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            table.put(i, i);
+        }
+        assertEquals(0, table.getResizeCount());
+        assertEquals(100_000, table.getSize());
+    }
+
+    @Test
+    void ensureCapacityAndTrimToSizeShouldKeepEntries() {
+        for (CapacityMode capacityMode : CapacityMode.values()) {
+            HashTable<Integer, Integer> table = HashTable.<Integer, Integer>builder()
+                    .capacityMode(capacityMode)
+                    .hasher(key -> key >>> 3)
+                    .build();
+            for (int i = 0; i < 1000; i++) {
+                table.put(i, i);
+            }
+            table.ensureCapacity(50_000);
+            int grown = table.getCurrentCapacity();
+            assertTrue(grown > 50_000 / table.getLoadFactor(), capacityMode.toString());
+            for (int i = 100; i < 1000; i++) {
+                table.removePair(i);
+            }
+            table.trimToSize();
+            assertTrue(table.getCurrentCapacity() < grown, capacityMode.toString());
+            assertEquals(100, table.getSize());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i < 100 ? Integer.valueOf(i) : null, table.getValue(i));
+            }
+        }
+    }
+
+    @Test
+    void smallTableShouldGrowInsteadOfTreeifying() {
+        HashTable<Integer, Integer> table = HashTable.<Integer, Integer>builder()
+                .treeifyThreshold(4)
+                .untreeifyThreshold(2)
+                .minTreeifyCapacity(64)
+                .build();
+        for (int i = 0; i < 4; i++) {
+            table.put(i * 3, i);
+        }
+        assertEquals(0, table.getTreeifyCount());
+        assertTrue(table.getResizeCount() > 0);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, table.getValue(i * 3));
+        }
+    }
+
+    @Test
+    void treeBinsShouldUseConfiguredMinDegree() {
+        HashTable<Integer, Integer> table = HashTable.<Integer, Integer>builder()
+                .hasher(key -> 0)
+                .treeMinDegree(16)
+                .build();
+        for (int i = 0; i < 500; i++) {
+            table.put(i, i);
+        }
+        BTree<Integer, Integer> bin = (BTree<Integer, Integer>) table.getCollectionAtIndex(0);
+        assertEquals(16, bin.getMinDegree());
+        assertEquals(500, bin.getSize());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, table.getValue(i));
+        }
+    }
+
+    @Test
+    void builderShouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> HashTable.builder().loadFactor(0));
+        assertThrows(IllegalArgumentException.class, () -> HashTable.builder().loadFactor(1.5f));
+        assertThrows(IllegalArgumentException.class, () -> HashTable.builder().expectedSize(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> HashTable.builder().treeifyThreshold(4).untreeifyThreshold(4).build());
+    }
+
+    @Test
+    void putAllShouldPresizeOnceAndCopyEveryEntry() {
+        Map<Integer, Integer> source = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            source.put(i, -i);
+        }
+        HashTable<Integer, Integer> table = new HashTable<>();
+        table.putAll(source);
+        assertEquals(1, table.getResizeCount());
+        assertEquals(50_000, table.getSize());
+
+        HashTable<Integer, Integer> copy = HashTable.<Integer, Integer>builder().hasher(key -> key >>> 4).build();
+        copy.putAll(table);
+        copy.putAll(List.of(Map.entry(-1, 1), Map.entry(50_000, 2)));
+        assertEquals(50_002, copy.getSize());
+        assertTrue(copy.getTreeifyCount() > 0);
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(-i, copy.getValue(i));
+        }
+        assertEquals(1, copy.getValue(-1));
+        assertEquals(2, copy.getValue(50_000));
+    }
+
+    @Test
+    void viewsShouldSeeEveryEntryExactlyOnceEvenMidMigration() {
+        for (ResizeMode resizeMode : ResizeMode.values()) {
+            HashTable<Integer, Integer> table = HashTable.<Integer, Integer>builder()
+                    .resizeMode(resizeMode)
+                    .hasher(key -> key >>> 3)
+                    .build();
+            Map<Integer, Integer> expected = new HashMap<>();
+            // In incremental mode, stop while a migration is still running.
+            for (int i = 0; i < 20_000 || (resizeMode == ResizeMode.INCREMENTAL && !table.isResizing()); i++) {
+                table.put(i, -i);
+                expected.put(i, -i);
+            }
+            Map<Integer, Integer> seen = new HashMap<>();
+            for (Map.Entry<Integer, Integer> entry : table.entrySet()) {
+                assertNull(seen.put(entry.getKey(), entry.getValue()));
+            }
+            assertEquals(expected, seen);
+            assertEquals(expected.keySet(), new HashSet<>(table.keySet()));
+            assertEquals(expected.values().stream().mapToLong(Integer::longValue).sum(),
+                    table.values().parallelStream().mapToLong(Integer::longValue).sum());
+            assertEquals(expected, table.entrySet().parallelStream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+            assertTrue(table.entrySet().contains(Map.entry(7, -7)));
+            assertFalse(table.entrySet().contains(Map.entry(7, 7)));
+            assertTrue(table.keySet().contains(19_999));
+            assertEquals(expected.size(), table.keySet().size());
+            assertFalse(table.keySet().contains("19999"));
+        }
+    }
+
+    @Test
+    void spliteratorShouldSplitIntoDisjointParts() {
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("key" + i, i);
+        }
+        Spliterator<String> first = hashTable.keySet().spliterator();
+        assertTrue(first.hasCharacteristics(Spliterator.SIZED));
+        Spliterator<String> second = first.trySplit();
+        assertNotNull(second);
+        assertFalse(first.hasCharacteristics(Spliterator.SIZED));
+        Set<String> keys = new HashSet<>();
+        first.forEachRemaining(key -> assertTrue(keys.add(key)));
+        second.forEachRemaining(key -> assertTrue(keys.add(key)));
+        assertEquals(1000, keys.size());
+    }
+
+    @Test
+    void iteratorShouldFailFastOnStructuralChange() {
+        hashTable.put("One", 1);
+        hashTable.put("Two", 2);
+        Iterator<String> iterator = hashTable.keySet().iterator();
+        iterator.next();
+        hashTable.put("One", 10);
+        iterator.next();
+        hashTable.put("Three", 3);
+        assertThrows(ConcurrentModificationException.class, iterator::hasNext);
+    }
+
+    @Test
+    void bulkOperationsShouldCoverTreeBins() {
+        HashTable<Integer, Integer> table = HashTable.<Integer, Integer>builder().hasher(key -> key % 5).build();
+        for (int i = 1; i <= 1000; i++) {
+            table.put(i, i);
+        }
+        Integer sum = table.reduce(1, (key, value) -> value, Integer::sum);
+        assertEquals(500_500, sum);
+        Integer max = table.reduce(Long.MAX_VALUE, (key, value) -> key, Math::max);
+        assertEquals(1000, max);
+        assertNull(table.<Integer>reduce(1, (key, value) -> null, Integer::sum));
+        Set<Integer> visited = ConcurrentHashMap.newKeySet();
+        table.forEach(1, (key, value) -> visited.add(key));
+        assertEquals(1000, visited.size());
+
+        assertEquals(20, table.computeIfPresent(10, (key, value) -> value * 2));
+        assertEquals(20, table.getValue(10));
+        assertNull(table.computeIfPresent(11, (key, value) -> null));
+        assertNull(table.getValue(11));
+        assertNull(table.computeIfPresent(5000, (key, value) -> 1));
+        assertEquals(999, table.getSize());
+    }
+
+    @Test
+    void computeFamilyShouldMatchHashMapInBothBinKinds() {
+        for (ResizeMode resizeMode : ResizeMode.values()) {
+            // Groups of 16 keys share a hash, so the operations run against list and tree bins alike.
+            HashTable<Integer, Integer> table = HashTable.<Integer, Integer>builder()
+                    .resizeMode(resizeMode)
+                    .hasher(key -> key >>> 4)
+                    .build();
+            Map<Integer, Integer> expected = new HashMap<>();
+            Random random = new Random(7);
+            for (int i = 0; i < 100_000; i++) {
+                int key = random.nextInt(4096);
+                int value = random.nextInt(100);
+                switch (random.nextInt(8)) {
+                    case 0:
+                        table.put(key, value);
+                        expected.put(key, value);
+                        break;
+                    case 1:
+                        assertEquals(expected.putIfAbsent(key, value), table.putIfAbsent(key, value));
+                        break;
+                    case 2:
+                        assertEquals(expected.replace(key, value), table.replace(key, value));
+                        break;
+                    case 3:
+                        assertEquals(expected.computeIfAbsent(key, k -> value),
+                                table.computeIfAbsent(key, k -> value));
+                        break;
+                    case 4:
+                        assertEquals(expected.computeIfPresent(key, (k, old) -> old % 3 == 0 ? null : Integer.valueOf(old + 1)),
+                                table.computeIfPresent(key, (k, old) -> old % 3 == 0 ? null : Integer.valueOf(old + 1)));
+                        break;
+                    case 5:
+                        assertEquals(expected.compute(key, (k, old) -> old == null ? Integer.valueOf(value) : old % 4 == 0 ? null : Integer.valueOf(old - 1)),
+                                table.compute(key, (k, old) -> old == null ? Integer.valueOf(value) : old % 4 == 0 ? null : Integer.valueOf(old - 1)));
+                        break;
+                    case 6:
+                        assertEquals(expected.merge(key, value, (old, given) -> old + given > 150 ? null : Integer.valueOf(old + given)),
+                                table.merge(key, value, (old, given) -> old + given > 150 ? null : Integer.valueOf(old + given)));
+                        break;
+                    default:
+                        assertEquals(expected.remove(key), table.removePair(key));
+                }
+            }
+            assertTrue(table.getTreeifyCount() > 0);
+            assertEquals(expected.size(), table.getSize(), resizeMode.toString());
+            Map<Integer, Integer> actual = new HashMap<>();
+            table.forEach(actual::put);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void throwingFunctionShouldNotLeaveAnEmptyBucket() {
+        HashTable<String, Integer> table = new HashTable<>();
+        table.put("present", 1);
+        int occupied = table.getArraySize();
+        int capacity = table.getCurrentCapacity();
+
+        for (int i = 0; i < 100; i++) {
+            String key = "absent" + i;
+            assertThrows(IllegalStateException.class, () -> table.computeIfAbsent(key, k -> {
+                throw new IllegalStateException();
+            }));
+            assertThrows(IllegalStateException.class, () -> table.compute(key, (k, old) -> {
+                throw new IllegalStateException();
+            }));
+        }
+        assertThrows(IllegalStateException.class, () -> table.merge("present", 2, (old, given) -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(occupied, table.getArraySize());
+        assertEquals(capacity, table.getCurrentCapacity());
+        assertEquals(1, table.getSize());
+        assertEquals(1, table.getValue("present"));
+    }
+
+    @Test
+    void computeIfAbsentShouldStoreWhenFunctionGrowsTable() {
+        for (ResizeMode mode : ResizeMode.values()) {
+            HashTable<String, Integer> table = HashTable.<String, Integer>builder().resizeMode(mode).build();
+            int capacity = table.getCurrentCapacity();
+            assertEquals(7, table.computeIfAbsent("outer", key -> {
+                for (int i = 0; i < 100; i++) {
+                    table.put("inner" + i, i);
+                }
+                return 7;
+            }));
+            assertTrue(table.getCurrentCapacity() > capacity);
+            assertEquals(101, table.getSize());
+            assertEquals(7, table.getValue("outer"));
+            assertEquals(42, table.getValue("inner42"));
+        }
+    }
+
+    @Test
+    void mergeShouldCountWithoutDuplicatingTreeBinKeys() {
+        HashTable<String, Integer> table = HashTable.<String, Integer>builder().hasher(key -> 1).build();
+        for (int round = 0; round < 5; round++) {
+            for (int word = 0; word < 50; word++) {
+                table.merge("word" + word, 1, Integer::sum);
+            }
+        }
+        assertEquals(50, table.getSize());
+        assertTrue(table.getCollectionAtIndex(table.hash("word0")) instanceof BTree);
+        assertEquals(5, table.getValue("word17"));
+        assertEquals(5, table.replace("word17", 9));
+        assertNull(table.replace("absent", 9));
+        assertEquals(9, table.putIfAbsent("word17", 1));
+        assertEquals(50, table.getSize());
+    }
+
     @Test
     void testToString() {
         hashTable.put("T", 1);
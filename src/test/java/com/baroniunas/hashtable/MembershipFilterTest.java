@@ -0,0 +1,165 @@
+package com.baroniunas.hashtable;
+
+import com.baroniunas.offheap.Codec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MembershipFilterTest {
+    private HashTable<Integer, Integer> table;
+
+    @BeforeEach
+    void setUp() {
+        table = HashTable.<Integer, Integer>builder().membershipFilter(true).build();
+    }
+
+    @Test
+    void containsKeyShouldMatchTableContents() {
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i);
+        }
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i < 1000, table.containsKey(i));
+            assertEquals(i < 1000 ? Integer.valueOf(i) : null, table.getValue(i));
+        }
+        assertTrue(table.hasMembershipFilter());
+        assertTrue(table.getMembershipFilterBytes() > 0);
+    }
+
+    @Test
+    void containsKeyShouldWorkWithoutFilter() {
+        HashTable<String, Integer> plain = new HashTable<>();
+        for (int i = 0; i < 100; i++) {
+            plain.put("Key" + i, i);
+        }
+        assertTrue(plain.containsKey("Key42"));
+        assertFalse(plain.containsKey("Key100"));
+        assertFalse(plain.hasMembershipFilter());
+        assertEquals(0, plain.getMembershipFilterBytes());
+        assertThrows(IllegalArgumentException.class, () -> plain.containsKey(null));
+    }
+
+    @Test
+    void filterShouldFollowRandomPutsAndRemovals() {
+        for (ResizeMode mode : ResizeMode.values()) {
+            HashTable<Integer, Integer> filtered = HashTable.<Integer, Integer>builder()
+                    .resizeMode(mode).membershipFilter(true).build();
+            Map<Integer, Integer> expected = new HashMap<>();
+            Random random = new Random(42);
+            for (int i = 0; i < 50_000; i++) {
+                int key = random.nextInt(5000);
+                switch (random.nextInt(4)) {
+                    case 0 -> assertEquals(expected.remove(key), filtered.removePair(key));
+                    case 1 -> assertEquals(expected.merge(key, 1, Integer::sum), filtered.merge(key, 1, Integer::sum));
+                    case 2 -> assertEquals(expected.computeIfPresent(key, (k, v) -> v > 2 ? null : v + 1),
+                            filtered.computeIfPresent(key, (k, v) -> v > 2 ? null : v + 1));
+                    default -> {
+                        expected.put(key, i);
+                        filtered.put(key, i);
+                    }
+                }
+            }
+            for (int key = 0; key < 5000; key++) {
+                assertEquals(expected.containsKey(key), filtered.containsKey(key), "key " + key);
+                assertEquals(expected.get(key), filtered.getValue(key));
+            }
+        }
+    }
+
+    @Test
+    void keysSharingHashCodeShouldNotOverflowFilter() {
+        HashTable<Integer, Integer> colliding = HashTable.<Integer, Integer>builder()
+                .hasher(key -> key % 3).membershipFilter(true).build();
+        for (int i = 0; i < 300; i++) {
+            colliding.put(i, i);
+        }
+        for (int i = 0; i < 300; i += 2) {
+            colliding.removePair(i);
+        }
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i % 2 == 1, colliding.containsKey(i));
+        }
+        // Removing every key with one hash code must drop that hash from the filter.
+        for (int i = 1; i < 300; i += 2) {
+            if (i % 3 == 1) {
+                colliding.removePair(i);
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i % 2 == 1 && i % 3 != 1, colliding.containsKey(i));
+        }
+    }
+
+    @Test
+    void largeTreeBinsOfDistinctHashesShouldStayFast() {
+        // Multiples of 1024 leave three residues modulo the default 3 * 2^n capacities: three huge tree bins.
+        HashTable<Integer, Integer> adversarial = HashTable.<Integer, Integer>builder()
+                .hasher(key -> key * 1024).membershipFilter(true).build();
+        Map<Integer, Integer> expected = new HashMap<>();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 40_000; i++) {
+                adversarial.put(i, i);
+                expected.put(i, i);
+            }
+            Random random = new Random(42);
+            for (int i = 0; i < 40_000; i++) {
+                int key = random.nextInt(60_000);
+                if (random.nextBoolean()) {
+                    assertEquals(expected.remove(key), adversarial.removePair(key));
+                } else {
+                    assertEquals(expected.merge(key, 1, Integer::sum), adversarial.merge(key, 1, Integer::sum));
+                }
+            }
+        });
+        for (int key = 0; key < 60_000; key++) {
+            assertEquals(expected.containsKey(key), adversarial.containsKey(key), "key " + key);
+        }
+    }
+
+    @Test
+    void missesShouldRarelyPassFilter() {
+        CuckooFilter filter = new CuckooFilter(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.add(Integer.hashCode(i)));
+        }
+        int falsePositives = 0;
+        for (int i = 100_000; i < 1_100_000; i++) {
+            if (filter.mightContain(Integer.hashCode(i))) {
+                falsePositives++;
+            }
+        }
+        // About 8 / 65536 expected; allow twice that.
+        assertTrue(falsePositives < 250, "falsePositives=" + falsePositives);
+    }
+
+    @Test
+    void filterShouldSurviveTrimAndSnapshot() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i);
+        }
+        for (int i = 0; i < 900; i++) {
+            table.removePair(i);
+        }
+        table.trimToSize();
+        assertTrue(table.containsKey(950));
+        assertFalse(table.containsKey(10));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshot.writeTo(table, out, Codec.INTEGER, Codec.INTEGER, Compression.NONE);
+        HashTable<Integer, Integer> loaded = Snapshot.readHashTable(new ByteArrayInputStream(out.toByteArray()),
+                Codec.INTEGER, Codec.INTEGER, HashTable.<Integer, Integer>builder().membershipFilter(true));
+        assertTrue(loaded.hasMembershipFilter());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i >= 900, loaded.containsKey(i));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.baroniunas.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAddressingHashTableTest {
+
+    private OpenAddressingHashTable<String, Integer> hashTable;
+
+    @BeforeEach
+    void setUp() {
+        hashTable = new OpenAddressingHashTable<>();
+    }
+
+    @Test
+    void shouldBeAbleToPutAndGetValue() {
+        hashTable.put("One", 1);
+        hashTable.put("Two", 2);
+        hashTable.put("One", 3);
+
+        assertEquals(3, hashTable.getValue("One"));
+        assertEquals(2, hashTable.getValue("Two"));
+        assertNull(hashTable.getValue("Three"));
+        assertEquals(2, hashTable.getSize());
+    }
+
+    @Test
+    void puttingNullKeyNotAvailable() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> hashTable.put(null, 1));
+        assertEquals("Key or value cannot be null", exception.getMessage());
+    }
+
+    @Test
+    void shouldKeepCollidingKeysAfterRemoval() {
+        // "Aa" and "BB" share a hash code, so they land in one probe run.
+        hashTable.put("AaAa", 1);
+        hashTable.put("AaBB", 2);
+        hashTable.put("BBAa", 3);
+        hashTable.put("BBBB", 4);
+
+        assertEquals(2, hashTable.removePair("AaBB"));
+        assertNull(hashTable.removePair("AaBB"));
+        assertEquals(1, hashTable.getValue("AaAa"));
+        assertEquals(3, hashTable.getValue("BBAa"));
+        assertEquals(4, hashTable.getValue("BBBB"));
+        assertEquals(3, hashTable.getSize());
+    }
+
+    @Test
+    void shouldGrowWhenLoadFactorExceeded() {
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("Key" + i, i);
+        }
+        assertEquals(2048, hashTable.getCurrentCapacity());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, hashTable.getValue("Key" + i));
+        }
+    }
+
+    @Test
+    void shouldMatchHashMapUnderRandomOperations() {
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            String key = "K" + random.nextInt(5_000);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                hashTable.put(key, i);
+                expected.put(key, i);
+            } else if (operation == 1) {
+                assertEquals(expected.remove(key), hashTable.removePair(key));
+            } else {
+                assertEquals(expected.get(key), hashTable.getValue(key));
+            }
+        }
+        assertEquals(expected.size(), hashTable.getSize());
+    }
+
+    @Test
+    void storageShouldSelectEngine() {
+        assertInstanceOf(OpenAddressingHashTable.class, Storage.OPEN_ADDRESSING.create());
+        assertInstanceOf(HashTable.class, Storage.CHAINED.create());
+    }
+}
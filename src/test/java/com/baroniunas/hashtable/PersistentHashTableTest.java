@@ -0,0 +1,139 @@
+package com.baroniunas.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentHashTableTest {
+    private PersistentHashTable<String, Integer> table;
+
+    @BeforeEach
+    void setUp() {
+        table = new PersistentHashTable<>();
+    }
+
+    @Test
+    void shouldPutGetAndRemove() {
+        for (int i = 0; i < 10_000; i++) {
+            table.put("Key" + i, i);
+        }
+        table.put("Key5", 50);
+
+        assertEquals(10_000, table.getSize());
+        assertEquals(50, table.getValue("Key5"));
+        assertEquals(7, table.removePair("Key7"));
+        assertNull(table.removePair("Key7"));
+        assertNull(table.getValue("Key7"));
+        assertFalse(table.containsKey("Key7"));
+        assertEquals(9_999, table.getSize());
+    }
+
+    @Test
+    void snapshotShouldNotSeeLaterWrites() {
+        for (int i = 0; i < 1_000; i++) {
+            table.put("Key" + i, i);
+        }
+        PersistentHashTable<String, Integer> snapshot = table.snapshot();
+        for (int i = 0; i < 1_000; i++) {
+            table.put("Key" + i, -i);
+            table.put("Other" + i, i);
+        }
+        table.removePair("Key3");
+
+        assertEquals(1_000, snapshot.getSize());
+        assertEquals(1_999, table.getSize());
+        assertEquals(3, snapshot.getValue("Key3"));
+        assertNull(snapshot.getValue("Other3"));
+        assertEquals(-4, table.getValue("Key4"));
+    }
+
+    @Test
+    void writesToSnapshotShouldNotReachTheOriginal() {
+        table.put("Key", 1);
+        PersistentHashTable<String, Integer> snapshot = table.snapshot();
+        snapshot.put("Key", 2);
+        snapshot.put("Other", 3);
+
+        assertEquals(1, table.getValue("Key"));
+        assertNull(table.getValue("Other"));
+        assertEquals(1, table.getSize());
+    }
+
+    @Test
+    void snapshotTakenInsideBatchShouldStayFixed() {
+        AtomicReference<PersistentHashTable<String, Integer>> snapshot = new AtomicReference<>();
+        table.batch(edits -> {
+            for (int i = 0; i < 1_000; i++) {
+                edits.put("Key" + i, i);
+            }
+            snapshot.set(edits.snapshot());
+            for (int i = 0; i < 1_000; i++) {
+                edits.put("Key" + i, -i);
+                edits.removePair("Key" + (i / 2));
+            }
+        });
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, snapshot.get().getValue("Key" + i));
+        }
+        assertEquals(1_000, snapshot.get().getSize());
+        assertEquals(500, table.getSize());
+        assertEquals(-999, table.getValue("Key999"));
+    }
+
+    @Test
+    void batchShouldMatchPersistentWrites() {
+        PersistentHashTable<String, Integer> before = table.snapshot();
+        table.batch(edits -> {
+            for (int i = 0; i < 10_000; i++) {
+                edits.put("Key" + i, i);
+            }
+            for (int i = 0; i < 10_000; i += 3) {
+                edits.removePair("Key" + i);
+            }
+        });
+
+        assertEquals(0, before.getSize());
+        assertEquals(6_666, table.getSize());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 3 == 0 ? null : i, table.getValue("Key" + i));
+        }
+    }
+
+    @Test
+    void shouldMatchHashMapUnderCollidingHashes() {
+        // Few distinct hash codes force collision nodes, and shared prefixes force deep branches.
+        PersistentHashTable<Integer, Integer> colliding = new PersistentHashTable<>(key -> (key % 61) << 20);
+        Map<Integer, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), colliding.removePair(key));
+            } else {
+                colliding.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), colliding.getSize());
+        Map<Integer, Integer> visited = new HashMap<>();
+        colliding.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void shouldRejectNulls() {
+        assertThrows(IllegalArgumentException.class, () -> table.put(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.put("Key", null));
+        assertThrows(IllegalArgumentException.class, () -> table.getValue(null));
+        assertThrows(IllegalArgumentException.class, () -> table.removePair(null));
+        assertThrows(IllegalArgumentException.class, () -> table.batch(null));
+    }
+}
@@ -0,0 +1,107 @@
+package com.baroniunas.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveHashTableTest {
+
+    @Test
+    void defaultTablesShouldStartAtInitialCapacity() {
+        assertEquals(16, new IntObjHashTable<String>().getCurrentCapacity());
+        assertEquals(16, new LongObjHashTable<String>().getCurrentCapacity());
+        assertEquals(16, new IntIntHashTable().getCurrentCapacity());
+    }
+
+    @Test
+    void intObjShouldTreatZeroAsOrdinaryKey() {
+        IntObjHashTable<String> table = new IntObjHashTable<>();
+        assertNull(table.getValue(0));
+        table.put(0, "zero");
+        table.put(1, "one");
+        assertEquals("zero", table.getValue(0));
+        assertTrue(table.containsKey(0));
+        assertEquals(2, table.getSize());
+        assertEquals("zero", table.removePair(0));
+        assertFalse(table.containsKey(0));
+        assertEquals(1, table.getSize());
+    }
+
+    @Test
+    void intObjNullValueNotAvailable() {
+        IntObjHashTable<String> table = new IntObjHashTable<>();
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> table.put(1, null));
+        assertEquals("Value cannot be null", exception.getMessage());
+    }
+
+    @Test
+    void intObjShouldMatchHashMapUnderRandomOperations() {
+        IntObjHashTable<Integer> table = new IntObjHashTable<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 200_000; i++) {
+            // Multiples of 1024 share their low bits and stress the probe runs.
+            int key = (random.nextInt(4_000) - 2_000) * 1024;
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                table.put(key, i);
+                expected.put(key, i);
+            } else if (operation == 1) {
+                assertEquals(expected.remove(key), table.removePair(key));
+            } else {
+                assertEquals(expected.get(key), table.getValue(key));
+            }
+        }
+        assertEquals(expected.size(), table.getSize());
+    }
+
+    @Test
+    void longObjShouldMatchHashMapUnderRandomOperations() {
+        LongObjHashTable<Long> table = new LongObjHashTable<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 200_000; i++) {
+            long key = (random.nextInt(4_000) - 2_000) * (1L << 33);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                table.put(key, (long) i);
+                expected.put(key, (long) i);
+            } else if (operation == 1) {
+                assertEquals(expected.remove(key), table.removePair(key));
+            } else {
+                assertEquals(expected.get(key), table.getValue(key));
+            }
+        }
+        assertEquals(expected.size(), table.getSize());
+    }
+
+    @Test
+    void intIntShouldReturnNoEntryValueForMissingKeys() {
+        IntIntHashTable table = new IntIntHashTable(16, -1);
+        assertEquals(-1, table.getValue(0));
+        assertEquals(-1, table.getValue(42));
+        table.put(42, 7);
+        table.put(0, 0);
+        assertEquals(7, table.getValue(42));
+        assertEquals(0, table.getValue(0));
+        assertEquals(7, table.removePair(42));
+        assertEquals(-1, table.removePair(42));
+        assertEquals(1, table.getSize());
+    }
+
+    @Test
+    void intIntShouldGrowAndKeepEntries() {
+        IntIntHashTable table = new IntIntHashTable();
+        for (int i = -50_000; i < 50_000; i++) {
+            table.put(i, i * 2);
+        }
+        assertEquals(100_000, table.getSize());
+        for (int i = -50_000; i < 50_000; i++) {
+            assertEquals(i * 2, table.getValue(i));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.baroniunas.hashtable;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedHashTableTest {
+    private ShardedHashTable<String, Integer> table;
+
+    @BeforeEach
+    void setUp() {
+        table = new ShardedHashTable<>(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        table.close();
+    }
+
+    @Test
+    void shouldPutGetAndRemove() {
+        for (int i = 0; i < 10_000; i++) {
+            table.put("Key" + i, i);
+        }
+        table.put("Key5", 50);
+
+        assertEquals(10_000, table.getSize());
+        assertEquals(50, table.getValue("Key5"));
+        assertEquals(7, table.removePair("Key7"));
+        assertNull(table.removePair("Key7"));
+        assertNull(table.getValue("Key7"));
+        assertEquals(9_999, table.getSize());
+    }
+
+    @Test
+    void asyncOperationsOnOneKeyShouldApplyInSubmissionOrder() {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            futures.add(table.putAsync("Key", i));
+        }
+        CompletableFuture<Integer> last = table.getAsync("Key");
+        CompletableFuture<Integer> removed = table.removeAsync("Key");
+
+        assertEquals(999, last.join());
+        assertEquals(999, removed.join());
+        futures.forEach(future -> assertTrue(future.isDone()));
+        assertNull(table.getAsync("Key").join());
+    }
+
+    @Test
+    void concurrentProducersShouldAllBeApplied() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        table.putAsync("Key" + thread + "-" + i, i);
+                    }
+                    table.getAsync("Key" + thread + "-0").join();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // The puts were not awaited, but a get queues behind every put already offered to its shard.
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < 5_000; i++) {
+                assertEquals(i, table.getValue("Key" + t + "-" + i));
+            }
+        }
+        assertEquals(40_000, table.getSize());
+    }
+
+    @Test
+    void batchesShouldSpanShards() {
+        String[] keys = new String[1_000];
+        Integer[] values = new Integer[1_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "Key" + i;
+            values[i] = i;
+        }
+        table.putAllAsync(keys, values).join();
+
+        String[] lookups = {"Key3", "Missing", "Key999", "Key0"};
+        Integer[] out = new Integer[lookups.length];
+        assertEquals(3, table.getAllAsync(lookups, out).join());
+        assertArrayEquals(new Integer[]{3, null, 999, 0}, out);
+        assertEquals(1_000, table.getSize());
+    }
+
+    @Test
+    void heldFutureShouldNotRetainLaterRequests() throws Exception {
+        CompletableFuture<Void> early = table.putAsync("Key", 0);
+        early.join();
+        CompletableFuture<Integer> later = table.getAsync("Key");
+        WeakReference<CompletableFuture<Integer>> reference = new WeakReference<>(later);
+        later.join();
+        later = null;
+        // Moves the worker's queue head past the request tracked above.
+        table.getValue("Key");
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        assertTrue(early.isDone());
+    }
+
+    @Test
+    void errorInOperationShouldFailOnlyThatRequest() {
+        try (ShardedHashTable<Probe, Integer> probes = new ShardedHashTable<>(1)) {
+            Probe first = new Probe(null);
+            Probe exploding = new Probe(() -> {
+                throw new AssertionError("Comparison failed");
+            });
+            probes.put(first, 1);
+
+            assertThrows(AssertionError.class, () -> probes.put(exploding, 2));
+            assertEquals(1, probes.getValue(first));
+            assertEquals(1, probes.getSize());
+        }
+    }
+
+    @Test
+    void closeFromCallbackOnWorkerShouldNotHang() {
+        ShardedHashTable<Probe, Integer> probes = new ShardedHashTable<>(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Probe first = new Probe(null);
+        Probe blocking = new Probe(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        probes.put(first, 1);
+        // The lookup waits on the latch, so the callback is attached first and runs on the worker.
+        CompletableFuture<Void> closing = probes.getAsync(blocking).thenRun(probes::close);
+        release.countDown();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> closing.join());
+        assertThrows(IllegalStateException.class, () -> probes.getValue(first));
+    }
+
+    @Test
+    void blockingCallFromCallbackOnWorkerShouldFail() {
+        ShardedHashTable<Probe, Integer> probes = new ShardedHashTable<>(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Probe first = new Probe(null);
+        Probe blocking = new Probe(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        probes.put(first, 1);
+        // As above, the callback runs on the worker, where waiting for its own queue would never return.
+        CompletableFuture<Integer> nested = probes.getAsync(blocking).thenApply(value -> probes.getValue(first));
+        release.countDown();
+
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> assertTimeoutPreemptively(Duration.ofSeconds(10), () -> nested.join()));
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+        assertEquals(1, probes.getValue(first));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), probes::close);
+    }
+
+    @Test
+    void closedTableShouldRejectRequests() {
+        table.put("Key", 1);
+        table.close();
+
+        assertThrows(IllegalStateException.class, () -> table.getValue("Key"));
+        assertThrows(IllegalStateException.class, () -> table.putAsync("Key", 2));
+    }
+
+    @Test
+    void shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedHashTable<String, Integer>(0));
+        assertThrows(IllegalArgumentException.class, () -> table.put(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.putAsync("Key", null));
+        assertThrows(IllegalArgumentException.class, () -> table.getAsync(null));
+        assertThrows(IllegalArgumentException.class, () -> table.putAllAsync(new String[]{"Key", null}, new Integer[]{1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> table.getAllAsync(new String[2], new Integer[1]));
+    }
+
+    // Keys that all share one hash code and run a hook whenever they are compared with another key.
+    private static final class Probe implements Comparable<Probe> {
+        private final Runnable onCompare;
+
+        Probe(Runnable onCompare) {
+            this.onCompare = onCompare;
+        }
+
+        @Override
+        public int compareTo(Probe other) {
+            return equals(other) ? 0 : Integer.compare(System.identityHashCode(this), System.identityHashCode(other));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other != this) {
+                fire();
+                ((Probe) other).fire();
+            }
+            return other == this;
+        }
+
+        private void fire() {
+            if (onCompare != null) {
+                onCompare.run();
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.baroniunas.hashtable;
+
+import com.baroniunas.collections.btree.BTree;
+import com.baroniunas.offheap.Codec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    private HashTable<String, Integer> table;
+    private Map<String, Integer> expected;
+
+    @BeforeEach
+    void setUp() {
+        // A weak hasher, so that many buckets turn into tree bins.
+        table = HashTable.<String, Integer>builder().hasher(key -> key.length() * 31 + key.charAt(0)).build();
+        expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 20_000; i++) {
+            String key = "key" + random.nextInt(100_000);
+            table.put(key, i);
+            expected.put(key, i);
+        }
+    }
+
+    private static Map<String, Integer> contents(HashTable<String, Integer> table) {
+        Map<String, Integer> contents = new HashMap<>();
+        table.forEach(contents::put);
+        return contents;
+    }
+
+    @Test
+    void hashTableShouldRoundTripInEveryCompression() throws IOException {
+        assertTrue(table.getTreeifyCount() > 0);
+        for (Compression compression : Compression.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Snapshot.writeTo(table, out, Codec.STRING, Codec.INTEGER, compression);
+
+            HashTable<String, Integer> loaded = Snapshot.readHashTable(new ByteArrayInputStream(out.toByteArray()),
+                    Codec.STRING, Codec.INTEGER, HashTable.<String, Integer>builder().hasher(key -> key.length() * 31 + key.charAt(0)));
+            assertEquals(expected, contents(loaded), compression.name());
+            assertEquals(table.getCurrentCapacity(), loaded.getCurrentCapacity());
+            for (int index = 0; index < table.getCurrentCapacity(); index++) {
+                assertEquals(table.getCollectionAtIndex(index) == null, loaded.getCollectionAtIndex(index) == null);
+            }
+            // Still a working table afterwards.
+            loaded.put("new", -1);
+            assertEquals(-1, loaded.getValue("new"));
+            assertEquals(expected.get("key1"), loaded.removePair("key1"));
+        }
+    }
+
+    @Test
+    void differentlyConfiguredTableShouldStillLoadEveryEntry() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshot.writeTo(table, Channels.newChannel(out), Codec.STRING, Codec.INTEGER, Compression.DEFLATE);
+
+        HashTable<String, Integer> loaded = Snapshot.readHashTable(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())),
+                Codec.STRING, Codec.INTEGER);
+        assertEquals(expected, contents(loaded));
+
+        HashTable<String, Integer> powerOfTwo = Snapshot.readHashTable(new ByteArrayInputStream(out.toByteArray()),
+                Codec.STRING, Codec.INTEGER, HashTable.<String, Integer>builder().capacityMode(CapacityMode.POWER_OF_TWO));
+        assertEquals(expected, contents(powerOfTwo));
+    }
+
+    @Test
+    void tableWithDifferentHasherShouldFindEveryKey() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshot.writeTo(table, out, Codec.STRING, Codec.INTEGER, Compression.NONE);
+
+        // Agrees with the writer's hasher on the smallest keys of each tree bin but not on the rest.
+        HashTable<String, Integer> loaded = Snapshot.readHashTable(new ByteArrayInputStream(out.toByteArray()),
+                Codec.STRING, Codec.INTEGER, HashTable.<String, Integer>builder()
+                        .hasher(key -> key.length() * 31 + key.charAt(0) + (key.compareTo("key5") < 0 ? 0 : 1)));
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), loaded.getValue(entry.getKey()), entry.getKey());
+        }
+    }
+
+    @Test
+    void listBinShouldJoinTreeBinBuiltByFallbackPuts() throws IOException {
+        HashTable<String, Integer> written = HashTable.<String, Integer>builder()
+                .hasher(key -> key.startsWith("t") ? 0 : 5).build();
+        for (int i = 0; i < 10; i++) {
+            written.put("t" + i, i);
+        }
+        written.put("a", 10);
+        written.put("b", 11);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshot.writeTo(written, out, Codec.STRING, Codec.INTEGER, Compression.NONE);
+
+        // Every key now hashes to bucket 5: the tree bin is re-put there first, then the list bin restored into it.
+        HashTable<String, Integer> loaded = Snapshot.readHashTable(new ByteArrayInputStream(out.toByteArray()),
+                Codec.STRING, Codec.INTEGER, HashTable.<String, Integer>builder().hasher(key -> 5));
+        assertEquals(12, loaded.getSize());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, loaded.getValue("t" + i));
+        }
+        assertEquals(10, loaded.getValue("a"));
+        assertEquals(11, loaded.getValue("b"));
+    }
+
+    @Test
+    void bTreeShouldRoundTripInKeyOrder() throws IOException {
+        BTree<Integer, String> tree = new BTree<>(5);
+        for (int i = 0; i < 5_000; i++) {
+            tree.put(i * 7 % 5_003, "v" + i);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshot.writeTo(tree, out, Codec.INTEGER, Codec.STRING, Compression.NONE);
+        BTree<Integer, String> loaded = Snapshot.readBTree(new ByteArrayInputStream(out.toByteArray()), Codec.INTEGER, Codec.STRING);
+
+        assertEquals(5, loaded.getMinDegree());
+        assertEquals(tree.getSize(), loaded.getSize());
+        List<String> before = new ArrayList<>();
+        List<String> after = new ArrayList<>();
+        tree.forEach((key, value) -> before.add(key + "=" + value));
+        loaded.forEach((key, value) -> after.add(key + "=" + value));
+        assertEquals(before, after);
+    }
+
+    @Test
+    void damagedSnapshotsShouldBeRejected() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Snapshot.writeTo(table, out, Codec.STRING, Codec.INTEGER, Compression.NONE);
+        byte[] bytes = out.toByteArray();
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length / 2] ^= 0x01;
+        assertThrows(IOException.class,
+                () -> Snapshot.readHashTable(new ByteArrayInputStream(flipped), Codec.STRING, Codec.INTEGER));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThrows(IOException.class,
+                () -> Snapshot.readHashTable(new ByteArrayInputStream(truncated), Codec.STRING, Codec.INTEGER));
+
+        IOException wrongKind = assertThrows(IOException.class,
+                () -> Snapshot.readBTree(new ByteArrayInputStream(bytes), Codec.STRING, Codec.INTEGER));
+        assertEquals("Snapshot holds a different structure", wrongKind.getMessage());
+        assertThrows(IOException.class,
+                () -> Snapshot.readBTree(new ByteArrayInputStream(new byte[16]), Codec.STRING, Codec.INTEGER));
+    }
+
+    @Test
+    void hugeCountsInTruncatedSnapshotsShouldNotBeAllocated() throws IOException {
+        // Integer.MAX_VALUE - 9 as an unsigned LEB128 number.
+        byte[] hugeCount = {(byte) 0xf6, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+
+        ByteArrayOutputStream treeOut = new ByteArrayOutputStream();
+        Snapshot.writeTo(new BTree<Integer, String>(5), treeOut, Codec.INTEGER, Codec.STRING, Compression.NONE);
+        ByteArrayOutputStream tree = new ByteArrayOutputStream();
+        tree.write(treeOut.toByteArray(), 0, Snapshot.HEADER_SIZE);
+        tree.write(5);
+        tree.write(hugeCount);
+        assertThrows(IOException.class,
+                () -> Snapshot.readBTree(new ByteArrayInputStream(tree.toByteArray()), Codec.INTEGER, Codec.STRING));
+
+        HashTable<String, Integer> empty = new HashTable<>();
+        ByteArrayOutputStream tableOut = new ByteArrayOutputStream();
+        Snapshot.writeTo(empty, tableOut, Codec.STRING, Codec.INTEGER, Compression.NONE);
+        ByteArrayOutputStream bin = new ByteArrayOutputStream();
+        bin.write(tableOut.toByteArray(), 0, Snapshot.HEADER_SIZE);
+        // Capacity mode, capacity, size and one occupied bucket: index 0, a tree bin.
+        bin.write(new byte[]{(byte) empty.getCapacityMode().ordinal(), (byte) empty.getCurrentCapacity(), 1, 1, 0, 1});
+        bin.write(hugeCount);
+        assertThrows(IOException.class,
+                () -> Snapshot.readHashTable(new ByteArrayInputStream(bin.toByteArray()), Codec.STRING, Codec.INTEGER));
+    }
+
+    @Test
+    void corruptKeyLengthShouldNotBeAllocated() throws IOException {
+        ByteArrayOutputStream treeOut = new ByteArrayOutputStream();
+        Snapshot.writeTo(new BTree<String, String>(5), treeOut, Codec.STRING, Codec.STRING, Compression.NONE);
+        ByteArrayOutputStream corrupt = new ByteArrayOutputStream();
+        corrupt.write(treeOut.toByteArray(), 0, Snapshot.HEADER_SIZE);
+        // Minimum degree, one entry, then a key claiming Integer.MAX_VALUE - 9 bytes followed by only a few.
+        corrupt.write(new byte[]{5, 1, (byte) 0xf6, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07, 'k', 'e', 'y'});
+        assertThrows(IOException.class,
+                () -> Snapshot.readBTree(new ByteArrayInputStream(corrupt.toByteArray()), Codec.STRING, Codec.STRING));
+    }
+}
@@ -0,0 +1,151 @@
+package com.baroniunas.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableMetricsTest {
+    private HashTable<Integer, Integer> table;
+
+    @BeforeEach
+    void setUp() {
+        table = HashTable.<Integer, Integer>builder().metricsSampleInterval(1).build();
+    }
+
+    @Test
+    void metricsShouldDescribeStructure() {
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i);
+        }
+        TableMetrics metrics = table.getMetrics();
+
+        assertEquals(1000, metrics.getSize());
+        assertEquals(table.getCurrentCapacity(), metrics.getCapacity());
+        assertEquals(table.getArraySize(), metrics.getOccupiedBuckets());
+        assertEquals(1000.0 / table.getCurrentCapacity(), metrics.getLoadFactor(), 1e-9);
+        long[] histogram = metrics.getBucketLengthHistogram();
+        assertEquals(TableMetrics.MAX_TRACKED_BUCKET_LENGTH + 1, histogram.length);
+        assertEquals(metrics.getCapacity(), Arrays.stream(histogram).sum());
+        long entries = 0;
+        for (int length = 0; length < histogram.length; length++) {
+            entries += length * histogram[length];
+        }
+        assertEquals(1000, entries);
+        assertEquals(table.getResizeCount(), metrics.getResizeCount());
+        assertTrue(metrics.getResizeCount() > 0);
+        assertTrue(metrics.getTotalResizeNanos() >= metrics.getMaxResizeNanos());
+        assertTrue(metrics.getMaxResizeNanos() > 0);
+    }
+
+    @Test
+    void metricsShouldCountTreeBins() {
+        HashTable<Integer, Integer> colliding = HashTable.<Integer, Integer>builder().hasher(key -> 7).build();
+        for (int i = 0; i < 20; i++) {
+            colliding.put(i, i);
+        }
+        TableMetrics metrics = colliding.getMetrics();
+
+        assertEquals(1, metrics.getTreeBinCount());
+        assertEquals(1, metrics.getOccupiedBuckets());
+        assertEquals(20, metrics.getMaxBucketLength());
+        assertEquals(1, metrics.getBucketLengthHistogram()[TableMetrics.MAX_TRACKED_BUCKET_LENGTH]);
+    }
+
+    @Test
+    void sampledLookupsShouldRecordProbesAndLatency() {
+        for (int i = 0; i < 100; i++) {
+            table.put(i, i);
+        }
+        for (int i = 0; i < 200; i++) {
+            table.getValue(i);
+        }
+        table.removePair(5);
+        TableMetrics metrics = table.getMetrics();
+
+        assertEquals(1, metrics.getSampleInterval());
+        assertEquals(200, metrics.getProbedLookups());
+        assertEquals(1.0, metrics.getMeanProbes(), 1e-9);
+        assertTrue(metrics.getMeanComparisons() >= 0.5);
+        assertTrue(metrics.getMaxComparisons() >= 1);
+        assertEquals(200, metrics.getGetLatency().getCount());
+        assertEquals(100, metrics.getPutLatency().getCount());
+        assertEquals(1, metrics.getRemoveLatency().getCount());
+        LatencySnapshot latency = metrics.getGetLatency();
+        assertTrue(latency.getP50() <= latency.getP99());
+        assertTrue(latency.getP99() <= latency.getMax());
+    }
+
+    @Test
+    void treeBinLookupsShouldCountComparisons() {
+        HashTable<Integer, Integer> colliding = HashTable.<Integer, Integer>builder()
+                .hasher(key -> 7).metricsSampleInterval(1).build();
+        for (int i = 0; i < 1000; i++) {
+            colliding.put(i, i);
+        }
+        colliding.getValue(500);
+        int comparisons = colliding.getMetrics().getMaxComparisons();
+
+        // A balanced tree finds one of 1000 keys in far fewer comparisons than a chain would.
+        assertTrue(comparisons > 1 && comparisons < 50, "comparisons=" + comparisons);
+    }
+
+    @Test
+    void samplingShouldSkipOperationsBetweenSamples() {
+        table.setMetricsSampleInterval(10);
+        for (int i = 0; i < 100; i++) {
+            table.put(i, i);
+        }
+        assertEquals(10, table.getMetrics().getPutLatency().getCount());
+
+        table.setMetricsSampleInterval(0);
+        table.put(1000, 1000);
+        assertEquals(0, table.getMetrics().getSampleInterval());
+        assertEquals(0, table.getMetrics().getPutLatency().getCount());
+        assertThrows(IllegalArgumentException.class, () -> table.setMetricsSampleInterval(-1));
+    }
+
+    @Test
+    void histogramPercentilesShouldStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 1; nanos <= 10_000; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(10_000, histogram.percentile(1.0));
+        long p50 = histogram.percentile(0.5);
+        assertTrue(p50 >= 5_000 && p50 <= 5_000 * 1.125, "p50=" + p50);
+        long p99 = histogram.percentile(0.99);
+        assertTrue(p99 >= 9_900 && p99 <= 10_000, "p99=" + p99);
+        for (long value : new long[]{0, 7, 8, 15, 1023, 1024, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexFor(value);
+            assertTrue(LatencyHistogram.upperBound(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < value);
+        }
+    }
+
+    @Test
+    void mxBeanShouldExposeMetrics() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            table.put(i, i);
+            table.getValue(i);
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.baroniunas.hashtable:type=HashTable,name=TableMetricsTest");
+        server.registerMBean(table.asMXBean(), name);
+        try {
+            assertEquals(100, server.getAttribute(name, "Size"));
+            assertEquals(table.getResizeCount(), server.getAttribute(name, "ResizeCount"));
+            assertInstanceOf(long[].class, server.getAttribute(name, "BucketLengthHistogram"));
+            CompositeData latency = (CompositeData) server.getAttribute(name, "GetLatency");
+            assertEquals(100L, latency.get("count"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.baroniunas.offheap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapHashTableTest {
+
+    private OffHeapHashTable<String, String> table;
+
+    @BeforeEach
+    void setUp() {
+        table = new OffHeapHashTable<>(Codec.STRING, Codec.STRING);
+    }
+
+    @AfterEach
+    void tearDown() {
+        table.close();
+    }
+
+    @Test
+    void shouldPutGetAndRemove() {
+        table.put("key1", "value1");
+        table.put("key2", "value2");
+        assertEquals("value1", table.getValue("key1"));
+        assertEquals("value2", table.getValue("key2"));
+        assertNull(table.getValue("key3"));
+
+        table.put("key1", "a much longer value that no longer fits the original block");
+        assertEquals("a much longer value that no longer fits the original block", table.getValue("key1"));
+        assertEquals(2, table.getSize());
+
+        assertEquals("value2", table.removePair("key2"));
+        assertNull(table.removePair("key2"));
+        assertFalse(table.containsKey("key2"));
+        assertEquals(1, table.getSize());
+    }
+
+    @Test
+    void shouldMatchHashMapUnderRandomOperations() {
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 200_000; i++) {
+            String key = "k" + random.nextInt(20_000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    // Values of varying length force entries to move between size classes.
+                    String value = "v".repeat(random.nextInt(40)) + i;
+                    table.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    assertEquals(expected.get(key), table.getValue(key));
+                    break;
+                default:
+                    assertEquals(expected.remove(key), table.removePair(key));
+            }
+        }
+        assertEquals(expected.size(), table.getSize());
+        Map<String, String> visited = new HashMap<>();
+        table.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void shouldGrowAcrossChunks() {
+        try (OffHeapHashTable<Integer, Long> numbers = new OffHeapHashTable<>(Codec.INTEGER, Codec.LONG)) {
+            for (int i = 0; i < 300_000; i++) {
+                numbers.put(i, i * 3L);
+            }
+            assertTrue(numbers.getReservedBytes() > 2 << 20);
+            for (int i = 0; i < 300_000; i++) {
+                assertEquals(i * 3L, numbers.getValue(i));
+            }
+            assertEquals(300_000, numbers.getSize());
+        }
+    }
+
+    @Test
+    void freedEntriesShouldBeReused() {
+        for (int i = 0; i < 10_000; i++) {
+            table.put("key" + i, "value" + i);
+        }
+        long reserved = table.getReservedBytes();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 10_000; i++) {
+                table.removePair("key" + i);
+            }
+            for (int i = 0; i < 10_000; i++) {
+                table.put("key" + i, "value" + i);
+            }
+        }
+        assertEquals(reserved, table.getReservedBytes());
+    }
+
+    @Test
+    void closedTableShouldRejectOperations() {
+        table.put("key", "value");
+        table.close();
+        assertThrows(IllegalStateException.class, () -> table.getValue("key"));
+        assertThrows(IllegalStateException.class, () -> table.put("key", "value"));
+        table.close();
+    }
+
+    @Test
+    void shouldRejectNulls() {
+        assertThrows(IllegalArgumentException.class, () -> table.put(null, "value"));
+        assertThrows(IllegalArgumentException.class, () -> table.put("key", null));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapHashTable<String, String>(null, Codec.STRING));
+    }
+
+    @Test
+    void mappedTableShouldSurviveReopen(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("table.bin");
+        Map<Integer, String> expected = new HashMap<>();
+        try (OffHeapHashTable<Integer, String> mapped = OffHeapHashTable.create(file, Codec.INTEGER, Codec.STRING, 0)) {
+            for (int i = 0; i < 100_000; i++) {
+                mapped.put(i, "value" + i);
+                expected.put(i, "value" + i);
+            }
+            for (int i = 0; i < 100_000; i += 3) {
+                mapped.removePair(i);
+                expected.remove(i);
+            }
+        }
+        assertThrows(IOException.class, () -> OffHeapHashTable.create(file, Codec.INTEGER, Codec.STRING, 0));
+
+        try (OffHeapHashTable<Integer, String> reopened = OffHeapHashTable.open(file, Codec.INTEGER, Codec.STRING)) {
+            assertEquals(expected.size(), reopened.getSize());
+            Map<Integer, String> visited = new HashMap<>();
+            reopened.forEach(visited::put);
+            assertEquals(expected, visited);
+            // Keeps working, including growth, after a reopen.
+            for (int i = 100_000; i < 200_000; i++) {
+                reopened.put(i, "value" + i);
+            }
+            assertEquals("value150000", reopened.getValue(150_000));
+        }
+        try (OffHeapHashTable<Integer, String> reopened = OffHeapHashTable.open(file, Codec.INTEGER, Codec.STRING)) {
+            assertEquals(expected.size() + 100_000, reopened.getSize());
+            assertEquals("value199999", reopened.getValue(199_999));
+        }
+    }
+
+    @Test
+    void openShouldRejectUnflushedChanges(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("table.bin");
+        try (OffHeapHashTable<Integer, Long> mapped = OffHeapHashTable.create(file, Codec.INTEGER, Codec.LONG, 0)) {
+            mapped.put(1, 1L);
+            mapped.flush();
+            try (OffHeapHashTable<Integer, Long> reader = OffHeapHashTable.open(file, Codec.INTEGER, Codec.LONG)) {
+                assertEquals(1L, reader.getValue(1));
+            }
+
+            mapped.put(2, 2L);
+            IOException exception = assertThrows(IOException.class,
+                    () -> OffHeapHashTable.open(file, Codec.INTEGER, Codec.LONG));
+            assertEquals("File was not closed cleanly", exception.getMessage());
+        }
+    }
+
+    @Test
+    void openShouldRejectForeignOrDamagedFiles(@TempDir Path directory) throws IOException {
+        Path foreign = directory.resolve("foreign.bin");
+        Files.write(foreign, new byte[10_000]);
+        assertThrows(IOException.class, () -> OffHeapHashTable.open(foreign, Codec.INTEGER, Codec.LONG));
+
+        Path file = directory.resolve("table.bin");
+        OffHeapHashTable.create(file, Codec.INTEGER, Codec.LONG, 0).close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer version = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 99);
+            channel.write(version, 8);
+        }
+        IOException exception = assertThrows(IOException.class,
+                () -> OffHeapHashTable.open(file, Codec.INTEGER, Codec.LONG));
+        assertEquals("Unsupported file version 99", exception.getMessage());
+    }
+}
@@ -0,0 +1,191 @@
+package com.baroniunas.wal;
+
+import com.baroniunas.offheap.Codec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableHashTableTest {
+    @TempDir
+    Path directory;
+
+    private DurableHashTable<Integer, String> open(int syncEvery, long checkpointBytes) throws IOException {
+        return DurableHashTable.builder(directory, Codec.INTEGER, Codec.STRING)
+                .syncEvery(syncEvery)
+                .syncInterval(Duration.ofDays(1))
+                .checkpointBytes(checkpointBytes)
+                .open();
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void whenReopenedAfterCloseShouldKeepEveryChange() throws IOException {
+        try (DurableHashTable<Integer, String> table = open(1000, Long.MAX_VALUE)) {
+            for (int i = 0; i < 100; i++) {
+                table.put(i, "value" + i);
+            }
+            table.put(5, "updated");
+            assertEquals("value7", table.removePair(7));
+            assertNull(table.removePair(1000));
+        }
+        try (DurableHashTable<Integer, String> table = open(1000, Long.MAX_VALUE)) {
+            assertEquals(99, table.getSize());
+            assertEquals("updated", table.getValue(5));
+            assertNull(table.getValue(7));
+            assertEquals("value99", table.getValue(99));
+        }
+    }
+
+    @Test
+    void afterCrashShouldRecoverSyncedChangesOnly() throws IOException {
+        DurableHashTable<Integer, String> table = open(10, Long.MAX_VALUE);
+        for (int i = 0; i < 25; i++) {
+            table.put(i, "value" + i);
+        }
+        table.crash();
+
+        try (DurableHashTable<Integer, String> recovered = open(10, Long.MAX_VALUE)) {
+            // Two full batches reached the disk; the last five records were still buffered.
+            assertEquals(20, recovered.getSize());
+            assertEquals("value19", recovered.getValue(19));
+            assertNull(recovered.getValue(20));
+        }
+    }
+
+    @Test
+    void afterCrashShouldCutOffTornRecord() throws IOException {
+        DurableHashTable<Integer, String> table = open(1, Long.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            table.put(i, "value" + i);
+        }
+        table.crash();
+        Path segment = files("wal-").get(0);
+        long length = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Half of the last record, as if the machine stopped in the middle of a write.
+            channel.truncate(length - 6);
+        }
+
+        try (DurableHashTable<Integer, String> recovered = open(1, Long.MAX_VALUE)) {
+            assertEquals(9, recovered.getSize());
+            assertNull(recovered.getValue(9));
+            recovered.put(9, "again");
+        }
+        try (DurableHashTable<Integer, String> recovered = open(1, Long.MAX_VALUE)) {
+            assertEquals(10, recovered.getSize());
+            assertEquals("again", recovered.getValue(9));
+        }
+    }
+
+    @Test
+    void afterCrashShouldIgnoreCorruptedTail() throws IOException {
+        DurableHashTable<Integer, String> table = open(1, Long.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            table.put(i, "value" + i);
+        }
+        table.crash();
+        Path segment = files("wal-").get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(segment, bytes);
+
+        try (DurableHashTable<Integer, String> recovered = open(1, Long.MAX_VALUE)) {
+            assertEquals(9, recovered.getSize());
+        }
+    }
+
+    @Test
+    void whenLogGrowsShouldCheckpointAndDropOldFiles() throws IOException {
+        try (DurableHashTable<Integer, String> table = open(16, 1024)) {
+            for (int i = 0; i < 1000; i++) {
+                table.put(i % 300, "value" + i);
+                if (i % 3 == 0) {
+                    table.removePair((i + 150) % 300);
+                }
+            }
+            assertTrue(table.getCheckpointCount() > 0);
+            assertEquals(1, files("checkpoint-").size());
+            assertEquals(1, files("wal-").size());
+        }
+    }
+
+    @Test
+    void afterCrashShouldReplayLogOnTopOfCheckpoint() throws IOException {
+        DurableHashTable<Integer, String> table = open(1, 2048);
+        for (int i = 0; i < 500; i++) {
+            table.put(i, "value" + i);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            table.removePair(i);
+        }
+        int checkpoints = table.getCheckpointCount();
+        table.crash();
+
+        assertTrue(checkpoints > 0);
+        try (DurableHashTable<Integer, String> recovered = open(1, 2048)) {
+            assertEquals(250, recovered.getSize());
+            for (int i = 0; i < 500; i++) {
+                assertEquals(i % 2 == 0 ? null : "value" + i, recovered.getValue(i));
+            }
+        }
+    }
+
+    @Test
+    void whenCheckpointWasInterruptedShouldIgnoreTemporaryFile() throws IOException {
+        try (DurableHashTable<Integer, String> table = open(1, Long.MAX_VALUE)) {
+            table.put(1, "one");
+            table.checkpoint();
+            table.put(2, "two");
+        }
+        Files.write(directory.resolve("checkpoint-00000000000000000002.snap.tmp"), new byte[]{1, 2, 3});
+
+        try (DurableHashTable<Integer, String> recovered = open(1, Long.MAX_VALUE)) {
+            assertEquals(2, recovered.getSize());
+            assertEquals("two", recovered.getValue(2));
+        }
+        assertTrue(files("checkpoint-").stream().noneMatch(file -> file.toString().endsWith(".tmp")));
+    }
+
+    @Test
+    void whenClosedShouldRejectOperations() throws IOException {
+        DurableHashTable<Integer, String> table = open(1, Long.MAX_VALUE);
+        table.close();
+        assertThrows(IllegalStateException.class, () -> table.put(1, "one"));
+        assertThrows(IllegalStateException.class, () -> table.getValue(1));
+    }
+
+    @Test
+    void whenSettingsAreInvalidShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> DurableHashTable.builder(null, Codec.INTEGER, Codec.STRING));
+        assertThrows(IllegalArgumentException.class, () -> DurableHashTable.builder(directory, Codec.INTEGER, Codec.STRING).syncEvery(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> DurableHashTable.builder(directory, Codec.INTEGER, Codec.STRING).syncInterval(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> DurableHashTable.builder(directory, Codec.INTEGER, Codec.STRING).checkpointBytes(0));
+    }
+
+    @Test
+    void whenKeyOrValueIsNullShouldThrow() throws IOException {
+        try (DurableHashTable<Integer, String> table = open(1, Long.MAX_VALUE)) {
+            assertThrows(IllegalArgumentException.class, () -> table.put(null, "one"));
+            assertThrows(IllegalArgumentException.class, () -> table.put(1, null));
+            assertThrows(IllegalArgumentException.class, () -> table.removePair(null));
+        }
+    }
+}